@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Game;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures saving and popping moves in the undo buffer, in the same
+ * package as the buffer since it is only used by Game.
+ *
+ * @author Adrian Panton
+ */
+@State(Scope.Thread)
+public class UndoBufferControlBenchmark {
+
+	private UndoBufferControl undoBufferControl;
+
+	// Moves of a whole game, one ball removed by each.
+	private int moves;
+
+	@Setup(Level.Trial)
+	public void setup() {
+
+		int holes = BoardGeometry.ENGLISH.getNumberOfHoles();
+
+		undoBufferControl = new UndoBufferControl(holes);
+		moves = holes - 2;
+	}
+
+	@Benchmark
+	public UndoMove saveAndPopMove() {
+
+		undoBufferControl.saveMove(15, 16, 17);
+		return undoBufferControl.popMove();
+	}
+
+	@Benchmark
+	public void fillAndEmpty(Blackhole blackhole) {
+
+		for (int n = 0; n < moves; n++)
+			undoBufferControl.saveMove(n, n + 1, n + 2);
+
+		for (int n = 0; n < moves; n++)
+			blackhole.consume(undoBufferControl.popMove());
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.analysis;
+
+import com.arp.solitaire.Board.BallControl;
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Game.UndoMove;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the calls the game makes on BallControl for each touch and
+ * each frame, from a position part way through a game on the English
+ * board so there are both balls and gaps about.
+ *
+ * @author Adrian Panton
+ */
+@State(Scope.Thread)
+public class BallControlBenchmark {
+
+	// Jumps made from the start to reach the position measured.
+	private static final int OPENING_JUMPS = 10;
+
+	private BallControl ballControl;
+
+	// A jump that can be made from the position measured.
+	private int oldPosition;
+	private int jumped;
+	private int newPosition;
+
+	// Undoes the jump.
+	private UndoMove undoMove;
+
+	@Setup(Level.Trial)
+	public void setup() {
+
+		ballControl = new BallControl(BoardGeometry.ENGLISH);
+		BoardGeometry geometry = ballControl.getGeometry();
+
+		// Now play the first jump that can be made each time.
+		for (int n = 0; n < OPENING_JUMPS; n++) {
+			int jump = firstLegalJump();
+			ballControl.moveBall(geometry.getFrom(jump), geometry.getOver(jump), geometry.getTo(jump));
+		}
+
+		int jump = firstLegalJump();
+		oldPosition = geometry.getFrom(jump);
+		jumped = geometry.getOver(jump);
+		newPosition = geometry.getTo(jump);
+
+		undoMove = new UndoMove();
+		undoMove.setOldPosition(oldPosition);
+		undoMove.setJumped(jumped);
+		undoMove.setNewPosition(newPosition);
+	}
+
+	private int firstLegalJump() {
+
+		for (int jump = 0; jump < ballControl.getGeometry().getNumberOfJumps(); jump++)
+			if (ballControl.isJumpLegal(jump))
+				return jump;
+
+		throw new IllegalStateException("No jump can be made");
+	}
+
+	@Benchmark
+	public boolean checkValidMove() {
+		return ballControl.checkValidMove(oldPosition);
+	}
+
+	@Benchmark
+	public int moveBallAndUndo() {
+
+		ballControl.moveBall(oldPosition, jumped, newPosition);
+		ballControl.undoMove(undoMove);
+
+		return ballControl.getBallCounter();
+	}
+
+	@Benchmark
+	public int checkForGameEnd() {
+		return ballControl.checkForGameEnd();
+	}
+
+	@Benchmark
+	public int[] getBallGraphicList() {
+		return ballControl.getBallGraphicList();
+	}
+}
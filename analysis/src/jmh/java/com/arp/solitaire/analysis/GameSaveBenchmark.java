@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.analysis;
+
+import com.arp.solitaire.Board.BallControl;
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Game.UndoMove;
+import com.arp.solitaire.io.FileGameStore;
+import com.arp.solitaire.io.GameSaveData;
+import com.arp.solitaire.io.GameSaveFormat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Measures saving and loading a game, both in memory to see the cost
+ * of the format alone and through a FileGameStore to see the whole
+ * round trip the app makes.
+ *
+ * @author Adrian Panton
+ */
+@State(Scope.Thread)
+public class GameSaveBenchmark {
+
+	private static final String FILE_ID = "SOL";
+
+	// Jumps made in the game saved.
+	private static final int JUMPS_MADE = 15;
+
+	private GameSaveData gameSaveData;
+
+	// The game as saved, for measuring loads alone.
+	private byte[] saved;
+
+	private ByteArrayOutputStream memory;
+
+	private File directory;
+	private FileGameStore gameStore;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+
+		BallControl ballControl = new BallControl(BoardGeometry.ENGLISH);
+		BoardGeometry geometry = ballControl.getGeometry();
+
+		// Undo buffer as Game keeps it, one entry for every hole.
+		ArrayList<UndoMove> undoMoves = new ArrayList<>();
+		for (int n = 0; n < geometry.getNumberOfHoles(); n++)
+			undoMoves.add(new UndoMove());
+
+		// Now play the first jump that can be made each time.
+		for (int n = 0; n < JUMPS_MADE; n++) {
+			int jump = 0;
+			while (!ballControl.isJumpLegal(jump))
+				jump++;
+
+			UndoMove undoMove = undoMoves.get(n);
+			undoMove.setOldPosition(geometry.getFrom(jump));
+			undoMove.setJumped(geometry.getOver(jump));
+			undoMove.setNewPosition(geometry.getTo(jump));
+
+			ballControl.moveBall(geometry.getFrom(jump), geometry.getOver(jump), geometry.getTo(jump));
+		}
+
+		gameSaveData = new GameSaveData();
+		gameSaveData.setFileID(FILE_ID);
+		gameSaveData.setBallCount(ballControl.getBallCounter());
+		gameSaveData.setGraphicList(ballControl.getBallGraphicList());
+		gameSaveData.setUndoBufferPointer(JUMPS_MADE);
+		gameSaveData.setUndoMoves(undoMoves);
+
+		memory = new ByteArrayOutputStream();
+		GameSaveFormat.write(memory, gameSaveData);
+		saved = memory.toByteArray();
+
+		directory = File.createTempFile("solitaire", "");
+		directory.delete();
+		gameStore = new FileGameStore(directory, 1);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+
+		File[] files = directory.listFiles();
+		if (files != null)
+			for (File file : files)
+				file.delete();
+
+		directory.delete();
+	}
+
+	@Benchmark
+	public int saveToMemory() throws IOException {
+
+		memory.reset();
+		GameSaveFormat.write(memory, gameSaveData);
+
+		return memory.size();
+	}
+
+	@Benchmark
+	public GameSaveData loadFromMemory() throws IOException {
+		return GameSaveFormat.read(new ByteArrayInputStream(saved));
+	}
+
+	@Benchmark
+	public GameSaveData roundTripThroughFile() {
+
+		gameStore.saveGame(0, gameSaveData);
+		return gameStore.loadGame(0);
+	}
+}
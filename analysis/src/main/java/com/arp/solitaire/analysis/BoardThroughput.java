@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.analysis;
+
+import com.arp.solitaire.Board.BallControl;
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Board.WideBoard;
+
+import java.util.Random;
+
+/**
+ * Measures how fast jumps are checked and made on boards held in a
+ * single long and on wide boards held in an array of longs, so the
+ * cost of large boards can be compared with the English board.
+ *
+ * Each board is searched depth first from the start without
+ * remembering positions until a fixed number of jumps have been
+ * checked, then random games are played through BallControl. Large
+ * boards have more jumps to check for each position, so searches are
+ * compared by checks made rather than positions reached.
+ *
+ * @author Adrian Panton
+ */
+public class BoardThroughput {
+
+	// Jumps checked by each depth first search.
+	private static final long SEARCH_CHECKS = 500000000L;
+
+	// Games played through BallControl for each board.
+	private static final int GAMES = 200000;
+
+	// Runs of each measurement, the first runs warm up the JIT.
+	private static final int RUNS = 3;
+
+	// Cross with arms five holes wide on a 13 by 13 grid, 105 holes.
+	public static final String LARGE_CROSS_LAYOUT =
+			"    ooooo    \n" +
+			"    ooooo    \n" +
+			"    ooooo    \n" +
+			"    ooooo    \n" +
+			"ooooooooooooo\n" +
+			"ooooooooooooo\n" +
+			"oooooo*oooooo\n" +
+			"ooooooooooooo\n" +
+			"ooooooooooooo\n" +
+			"    ooooo    \n" +
+			"    ooooo    \n" +
+			"    ooooo    \n" +
+			"    ooooo    ";
+
+	private final BoardGeometry geometry;
+
+	private long checksLeft; // Jumps still to check in a search.
+
+	private BoardThroughput(BoardGeometry geometry) {
+		this.geometry = geometry;
+	}
+
+	/**
+	 * Now search from the start position held in a long.
+	 *
+	 * @return jumps checked per second.
+	 */
+	private double searchLong() {
+
+		checksLeft = SEARCH_CHECKS;
+
+		long start = System.nanoTime();
+		searchLong(geometry.getStartBoard());
+
+		return rate(SEARCH_CHECKS - checksLeft, start);
+	}
+
+	private void searchLong(long board) {
+
+		for (int jump = 0; jump < geometry.getNumberOfJumps() && checksLeft > 0; jump++) {
+			checksLeft--;
+
+			if (geometry.isLegal(board, jump))
+				searchLong(geometry.makeJump(board, jump));
+		}
+	}
+
+	/**
+	 * Now search from the start position held in a wide board.
+	 *
+	 * @return jumps checked per second.
+	 */
+	private double searchWide() {
+
+		WideBoard board = new WideBoard(geometry);
+		board.setStartBoard();
+
+		checksLeft = SEARCH_CHECKS;
+
+		long start = System.nanoTime();
+		searchWide(board);
+
+		return rate(SEARCH_CHECKS - checksLeft, start);
+	}
+
+	private void searchWide(WideBoard board) {
+
+		for (int jump = 0; jump < geometry.getNumberOfJumps() && checksLeft > 0; jump++) {
+			checksLeft--;
+
+			if (board.isLegal(jump)) {
+				board.makeJump(jump);
+				searchWide(board);
+				board.makeJump(jump); // Undo jump.
+			}
+		}
+	}
+
+	/**
+	 * Now play random games through BallControl.
+	 *
+	 * @return jumps made per second.
+	 */
+	private double playGames() {
+
+		BallControl ballControl = new BallControl(geometry);
+		Random random = new Random(1);
+
+		int jumps = geometry.getNumberOfJumps();
+		long moves = 0;
+
+		long start = System.nanoTime();
+
+		for (int game = 0; game < GAMES; game++) {
+			ballControl.resetBalls();
+
+			while (ballControl.hasLegalMove()) {
+
+				// Take the first legal jump from a random place in the list.
+				int jump = random.nextInt(jumps);
+				while (!ballControl.isJumpLegal(jump))
+					jump = jump + 1 == jumps ? 0 : jump + 1;
+
+				ballControl.moveBall(geometry.getFrom(jump), geometry.getOver(jump),
+						geometry.getTo(jump));
+				moves++;
+			}
+		}
+
+		return rate(moves, start);
+	}
+
+	private static double rate(long count, long start) {
+		return count * 1e9 / (System.nanoTime() - start);
+	}
+
+	private static void report(String name, String unit, double rate, double englishRate) {
+		System.out.printf("%-24s %8.1f M %-9s %5.2fx slower than English%n",
+				name, rate / 1e6, unit, englishRate / rate);
+	}
+
+	public static void main(String[] args) {
+
+		BoardThroughput english = new BoardThroughput(BoardGeometry.ENGLISH);
+		BoardThroughput large = new BoardThroughput(BoardGeometry.fromLayout(LARGE_CROSS_LAYOUT));
+
+		System.out.println("Large board: " + large.geometry.getNumberOfHoles() + " holes, "
+				+ large.geometry.getNumberOfWords() + " words, "
+				+ large.geometry.getNumberOfJumps() + " jumps");
+
+		for (int run = 1; run <= RUNS; run++) {
+			System.out.println("Run " + run);
+
+			double englishSearch = english.searchLong();
+			report("English search long", "checks/s", englishSearch, englishSearch);
+			report("English search words", "checks/s", english.searchWide(), englishSearch);
+			report("Large search words", "checks/s", large.searchWide(), englishSearch);
+
+			double englishGames = english.playGames();
+			report("English BallControl", "jumps/s", englishGames, englishGames);
+			report("Large BallControl", "jumps/s", large.playGames(), englishGames);
+		}
+	}
+}
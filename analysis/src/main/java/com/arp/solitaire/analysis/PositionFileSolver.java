@@ -0,0 +1,609 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.analysis;
+
+import com.arp.solitaire.Board.BallControl;
+import com.arp.solitaire.Board.BallGraphic;
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Solution.ParallelSolver;
+import com.arp.solitaire.Solution.SolutionMove;
+import com.arp.solitaire.Solution.SolvabilityDatabase;
+import com.arp.solitaire.Solution.Solver;
+import com.arp.solitaire.Solution.TranspositionTable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solves every position in a file and writes a line for each with the
+ * jumps of a solution as from-to holes, or "unsolvable".
+ *
+ * Positions are in the hole order of getBallGraphicList(), either as
+ * text with a line of one character for each hole, '0' for no ball
+ * and any other for a ball, or as binary with 8 bytes for each
+ * position holding the bit set of holes with a ball. Spaces, blank
+ * lines and lines starting '#' are skipped in text files.
+ *
+ * The file is read and written through channels a buffer at a time,
+ * with positions handed to a thread pool in blocks. Only a fixed
+ * number of blocks are in hand at once and they are written in the
+ * order read, so files of any size can be solved in little memory.
+ * Solutions can also be played through BallControl to check them.
+ *
+ * The database only holds positions reachable from the start, so one
+ * missing from it is searched unless the file is known to hold only
+ * reachable positions, such as those saved from games.
+ *
+ * Files of a few hard positions can instead be searched one position
+ * at a time by a ParallelSolver using every thread.
+ *
+ * @author Adrian Panton
+ */
+public class PositionFileSolver {
+
+	// Positions given to a thread at a time.
+	private static final int BLOCK_SIZE = 256;
+
+	// Blocks in hand for each thread before waiting for the oldest.
+	private static final int BLOCKS_PER_THREAD = 4;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	// Positions a thread's table may hold before it is cleared.
+	private static final int MAX_TABLE_SIZE = 1 << 22;
+
+	// Seconds between progress reports.
+	private static final long REPORT_INTERVAL = 5;
+
+	private static final String UNSOLVABLE = "unsolvable";
+
+	private final BoardGeometry geometry;
+	private final long target; // Position with a single ball in the middle hole.
+
+	// Solvable positions reachable from the start, or null.
+	private final SolvabilityDatabase database;
+
+	// If true every position is reachable from the start, so one not
+	// in the database can not be solved.
+	private boolean reachable = false;
+
+	// Searches each position with every thread, or null to search a
+	// position on each thread.
+	private ParallelSolver parallelSolver = null;
+
+	// If true each solution is played through BallControl.
+	private boolean verify = false;
+	private final AtomicLong failures = new AtomicLong();
+
+	// Solver for each thread, each with its own table.
+	private final ThreadLocal<Solver> solvers = new ThreadLocal<Solver>() {
+		@Override
+		protected Solver initialValue() {
+			return new Solver(geometry, new TranspositionTable(geometry));
+		}
+	};
+
+	// Game board for each thread used to check solutions.
+	private final ThreadLocal<BallControl> ballControls = new ThreadLocal<BallControl>() {
+		@Override
+		protected BallControl initialValue() {
+			return new BallControl(geometry);
+		}
+	};
+
+	/**
+	 * Create a solver for positions on a board.
+	 *
+	 * @param geometry layout of board, no more than 64 holes.
+	 * @param database solvable positions used to solve quickly, or null.
+	 */
+	public PositionFileSolver(BoardGeometry geometry, SolvabilityDatabase database) {
+
+		this.geometry = geometry;
+
+		// Only a database of the middle hole game can be walked, positions
+		// reached from another start are not reachable from this one.
+		int middle = geometry.getMiddleHole();
+		if (database != null && !database.isFor(middle, middle))
+			database = null;
+
+		this.database = database;
+
+		target = BoardGeometry.holeBit(geometry.getMiddleHole());
+	}
+
+	/**
+	 * Now solve every position in a file.
+	 *
+	 * @param input file of positions.
+	 * @param binary true if positions are 8 byte bit sets, false for text.
+	 * @param output file to write a line for each position to.
+	 * @param threads number of threads to solve with.
+	 *
+	 * @return number of positions solved.
+	 */
+	public long solveFile(File input, boolean binary, File output, int threads)
+			throws IOException, InterruptedException, ExecutionException {
+
+		// The parallel solver already uses every thread on one position.
+		if (parallelSolver != null)
+			threads = 1;
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+		int window = threads * BLOCKS_PER_THREAD;
+
+		long count = 0;
+		long start = System.nanoTime();
+		long lastReport = start;
+
+		try (FileChannel in = new RandomAccessFile(input, "r").getChannel();
+				FileChannel out = new RandomAccessFile(output, "rw").getChannel()) {
+
+			out.truncate(0);
+
+			PositionReader reader = binary ? new BinaryReader(in) : new TextReader(in);
+			ByteBuffer outBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+			while (true) {
+				final long[] block = new long[BLOCK_SIZE];
+				final int size = reader.read(block);
+
+				if (size == 0) break;
+
+				// Wait for the oldest block once the window is full.
+				if (pending.size() >= window)
+					write(out, outBuffer, pending.removeFirst().get());
+
+				pending.addLast(executor.submit(new Callable<byte[]>() {
+					@Override
+					public byte[] call() {
+						return solveBlock(block, size);
+					}
+				}));
+
+				count += size;
+
+				long now = System.nanoTime();
+				if (now - lastReport > REPORT_INTERVAL * 1000000000L) {
+					report(count, start, now);
+					lastReport = now;
+				}
+			}
+
+			while (!pending.isEmpty())
+				write(out, outBuffer, pending.removeFirst().get());
+
+			outBuffer.flip();
+			while (outBuffer.hasRemaining())
+				out.write(outBuffer);
+
+		} finally {
+			executor.shutdownNow();
+		}
+
+		report(count, start, System.nanoTime());
+
+		return count;
+	}
+
+	/**
+	 * Now solve a block of positions.
+	 *
+	 * @return lines written for the positions.
+	 */
+	private byte[] solveBlock(long[] block, int size) {
+
+		StringBuilder lines = new StringBuilder(size * 8);
+
+		for (int n = 0; n < size; n++) {
+			List<SolutionMove> solution = solve(block[n]);
+
+			if (solution == null) {
+				lines.append(UNSOLVABLE);
+			} else {
+				if (verify && !playSolution(block[n], solution))
+					failures.incrementAndGet();
+
+				for (int jump = 0; jump < solution.size(); jump++) {
+					SolutionMove move = solution.get(jump);
+
+					if (jump > 0) lines.append(' ');
+					lines.append(move.getOldPosition()).append('-').append(move.getNewPosition());
+				}
+			}
+
+			lines.append('\n');
+		}
+
+		return lines.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Now play a solution through BallControl from a position.
+	 *
+	 * @return true if every jump was allowed and the game was won.
+	 */
+	private boolean playSolution(long board, List<SolutionMove> solution) {
+
+		BallControl ballControl = ballControls.get();
+		ballControl.restoreGame(BallGraphic.toGraphicList(board, geometry.getNumberOfHoles()),
+				Long.bitCount(board));
+
+		for (SolutionMove move : solution) {
+			if (!ballControl.checkValidMove(move.getOldPosition())
+					|| ballControl.findValidJump(move.getNewPosition()) == BoardGeometry.NO_JUMP)
+				return false;
+
+			ballControl.moveBall(move.getOldPosition(), move.getJumped(), move.getNewPosition());
+		}
+
+		return ballControl.checkForGameEnd() == BallControl.GAME_WON;
+	}
+
+	/**
+	 * Set whether each solution is played through BallControl to check it.
+	 *
+	 * @param verify true to check solutions.
+	 */
+	public void setVerify(boolean verify) {
+		this.verify = verify;
+	}
+
+	/**
+	 * Set a solver which searches each position with every thread, the
+	 * file is then worked through one position at a time.
+	 *
+	 * @param parallelSolver solver finishing in the middle hole or null.
+	 */
+	public void setParallelSolver(ParallelSolver parallelSolver) {
+		this.parallelSolver = parallelSolver;
+	}
+
+	/**
+	 * Set whether every position is known to be reachable from the start,
+	 * letting the database answer for positions it does not hold.
+	 *
+	 * @param reachable true if positions were reached by play from the start.
+	 */
+	public void setReachable(boolean reachable) {
+		this.reachable = reachable;
+	}
+
+	/** Get number of solutions which failed to play through BallControl. */
+	public long getFailureCount() {
+		return failures.get();
+	}
+
+	/**
+	 * Now solve one position, walking down the database when the
+	 * position is in it and searching when it is not.
+	 *
+	 * @return list of jumps or null if position can not be solved.
+	 */
+	List<SolutionMove> solve(long board) {
+
+		if (database != null) {
+			if (database.isSolvable(board))
+				return walkDatabase(board);
+
+			if (reachable)
+				return null;
+		}
+
+		// Its table drops old positions once full so is never cleared.
+		if (parallelSolver != null)
+			return parallelSolver.solve(board);
+
+		Solver solver = solvers.get();
+
+		if (solver.getTable().size() > MAX_TABLE_SIZE)
+			solver.getTable().clear();
+
+		return solver.solve(board);
+	}
+
+	/**
+	 * Now follow jumps which stay in the database to the target. Every
+	 * position reached from one in the database is also reachable from
+	 * the start, so the database answers for all of them.
+	 */
+	private List<SolutionMove> walkDatabase(long board) {
+
+		int jumps = Long.bitCount(board) - 1;
+		int[] path = new int[jumps];
+
+		for (int depth = 0; depth < jumps; depth++) {
+			for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+				if (!geometry.isLegal(board, jump)) continue;
+
+				long next = geometry.makeJump(board, jump);
+
+				if (next == target || database.isSolvable(next)) {
+					path[depth] = jump;
+					board = next;
+					break;
+				}
+			}
+		}
+
+		List<SolutionMove> solution = new ArrayList<>(jumps);
+
+		for (int jump : path) {
+			SolutionMove move = new SolutionMove();
+			move.setOldPosition(geometry.getFrom(jump));
+			move.setJumped(geometry.getOver(jump));
+			move.setNewPosition(geometry.getTo(jump));
+			move.setDirection(geometry.getDirection(jump));
+			solution.add(move);
+		}
+
+		return solution;
+	}
+
+	/** Now add lines to the output, writing the buffer out when full. */
+	private static void write(FileChannel out, ByteBuffer buffer, byte[] lines) throws IOException {
+
+		int offset = 0;
+
+		while (offset < lines.length) {
+			if (!buffer.hasRemaining()) {
+				buffer.flip();
+				while (buffer.hasRemaining())
+					out.write(buffer);
+				buffer.clear();
+			}
+
+			int length = Math.min(buffer.remaining(), lines.length - offset);
+			buffer.put(lines, offset, length);
+			offset += length;
+		}
+	}
+
+	private static void report(long count, long start, long now) {
+
+		double seconds = (now - start) / 1e9;
+		System.err.printf("%d positions in %.1fs, %.0f positions/s%n",
+				count, seconds, count / Math.max(seconds, 1e-9));
+	}
+
+	/** Reads positions from a file a buffer at a time. */
+	private interface PositionReader {
+
+		/**
+		 * Now read positions.
+		 *
+		 * @param boards filled with positions read.
+		 *
+		 * @return number of positions read, 0 at the end of the file.
+		 */
+		int read(long[] boards) throws IOException;
+	}
+
+	/** Reads positions held as 8 byte bit sets. */
+	private static class BinaryReader implements PositionReader {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+		BinaryReader(FileChannel channel) {
+			this.channel = channel;
+			buffer.flip(); // Start empty.
+		}
+
+		@Override
+		public int read(long[] boards) throws IOException {
+
+			int count = 0;
+
+			while (count < boards.length) {
+				if (buffer.remaining() < Long.BYTES) {
+					buffer.compact();
+					int read = channel.read(buffer);
+					buffer.flip();
+
+					if (read < 0) {
+						if (buffer.hasRemaining())
+							throw new IOException("File ends part way through a position");
+						break;
+					}
+
+					continue;
+				}
+
+				boards[count++] = buffer.getLong();
+			}
+
+			return count;
+		}
+	}
+
+	/** Reads positions held as a line of characters, one for each hole. */
+	private class TextReader implements PositionReader {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+		// Ball graphics of the line being read.
+		private final int[] graphics = new int[geometry.getNumberOfHoles()];
+		private int length;        // Characters read of the line.
+		private boolean comment;   // True if the line is a comment.
+		private long lineNumber = 1;
+		private boolean ended;
+
+		TextReader(FileChannel channel) {
+			this.channel = channel;
+			buffer.flip(); // Start empty.
+		}
+
+		@Override
+		public int read(long[] boards) throws IOException {
+
+			int count = 0;
+
+			while (count < boards.length && !ended) {
+				if (!buffer.hasRemaining()) {
+					buffer.clear();
+					int read = channel.read(buffer);
+					buffer.flip();
+
+					if (read < 0) {
+						ended = true;
+
+						// Last line may have no new line.
+						if (endLine())
+							boards[count++] = BallGraphic.toBoard(graphics);
+						break;
+					}
+				}
+
+				byte c = buffer.get();
+
+				if (c == '\n') {
+					if (endLine())
+						boards[count++] = BallGraphic.toBoard(graphics);
+					lineNumber++;
+
+				} else if (c != '\r' && c != ' ' && c != '\t' && !comment) {
+					if (length == 0 && c == '#') {
+						comment = true;
+					} else {
+						if (length >= graphics.length)
+							throw new IOException("Line " + lineNumber + " has more than "
+									+ graphics.length + " holes");
+
+						graphics[length++] = c == '0' ? BallGraphic.NO_BALL : BallGraphic.BALL;
+					}
+				}
+			}
+
+			return count;
+		}
+
+		/** Now finish a line, true if it held a position. */
+		private boolean endLine() throws IOException {
+
+			boolean position = length > 0 && !comment;
+
+			if (position && length != graphics.length)
+				throw new IOException("Line " + lineNumber + " has " + length
+						+ " holes, expected " + graphics.length);
+
+			length = 0;
+			comment = false;
+
+			return position;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		if (args.length < 2) {
+			System.err.println("Usage: PositionFileSolver <input file> <output file>"
+					+ " [--binary] [--threads n] [--database file] [--reachable] [--verify]"
+					+ " [--parallel] [--speedup]");
+			System.exit(1);
+		}
+
+		boolean binary = false;
+		boolean verify = false;
+		boolean reachable = false;
+		boolean parallel = false;
+		boolean speedup = false;
+		int threads = Runtime.getRuntime().availableProcessors();
+		File databaseFile = null;
+
+		for (int n = 2; n < args.length; n++) {
+			if (args[n].equals("--binary"))
+				binary = true;
+			else if (args[n].equals("--reachable"))
+				reachable = true;
+			else if (args[n].equals("--verify"))
+				verify = true;
+			else if (args[n].equals("--parallel"))
+				parallel = true;
+			else if (args[n].equals("--speedup"))
+				speedup = true;
+			else if (args[n].equals("--threads") && n + 1 < args.length)
+				threads = Integer.parseInt(args[++n]);
+			else if (args[n].equals("--database") && n + 1 < args.length)
+				databaseFile = new File(args[++n]);
+			else {
+				System.err.println("Unknown option " + args[n]);
+				System.exit(1);
+			}
+		}
+
+		BoardGeometry geometry = BoardGeometry.ENGLISH;
+		SolvabilityDatabase database = databaseFile == null ? null
+				: SolvabilityDatabase.open(databaseFile, geometry);
+
+		if (speedup)
+			reportSpeedup(geometry, threads);
+
+		PositionFileSolver solver = new PositionFileSolver(geometry, database);
+		solver.setVerify(verify);
+		solver.setReachable(reachable);
+
+		ParallelSolver parallelSolver = parallel ? new ParallelSolver(geometry, threads) : null;
+		solver.setParallelSolver(parallelSolver);
+
+		try {
+			solver.solveFile(new File(args[0]), binary, new File(args[1]), threads);
+
+			if (verify)
+				System.err.println(solver.getFailureCount() + " solutions failed to play");
+
+		} catch (IOException e) {
+			System.err.println("Could not solve " + args[0] + ": " + e.getMessage());
+			System.exit(1);
+
+		} finally {
+			if (parallelSolver != null)
+				parallelSolver.shutdown();
+		}
+	}
+
+	/**
+	 * Now time solving the start position with one thread and with every
+	 * thread, after a first run to warm up, to decide whether --parallel
+	 * is worth using on this machine.
+	 */
+	private static void reportSpeedup(BoardGeometry geometry, int threads) {
+
+		long start = geometry.getStartBoard();
+
+		ParallelSolver.measureSpeedup(geometry, start, threads);
+
+		System.err.printf("Parallel speedup with %d threads on %d cores: %.2f%n", threads,
+				Runtime.getRuntime().availableProcessors(),
+				ParallelSolver.measureSpeedup(geometry, start, threads));
+	}
+}
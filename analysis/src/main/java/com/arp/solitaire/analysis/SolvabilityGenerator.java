@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.analysis;
+
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Solution.SolvabilityDatabase;
+import com.arp.solitaire.Solution.Symmetry;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the solvability database for a board. Every position
+ * reachable from the start is found a layer at a time, each layer
+ * holding the positions with one ball fewer than the last. The layers
+ * are then worked through in reverse, a position being solvable if any
+ * jump leads to a solvable position in the layer below.
+ *
+ * Positions are kept in canonical form as sorted arrays so a layer can
+ * be searched with a binary search. Each layer is split into chunks
+ * which are worked on by a thread for each core.
+ *
+ * @author Adrian Panton
+ */
+public class SolvabilityGenerator {
+
+	// Number of positions given to a thread at a time.
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	private final BoardGeometry geometry;
+	private final Symmetry symmetry;
+	private final int finishHole;
+
+	private final ExecutorService executor;
+
+	// Canonical positions reachable from the start for each number of balls.
+	private final long[][] reachable;
+
+	/**
+	 * Create a generator for positions finishing in a hole.
+	 *
+	 * @param geometry layout of board.
+	 * @param finishHole hole the last ball should finish in.
+	 * @param threads number of threads to work with.
+	 */
+	public SolvabilityGenerator(BoardGeometry geometry, int finishHole, int threads) {
+
+		this.geometry = geometry;
+		this.finishHole = finishHole;
+
+		symmetry = new Symmetry(geometry, finishHole);
+		executor = Executors.newFixedThreadPool(threads);
+		reachable = new long[geometry.getNumberOfHoles() + 1][];
+	}
+
+	/**
+	 * Now find every position reachable from a start position.
+	 *
+	 * @param start position to start from.
+	 *
+	 * @return total number of canonical positions found.
+	 */
+	public long findReachable(long start) throws InterruptedException, ExecutionException {
+
+		for (int balls = 0; balls < reachable.length; balls++)
+			reachable[balls] = new long[0];
+
+		int balls = Long.bitCount(start);
+		reachable[balls] = new long[] { symmetry.canonical(start) };
+
+		long total = 1;
+
+		for (; balls > 1; balls--) {
+			final long[] layer = reachable[balls];
+			List<Future<long[]>> results = new ArrayList<>();
+
+			for (int from = 0; from < layer.length; from += CHUNK_SIZE) {
+				final int chunkFrom = from;
+				final int chunkTo = Math.min(layer.length, from + CHUNK_SIZE);
+
+				results.add(executor.submit(new Callable<long[]>() {
+					@Override
+					public long[] call() {
+						return findChildren(layer, chunkFrom, chunkTo);
+					}
+				}));
+			}
+
+			reachable[balls - 1] = merge(results);
+			total += reachable[balls - 1].length;
+
+			log((balls - 1) + " balls: " + reachable[balls - 1].length + " positions");
+		}
+
+		return total;
+	}
+
+	/**
+	 * Now work out which reachable positions can reach the finish hole.
+	 *
+	 * @return sorted canonical solvable positions for each number of balls.
+	 */
+	public long[][] findSolvable() throws InterruptedException, ExecutionException {
+
+		long[][] solvable = new long[reachable.length][];
+
+		for (int balls = 0; balls < solvable.length; balls++)
+			solvable[balls] = new long[0];
+
+		long target = symmetry.canonical(BoardGeometry.holeBit(finishHole));
+
+		if (Arrays.binarySearch(reachable[1], target) >= 0)
+			solvable[1] = new long[] { target };
+
+		for (int balls = 2; balls < reachable.length; balls++) {
+			final long[] layer = reachable[balls];
+			final long[] below = solvable[balls - 1];
+			List<Future<long[]>> results = new ArrayList<>();
+
+			for (int from = 0; from < layer.length; from += CHUNK_SIZE) {
+				final int chunkFrom = from;
+				final int chunkTo = Math.min(layer.length, from + CHUNK_SIZE);
+
+				results.add(executor.submit(new Callable<long[]>() {
+					@Override
+					public long[] call() {
+						return findSolvable(layer, chunkFrom, chunkTo, below);
+					}
+				}));
+			}
+
+			// Chunks are in order so the joined result is still sorted.
+			solvable[balls] = join(results);
+
+			if (layer.length > 0)
+				log(balls + " balls: " + solvable[balls].length + " of "
+						+ layer.length + " solvable");
+		}
+
+		return solvable;
+	}
+
+	/** Now stop the worker threads. */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Find the canonical positions one jump on from part of a layer.
+	 *
+	 * @return sorted positions without repeats.
+	 */
+	private long[] findChildren(long[] layer, int from, int to) {
+
+		long[] children = new long[(to - from) * 8];
+		int count = 0;
+
+		for (int n = from; n < to; n++) {
+			long board = layer[n];
+
+			for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+				if (geometry.isLegal(board, jump)) {
+					if (count == children.length)
+						children = Arrays.copyOf(children, count * 2);
+
+					children[count++] = symmetry.canonical(geometry.makeJump(board, jump));
+				}
+			}
+		}
+
+		return sortUnique(children, count);
+	}
+
+	/**
+	 * Find the positions in part of a layer which have a jump to a
+	 * solvable position.
+	 *
+	 * @return solvable positions, in the same order as the layer.
+	 */
+	private long[] findSolvable(long[] layer, int from, int to, long[] below) {
+
+		long[] found = new long[to - from];
+		int count = 0;
+
+		for (int n = from; n < to; n++) {
+			long board = layer[n];
+
+			for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+				if (geometry.isLegal(board, jump)
+						&& Arrays.binarySearch(below, symmetry.canonical(geometry.makeJump(board, jump))) >= 0) {
+					found[count++] = board;
+					break;
+				}
+			}
+		}
+
+		return Arrays.copyOf(found, count);
+	}
+
+	/** Now join the sorted results from each chunk into one sorted list. */
+	private static long[] merge(List<Future<long[]>> results)
+			throws InterruptedException, ExecutionException {
+
+		long[] all = join(results);
+
+		return sortUnique(all, all.length);
+	}
+
+	/** Now join the results from each chunk in order. */
+	private static long[] join(List<Future<long[]>> results)
+			throws InterruptedException, ExecutionException {
+
+		List<long[]> parts = new ArrayList<>();
+		int total = 0;
+
+		for (Future<long[]> result : results) {
+			long[] part = result.get();
+			parts.add(part);
+			total += part.length;
+		}
+
+		long[] all = new long[total];
+		int count = 0;
+
+		for (long[] part : parts) {
+			System.arraycopy(part, 0, all, count, part.length);
+			count += part.length;
+		}
+
+		return all;
+	}
+
+	/** Now sort the start of an array and remove repeated values. */
+	private static long[] sortUnique(long[] values, int count) {
+
+		Arrays.sort(values, 0, count);
+
+		int unique = 0;
+
+		for (int n = 0; n < count; n++)
+			if (unique == 0 || values[n] != values[unique - 1])
+				values[unique++] = values[n];
+
+		return Arrays.copyOf(values, unique);
+	}
+
+	private static void log(String message) {
+		System.out.println(message);
+	}
+
+	/**
+	 * Now build the database for the English board finishing in the
+	 * middle hole.
+	 *
+	 * @param args file to write and optionally number of threads.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		if (args.length < 1) {
+			System.err.println("Usage: SolvabilityGenerator <output file> [threads]");
+			System.exit(1);
+		}
+
+		int threads = args.length > 1 ? Integer.parseInt(args[1])
+				: Runtime.getRuntime().availableProcessors();
+
+		BoardGeometry geometry = BoardGeometry.ENGLISH;
+		SolvabilityGenerator generator = new SolvabilityGenerator(geometry,
+				geometry.getMiddleHole(), threads);
+
+		try {
+			long start = System.currentTimeMillis();
+
+			long total = generator.findReachable(geometry.getStartBoard());
+			log("Reachable positions: " + total);
+
+			long[][] solvable = generator.findSolvable();
+
+			long count = 0;
+			for (long[] layer : solvable)
+				count += layer.length;
+
+			log("Solvable positions: " + count);
+
+			SolvabilityDatabase.write(new File(args[0]), geometry, geometry.getMiddleHole(),
+					geometry.getMiddleHole(), solvable);
+
+			log("Written " + args[0] + " in " + (System.currentTimeMillis() - start) / 1000 + "s");
+
+		} finally {
+			generator.shutdown();
+		}
+	}
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.analysis;
+
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Solution.SolutionMove;
+import com.arp.solitaire.Solution.Solver;
+import com.arp.solitaire.Solution.Symmetry;
+import com.arp.solitaire.Solution.TranspositionTable;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves every single vacancy to single ball problem on a board, one
+ * for each pair of a hole left empty at the start and a hole the last
+ * ball should finish in.
+ *
+ * Only one problem of each set which are symmetric to each other is
+ * searched, the others having their solution turned by the symmetry.
+ * Problems are then grouped by finish hole, the positions solved being
+ * the same for every start, so each group shares one table and is
+ * worked through by one thread while the groups run across the cores.
+ * Pairs which break the position class rule are known to have no
+ * solution without searching.
+ *
+ * @author Adrian Panton
+ */
+public class VacancyProblemSolver {
+
+	private final BoardGeometry geometry;
+	private final int holes;
+
+	// All symmetries of the board.
+	private final Symmetry symmetry;
+
+	// Position class of each hole, from the diagonals it lies on.
+	private final int[] diagonalClass;
+	private final int[] antiDiagonalClass;
+
+	// Solution for each start then finish hole, null if there is none.
+	private final List<List<List<SolutionMove>>> solutions;
+
+	// Number of problems searched and found by symmetry or class.
+	private int searched;
+	private int ruledOut;
+
+	/**
+	 * Create a solver for a board.
+	 *
+	 * @param geometry layout of board.
+	 */
+	public VacancyProblemSolver(BoardGeometry geometry) {
+
+		this.geometry = geometry;
+
+		holes = geometry.getNumberOfHoles();
+		symmetry = new Symmetry(geometry);
+		solutions = new ArrayList<>(holes);
+
+		for (int start = 0; start < holes; start++)
+			solutions.add(new ArrayList<>(Collections.<List<SolutionMove>>nCopies(holes, null)));
+
+		diagonalClass = new int[holes];
+		antiDiagonalClass = new int[holes];
+
+		for (int n = 0; n < holes; n++) {
+			diagonalClass[n] = (geometry.getColumn(n) + geometry.getRow(n)) % 3;
+			antiDiagonalClass[n] = (geometry.getColumn(n) - geometry.getRow(n) + 3 * holes) % 3;
+		}
+	}
+
+	/**
+	 * Now solve every problem.
+	 *
+	 * @param threads number of threads to work with.
+	 */
+	public void solveAll(int threads) throws InterruptedException, ExecutionException {
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try {
+			// Now group the problems to search by finish hole.
+			List<Future<?>> groups = new ArrayList<>();
+
+			for (int finish = 0; finish < holes; finish++) {
+				final List<Integer> starts = new ArrayList<>();
+
+				for (int start = 0; start < holes; start++)
+					if (isRepresentative(start, finish) && isClassPossible(start, finish))
+						starts.add(start);
+
+				if (starts.isEmpty()) continue;
+
+				final int finishHole = finish;
+				groups.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						solveGroup(finishHole, starts);
+						return null;
+					}
+				}));
+			}
+
+			for (Future<?> group : groups)
+				group.get();
+
+		} finally {
+			executor.shutdown();
+		}
+
+		// Now fill in the problems which were not searched.
+		for (int start = 0; start < holes; start++) {
+			for (int finish = 0; finish < holes; finish++) {
+
+				if (!isClassPossible(start, finish)) {
+					ruledOut++;
+					continue;
+				}
+
+				if (isRepresentative(start, finish)) continue;
+
+				int transform = findRepresentative(start, finish);
+				int inverse = findInverse(transform);
+
+				List<SolutionMove> solution = getSolution(symmetry.transformHole(start, transform),
+						symmetry.transformHole(finish, transform));
+
+				if (solution != null)
+					solutions.get(start).set(finish, transformSolution(solution, inverse));
+			}
+		}
+	}
+
+	/**
+	 * Now search the problems finishing in one hole, sharing a table
+	 * of positions solved between them.
+	 *
+	 * @param finish hole the last ball should finish in.
+	 * @param starts holes left empty at the start of each problem.
+	 */
+	private void solveGroup(int finish, List<Integer> starts) {
+
+		Solver solver = new Solver(geometry, new TranspositionTable(geometry, finish));
+
+		for (int start : starts) {
+			List<SolutionMove> solution = solver.solve(geometry.getStartBoard(start), finish);
+
+			synchronized (this) {
+				solutions.get(start).set(finish, solution);
+				searched++;
+			}
+		}
+	}
+
+	/**
+	 * Check the position class rule allows a problem. Numbering the
+	 * diagonals in threes, every jump changes by one the balls on each
+	 * of the three, so whether any two hold an even number together
+	 * never changes. The same holds for the other diagonals.
+	 */
+	boolean isClassPossible(int start, int finish) {
+
+		return hasSameParity(diagonalClass, geometry.getStartBoard(start), finish)
+				&& hasSameParity(antiDiagonalClass, geometry.getStartBoard(start), finish);
+	}
+
+	private boolean hasSameParity(int[] holeClass, long board, int finish) {
+
+		int[] counts = new int[3];
+		for (int n = 0; n < holes; n++)
+			if ((board & BoardGeometry.holeBit(n)) != 0)
+				counts[holeClass[n]]++;
+
+		int[] finishCounts = new int[3];
+		finishCounts[holeClass[finish]] = 1;
+
+		for (int n = 0; n < 3; n++) {
+			int pair = (counts[n] + counts[(n + 1) % 3]) & 1;
+			int finishPair = (finishCounts[n] + finishCounts[(n + 1) % 3]) & 1;
+
+			if (pair != finishPair)
+				return false;
+		}
+
+		return true;
+	}
+
+	/** Check a problem is the one searched for its symmetric set. */
+	private boolean isRepresentative(int start, int finish) {
+		return findRepresentative(start, finish) == 0;
+	}
+
+	/**
+	 * Find the symmetry which turns a problem into the one searched for
+	 * its set, that with the lowest finish hole and then start hole.
+	 *
+	 * @return number of symmetry, 0 if problem is searched itself.
+	 */
+	private int findRepresentative(int start, int finish) {
+
+		int best = 0;
+
+		for (int transform = 1; transform < symmetry.getNumberOfTransforms(); transform++) {
+			int newFinish = symmetry.transformHole(finish, transform);
+			int newStart = symmetry.transformHole(start, transform);
+
+			int bestFinish = symmetry.transformHole(finish, best);
+			int bestStart = symmetry.transformHole(start, best);
+
+			if (newFinish < bestFinish || (newFinish == bestFinish && newStart < bestStart))
+				best = transform;
+		}
+
+		return best;
+	}
+
+	/** Find the symmetry which undoes another. */
+	private int findInverse(int transform) {
+
+		for (int inverse = 0; inverse < symmetry.getNumberOfTransforms(); inverse++) {
+			boolean undoes = true;
+
+			for (int n = 0; n < holes && undoes; n++)
+				undoes = symmetry.transformHole(symmetry.transformHole(n, transform), inverse) == n;
+
+			if (undoes)
+				return inverse;
+		}
+
+		throw new IllegalStateException("Symmetry has no inverse");
+	}
+
+	/** Now turn each jump of a solution by a symmetry. */
+	private List<SolutionMove> transformSolution(List<SolutionMove> solution, int transform) {
+
+		List<SolutionMove> moves = new ArrayList<>(solution.size());
+
+		for (SolutionMove jump : solution) {
+			int from = symmetry.transformHole(jump.getOldPosition(), transform);
+			int to = symmetry.transformHole(jump.getNewPosition(), transform);
+
+			SolutionMove move = new SolutionMove();
+			move.setOldPosition(from);
+			move.setJumped(symmetry.transformHole(jump.getJumped(), transform));
+			move.setNewPosition(to);
+
+			// Find direction from the jump between the new holes.
+			for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++) {
+				int newJump = geometry.getJump(from, direction);
+				if (newJump != BoardGeometry.NO_JUMP && geometry.getTo(newJump) == to)
+					move.setDirection(direction);
+			}
+
+			moves.add(move);
+		}
+
+		return moves;
+	}
+
+	/**
+	 * Get the solution of a problem.
+	 *
+	 * @return list of jumps or null if the problem can not be solved.
+	 */
+	public List<SolutionMove> getSolution(int start, int finish) {
+		return solutions.get(start).get(finish);
+	}
+
+	/**
+	 * Now write every problem, one line each giving the start and finish
+	 * hole then the jumps as from-to holes or "unsolvable", followed by
+	 * a table with a row for each start hole marking solvable finishes.
+	 *
+	 * @param out where to write.
+	 */
+	public void write(PrintWriter out) {
+
+		int solvable = 0;
+
+		for (int start = 0; start < holes; start++) {
+			for (int finish = 0; finish < holes; finish++) {
+				List<SolutionMove> solution = getSolution(start, finish);
+
+				StringBuilder line = new StringBuilder();
+				line.append(start).append(' ').append(finish);
+
+				if (solution == null) {
+					line.append(" unsolvable");
+				} else {
+					solvable++;
+					for (SolutionMove jump : solution)
+						line.append(' ').append(jump.getOldPosition()).append('-').append(jump.getNewPosition());
+				}
+
+				out.println(line);
+			}
+		}
+
+		out.println();
+		out.println("# Start holes down, finish holes across, X can be solved.");
+
+		for (int start = 0; start < holes; start++) {
+			StringBuilder row = new StringBuilder();
+			row.append(String.format("%2d ", start));
+
+			for (int finish = 0; finish < holes; finish++)
+				row.append(getSolution(start, finish) != null ? 'X' : '.');
+
+			out.println(row);
+		}
+
+		out.println("# " + solvable + " of " + holes * holes + " problems can be solved.");
+	}
+
+	public int getSearchedCount() {
+		return searched;
+	}
+
+	public int getRuledOutCount() {
+		return ruledOut;
+	}
+
+	private static void log(String message) {
+		System.out.println(message);
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		if (args.length < 1) {
+			System.err.println("Usage: VacancyProblemSolver <output file> [threads]");
+			System.exit(1);
+		}
+
+		int threads = args.length > 1 ? Integer.parseInt(args[1])
+				: Runtime.getRuntime().availableProcessors();
+
+		VacancyProblemSolver solver = new VacancyProblemSolver(BoardGeometry.ENGLISH);
+
+		long start = System.currentTimeMillis();
+
+		solver.solveAll(threads);
+
+		log("Searched " + solver.getSearchedCount() + " problems, "
+				+ solver.getRuledOutCount() + " ruled out by position class, in "
+				+ (System.currentTimeMillis() - start) / 1000 + "s");
+
+		try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(args[0])))) {
+			solver.write(out);
+		} catch (IOException e) {
+			System.err.println("Could not write " + args[0] + ": " + e.getMessage());
+			System.exit(1);
+		}
+
+		log("Written " + args[0]);
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+
+package com.arp.solitaire.analysis;
+
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Solution.SolvabilityDatabase;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests positions are read from text and binary files, with malformed
+ * files rejected, and a line written for each in the same order.
+ *
+ * @author Adrian Panton
+ */
+public class PositionFileSolverTest {
+
+	private static final BoardGeometry geometry = BoardGeometry.ENGLISH;
+
+	// Two balls which can never meet.
+	private static final long LOST = BoardGeometry.holeBit(0) | BoardGeometry.holeBit(32);
+
+	// One jump along the middle row into the middle hole.
+	private static final long NEARLY_WON = BoardGeometry.holeBit(14) | BoardGeometry.holeBit(15);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/** Now write a position as a line of '1' for a ball and '0' for none. */
+	private static String toLine(long board) {
+
+		StringBuilder line = new StringBuilder();
+
+		for (int hole = 0; hole < geometry.getNumberOfHoles(); hole++)
+			line.append((board & BoardGeometry.holeBit(hole)) != 0 ? '1' : '0');
+
+		return line.toString();
+	}
+
+	private File writeText(String text) throws IOException {
+
+		File file = folder.newFile();
+		Files.write(file.toPath(), text.getBytes(StandardCharsets.US_ASCII));
+
+		return file;
+	}
+
+	private File writeBinary(long... boards) throws IOException {
+
+		File file = folder.newFile();
+
+		try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(file))) {
+			for (long board : boards)
+				dos.writeLong(board);
+		}
+
+		return file;
+	}
+
+	/** Now solve a file, returning the lines written. */
+	private List<String> solve(PositionFileSolver solver, File input, boolean binary) throws Exception {
+
+		File output = folder.newFile();
+		solver.solveFile(input, binary, output, 2);
+
+		return Files.readAllLines(output.toPath(), StandardCharsets.US_ASCII);
+	}
+
+	/** Now check a file is rejected with a message. */
+	private void assertRejected(File input, boolean binary, String message) throws Exception {
+
+		try {
+			solve(new PositionFileSolver(geometry, null), input, binary);
+			fail("Solved malformed file");
+		} catch (IOException e) {
+			assertEquals(message, e.getMessage());
+		}
+	}
+
+	@Test
+	public void textAndBinaryGiveSameLines() throws Exception {
+
+		long start = geometry.getStartBoard();
+
+		// Comments, spaces, blank lines and Windows line ends are skipped,
+		// and the last line needs no new line.
+		File text = writeText("# Positions to solve\n"
+				+ toLine(start) + "\r\n"
+				+ "\n"
+				+ toLine(LOST).replace("0000", "00 00") + "\n"
+				+ toLine(NEARLY_WON));
+
+		PositionFileSolver solver = new PositionFileSolver(geometry, null);
+		solver.setVerify(true);
+
+		List<String> lines = solve(solver, text, false);
+
+		assertEquals(3, lines.size());
+		assertEquals(geometry.getNumberOfHoles() - 2, lines.get(0).split(" ").length);
+		assertEquals("unsolvable", lines.get(1));
+		assertEquals("14-16", lines.get(2));
+		assertEquals(0, solver.getFailureCount());
+
+		assertEquals(lines, solve(solver, writeBinary(start, LOST, NEARLY_WON), true));
+	}
+
+	@Test
+	public void lineOfWrongLengthIsRejected() throws Exception {
+
+		String line = toLine(NEARLY_WON);
+
+		assertRejected(writeText(line + "\n" + line.substring(1) + "\n"), false,
+				"Line 2 has 32 holes, expected 33");
+
+		assertRejected(writeText("# Too long\n" + line + "1\n"), false,
+				"Line 2 has more than 33 holes");
+	}
+
+	@Test
+	public void truncatedBinaryPositionIsRejected() throws Exception {
+
+		File file = writeBinary(NEARLY_WON, LOST);
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+
+		assertRejected(file, true, "File ends part way through a position");
+	}
+
+	@Test
+	public void databaseForAnotherStartIsNotUsed() throws Exception {
+
+		// Finishes in the middle but starts in a corner, left empty as
+		// walking it would answer nothing for the middle hole game.
+		long[][] layers = new long[geometry.getNumberOfHoles() + 1][];
+		for (int balls = 0; balls < layers.length; balls++)
+			layers[balls] = new long[0];
+
+		File file = folder.newFile();
+		SolvabilityDatabase.write(file, geometry, 0, geometry.getMiddleHole(), layers);
+
+		PositionFileSolver solver = new PositionFileSolver(geometry,
+				SolvabilityDatabase.open(file, geometry));
+		solver.setReachable(true);
+
+		assertEquals("14-16", solve(solver, writeBinary(NEARLY_WON), true).get(0));
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+
+package com.arp.solitaire.analysis;
+
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Solution.SolvabilityDatabase;
+import com.arp.solitaire.Solution.Solver;
+import com.arp.solitaire.Solution.TranspositionTable;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests a database written by the generator answers as the solver does
+ * once opened, on a board small enough to check every position.
+ *
+ * @author Adrian Panton
+ */
+public class SolvabilityGeneratorTest {
+
+	// Four by four square, which can be solved from next to a corner
+	// to the hole beside it but not from the middle.
+	private static final BoardGeometry SQUARE = BoardGeometry.fromLayout(
+			"oooo\n" +
+			"o*oo\n" +
+			"oooo\n" +
+			"oooo");
+
+	private static final int START_HOLE = 1;
+	private static final int FINISH_HOLE = 2;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/** Now generate and write the database for the square board. */
+	private File generate() throws Exception {
+
+		SolvabilityGenerator generator = new SolvabilityGenerator(SQUARE, FINISH_HOLE, 2);
+
+		try {
+			generator.findReachable(SQUARE.getStartBoard(START_HOLE));
+
+			File file = folder.newFile("square.db");
+			SolvabilityDatabase.write(file, SQUARE, START_HOLE, FINISH_HOLE,
+					generator.findSolvable());
+
+			return file;
+
+		} finally {
+			generator.shutdown();
+		}
+	}
+
+	@Test
+	public void openedDatabaseAgreesWithSolver() throws Exception {
+
+		SolvabilityDatabase database = SolvabilityDatabase.open(generate(), SQUARE);
+		Solver solver = new Solver(SQUARE, new TranspositionTable(SQUARE, FINISH_HOLE));
+
+		assertTrue(database.isFor(START_HOLE, FINISH_HOLE));
+		assertFalse(database.isFor(FINISH_HOLE, FINISH_HOLE));
+
+		// Every position reachable from the start.
+		Set<Long> seen = new HashSet<>();
+		Deque<Long> boards = new ArrayDeque<>();
+		boards.add(SQUARE.getStartBoard(START_HOLE));
+
+		int solvable = 0;
+
+		while (!boards.isEmpty()) {
+			long board = boards.remove();
+
+			if (!seen.add(board))
+				continue;
+
+			assertEquals(solver.isSolvable(board), database.isSolvable(board));
+
+			if (database.isSolvable(board))
+				solvable++;
+
+			for (int jump = 0; jump < SQUARE.getNumberOfJumps(); jump++)
+				if (SQUARE.isLegal(board, jump))
+					boards.add(SQUARE.makeJump(board, jump));
+		}
+
+		assertTrue(database.isSolvable(SQUARE.getStartBoard(START_HOLE)));
+		assertTrue(solvable > 1 && solvable < seen.size());
+	}
+
+	@Test
+	public void boardWithSameNumberOfHolesIsRejected() throws Exception {
+
+		BoardGeometry wide = BoardGeometry.fromLayout(
+				"oooooooo\n" +
+				"o*oooooo");
+
+		assertEquals(SQUARE.getNumberOfHoles(), wide.getNumberOfHoles());
+
+		try {
+			SolvabilityDatabase.open(generate(), wide);
+			fail("Opened database made for another board");
+		} catch (IOException e) {
+			assertEquals("Solvability file is for another board", e.getMessage());
+		}
+	}
+}
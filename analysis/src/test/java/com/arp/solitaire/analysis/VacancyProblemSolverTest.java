@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+
+package com.arp.solitaire.analysis;
+
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Solution.SolutionMove;
+import com.arp.solitaire.Solution.Solver;
+import com.arp.solitaire.Solution.TranspositionTable;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests every single vacancy problem on a small board is answered as
+ * a search of that problem alone would, including those ruled out by
+ * the position class rule and those solved by symmetry.
+ *
+ * @author Adrian Panton
+ */
+public class VacancyProblemSolverTest {
+
+	private static final BoardGeometry SQUARE = BoardGeometry.fromLayout(
+			"oooo\n" +
+			"o*oo\n" +
+			"oooo\n" +
+			"oooo");
+
+	/**
+	 * Now play a solution from a start hole, checking every jump is
+	 * legal, and return the position left.
+	 */
+	private static long play(BoardGeometry geometry, int start, List<SolutionMove> solution) {
+
+		long board = geometry.getStartBoard(start);
+
+		for (SolutionMove move : solution) {
+			int jump = geometry.getJump(move.getOldPosition(), move.getDirection());
+
+			assertTrue(jump != BoardGeometry.NO_JUMP);
+			assertEquals(move.getJumped(), geometry.getOver(jump));
+			assertEquals(move.getNewPosition(), geometry.getTo(jump));
+			assertTrue(geometry.isLegal(board, jump));
+
+			board = geometry.makeJump(board, jump);
+		}
+
+		return board;
+	}
+
+	@Test
+	public void everyProblemMatchesOwnSearch() throws Exception {
+
+		VacancyProblemSolver vacancyProblemSolver = new VacancyProblemSolver(SQUARE);
+		vacancyProblemSolver.solveAll(2);
+
+		int holes = SQUARE.getNumberOfHoles();
+		int solvable = 0;
+
+		for (int finish = 0; finish < holes; finish++) {
+			Solver solver = new Solver(SQUARE, new TranspositionTable(SQUARE, finish));
+
+			for (int start = 0; start < holes; start++) {
+				List<SolutionMove> solution = vacancyProblemSolver.getSolution(start, finish);
+				boolean found = solver.solve(SQUARE.getStartBoard(start), finish) != null;
+
+				assertEquals(found, solution != null);
+
+				if (solution == null)
+					continue;
+
+				assertTrue(vacancyProblemSolver.isClassPossible(start, finish));
+				assertEquals(BoardGeometry.holeBit(finish), play(SQUARE, start, solution));
+				solvable++;
+			}
+		}
+
+		assertEquals(16, solvable);
+
+		// Most problems are answered without being searched.
+		assertTrue(vacancyProblemSolver.getRuledOutCount() > 0);
+		assertTrue(vacancyProblemSolver.getSearchedCount() * 4 < holes * holes);
+	}
+
+	@Test
+	public void classRuleOnEnglishBoard() {
+
+		BoardGeometry geometry = BoardGeometry.ENGLISH;
+		VacancyProblemSolver vacancyProblemSolver = new VacancyProblemSolver(geometry);
+
+		int middle = geometry.getMiddleHole();
+
+		// The usual game, and finishing three holes from the start.
+		assertTrue(vacancyProblemSolver.isClassPossible(middle, middle));
+		assertTrue(vacancyProblemSolver.isClassPossible(middle, middle - 3));
+
+		// Neither can the holes one or two along from the start.
+		assertFalse(vacancyProblemSolver.isClassPossible(middle, middle - 2));
+		assertFalse(vacancyProblemSolver.isClassPossible(middle, middle - 1));
+	}
+}
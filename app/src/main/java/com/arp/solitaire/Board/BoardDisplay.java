@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+/**
+ * A view that shows the game board, so the activity can use either the
+ * board view drawn by the UI thread or the board surface drawn by its
+ * own render thread.
+ *
+ * @author Adrian Panton
+ */
+public interface BoardDisplay {
+
+	/** Set the calling fragment or activity  */
+	void setBoardListener(BoardView.onBoardListener listener);
+
+	/**
+	 * Now set the layout of holes to draw.
+	 *
+	 * @param geometry layout of board.
+	 */
+	void setGeometry(BoardGeometry geometry);
+
+	/**
+	 * Now set the holes whose graphic has changed, or every hole after
+	 * the board has been reset, and clear the changes.
+	 *
+	 * @param changes graphic of each hole and the holes changed.
+	 */
+	void setHoles(BoardChanges changes);
+
+	/**
+	 * Now show a ball jumping, holes touched until it lands are passed
+	 * on once it has. Call before setting the holes after the jump.
+	 *
+	 * @param from hole ball jumps from.
+	 * @param jumped hole of ball jumped over.
+	 * @param to hole ball lands in.
+	 * @param back true if the jump is being taken back.
+	 */
+	void animateJump(int from, int jumped, int to, boolean back);
+}
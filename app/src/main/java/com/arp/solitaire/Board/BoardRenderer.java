@@ -0,0 +1,478 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.LightingColorFilter;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import com.arp.solitaire.R;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Lays out the holes of a board on the screen, draws the board and
+ * finds the hole touched, for both the board view and the board
+ * surface.
+ *
+ * The board and every ball graphic are scaled to the screen once when
+ * the size changes, the board into a background and the balls into a
+ * single atlas of sprites. Drawing is then a copy of the background and
+ * a copy of each ball's sprite, with nothing scaled.
+ *
+ * A renderer is used by one thread at a time. Renderers made from
+ * another share its loaded graphics, which are never changed.
+ *
+ * @author Adrian Panton
+ */
+class BoardRenderer {
+
+	// Position of holes on board bitmap.
+	private static final int HOLE_LEFT = 32;
+	private static final int HOLE_TOP = 30;
+	private static final int HOLE_SPACING = 40;
+
+	// Number of columns and rows the board bitmap is drawn for.
+	private static final int BOARD_GRID_SIZE = 7;
+
+	// Height a jumping ball rises, as a part of the height of a ball.
+	private static final float JUMP_LIFT = 0.5f;
+
+	// Tint for arrows on jumps that lose the game.
+	private static final int LOSING_TINT_MULTIPLY = 0xFF6060;
+	private static final int LOSING_TINT_ADD = 0x500000;
+
+	// List of bitmaps that been loaded.
+	private final Bitmap mBoardBitmap; // Board bitmap used in game.
+
+	// Bitmap for each ball graphic, null for NO_BALL.
+	private final Bitmap[] mBallBitmaps;
+
+	private Rect mGameBoardAreaRect = new Rect(); // Size of board the holes are placed on.
+
+	private Rect mDrawAreaRect = new Rect(); // Area of actual screen to draw bitmap on to.
+
+	// Board and ball sprites scaled to the screen, null until there is a size.
+	private Bitmap mBackgroundBitmap = null;
+	private Bitmap mSpriteAtlas = null;
+
+	// Area of the atlas holding each ball graphic.
+	private Rect[] mSpriteRects = new Rect[BallGraphic.NUMBER_OF_GRAPHICS];
+
+	// Used to smooth bitmaps as they are scaled.
+	private Paint mScalePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+	// Used to fade the jumped ball and place the jumping ball.
+	private Paint mJumpPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+	private RectF mJumpRect = new RectF();
+
+	private ArrayList<Hole> mHoles = new ArrayList<>(); // List of holes on board.
+
+	// Hole in each cell of the board grid or Hole.NOT_TOUCHED, by row
+	// then column. Each cell is the spacing of the holes square, placed
+	// so it holds the whole touch area of its hole.
+	private int[] mHoleAtCell = new int[0];
+
+	// Board scaling to fit the screen, worked out when the size is set.
+	private float mScaleX = 1;
+	private float mScaleY = 1;
+
+	// Layout of holes on board.
+	private BoardGeometry mGeometry = BoardGeometry.ENGLISH;
+
+	/**
+	 * Create a renderer, loading the board and ball graphics.
+	 *
+	 * @param resources where graphics are loaded from.
+	 */
+	BoardRenderer(Resources resources) {
+
+		BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inScaled = false; // Stop auto scaling of bitmaps.
+
+		// Now load ball graphics.
+		mBallBitmaps = new Bitmap[BallGraphic.NUMBER_OF_GRAPHICS];
+		mBallBitmaps[BallGraphic.BALL] = BitmapFactory.decodeResource(resources,
+				R.mipmap.bm_solitaire_ball, options);
+		mBallBitmaps[BallGraphic.BALL_UP] = BitmapFactory.decodeResource(resources,
+				R.mipmap.bm_solitaire_ball_up, options);
+		mBallBitmaps[BallGraphic.BALL_RIGHT] = BitmapFactory.decodeResource(resources,
+				R.mipmap.bm_solitaire_ball_right, options);
+		mBallBitmaps[BallGraphic.BALL_DOWN] = BitmapFactory.decodeResource(resources,
+				R.mipmap.bm_solitaire_ball_down, options);
+		mBallBitmaps[BallGraphic.BALL_LEFT] = BitmapFactory.decodeResource(resources,
+				R.mipmap.bm_solitaire_ball_left, options);
+		mBallBitmaps[BallGraphic.BALL_PICKED] = BitmapFactory.decodeResource(resources,
+				R.mipmap.bm_solitaire_ball_picked, options);
+
+		// Now make red arrows for jumps that lose the game.
+		mBallBitmaps[BallGraphic.BALL_UP_LOSING] = createLosingBitmap(mBallBitmaps[BallGraphic.BALL_UP]);
+		mBallBitmaps[BallGraphic.BALL_RIGHT_LOSING] = createLosingBitmap(mBallBitmaps[BallGraphic.BALL_RIGHT]);
+		mBallBitmaps[BallGraphic.BALL_DOWN_LOSING] = createLosingBitmap(mBallBitmaps[BallGraphic.BALL_DOWN]);
+		mBallBitmaps[BallGraphic.BALL_LEFT_LOSING] = createLosingBitmap(mBallBitmaps[BallGraphic.BALL_LEFT]);
+
+		// Load board graphic.
+		mBoardBitmap = BitmapFactory.decodeResource(resources,
+				R.mipmap.bm_solitaire_board, options);
+
+		setupRenderer();
+	}
+
+	/**
+	 * Create a renderer sharing the graphics of another, for use on a
+	 * different thread.
+	 *
+	 * @param other renderer whose graphics are shared.
+	 */
+	BoardRenderer(BoardRenderer other) {
+
+		mBallBitmaps = other.mBallBitmaps;
+		mBoardBitmap = other.mBoardBitmap;
+
+		setupRenderer();
+	}
+
+	private void setupRenderer() {
+
+		for (int n = 0; n < mSpriteRects.length; n++)
+			mSpriteRects[n] = new Rect();
+
+		setupBoard();
+	}
+
+	/**
+	 * Now set the layout of holes to draw, holes are placed on a grid
+	 * and the board bitmap stretched to cover it. Call setSize() again
+	 * afterwards.
+	 *
+	 * @param geometry layout of board.
+	 */
+	void setGeometry(BoardGeometry geometry) {
+
+		mGeometry = geometry;
+
+		setupBoard();
+	}
+
+	/**
+	 * Now set the area of the screen the board is drawn in and place the
+	 * touch areas of the holes.
+	 *
+	 * @param width Width of view.
+	 * @param height Height of view.
+	 * @param left Padding on the left.
+	 * @param top Padding at the top.
+	 * @param right Padding on the right.
+	 * @param bottom Padding at the bottom.
+	 */
+	void setSize(int width, int height, int left, int top, int right, int bottom) {
+
+		// Calculate area to draw board on taking in to account padding.
+		mDrawAreaRect.top = top;
+		mDrawAreaRect.bottom = height - bottom;
+		mDrawAreaRect.left = left;
+		mDrawAreaRect.right = width - right;
+
+		setTouchAreas();
+	}
+
+	/** Now work out the size of board and the holes for the board layout. */
+	private void setupBoard() {
+
+		// Set size game board, growing the board bitmap by the
+		// spacing of any extra columns or rows.
+		mGameBoardAreaRect.top = 0;
+		mGameBoardAreaRect.left = 0;
+		mGameBoardAreaRect.right = mBoardBitmap.getWidth()
+				+ HOLE_SPACING * (mGeometry.getColumns() - BOARD_GRID_SIZE);
+		mGameBoardAreaRect.bottom = mBoardBitmap.getHeight()
+				+ HOLE_SPACING * (mGeometry.getRows() - BOARD_GRID_SIZE);
+
+		// Now initialise holes.
+		int ballWidth = mBallBitmaps[BallGraphic.BALL].getWidth();
+		int ballHeight = mBallBitmaps[BallGraphic.BALL].getHeight();
+
+		mHoles.clear();
+
+		mHoleAtCell = new int[mGeometry.getColumns() * mGeometry.getRows()];
+		Arrays.fill(mHoleAtCell, Hole.NOT_TOUCHED);
+
+		for (int n = 0; n < mGeometry.getNumberOfHoles(); n++) {
+			Hole hole = new Hole();
+			hole.setHoleDrawPosition(HOLE_LEFT + HOLE_SPACING * mGeometry.getColumn(n),
+					HOLE_TOP + HOLE_SPACING * mGeometry.getRow(n), ballWidth, ballHeight);
+
+			hole.setHoleNumber(n);
+
+			mHoles.add(hole);
+			mHoleAtCell[mGeometry.getRow(n) * mGeometry.getColumns() + mGeometry.getColumn(n)] = n;
+		}
+
+		// Sprites no longer match the holes.
+		mBackgroundBitmap = null;
+		mSpriteAtlas = null;
+	}
+
+	/** Now calculate the touch areas for holes. */
+	private void setTouchAreas() {
+
+		// Wait until there is a size.
+		if (mDrawAreaRect.isEmpty()) return;
+
+		mScaleX = (float) mDrawAreaRect.width() / (float) mGameBoardAreaRect.width();
+		mScaleY = (float) mDrawAreaRect.height() / (float) mGameBoardAreaRect.height();
+
+		for (Hole hole: mHoles)
+			hole.setBallTouchArea(mScaleX, mScaleY, mDrawAreaRect.left, mDrawAreaRect.top);
+	}
+
+	/**
+	 * Now scale the board and each ball graphic to the screen, so
+	 * drawing only has to copy them.
+	 */
+	void createSprites() {
+
+		// Wait until there is a size.
+		if (mDrawAreaRect.isEmpty()) return;
+
+		Bitmap.Config conf = Bitmap.Config.ARGB_8888;
+
+		float scaleX = (float) mDrawAreaRect.width() / (float) mGameBoardAreaRect.width();
+		float scaleY = (float) mDrawAreaRect.height() / (float) mGameBoardAreaRect.height();
+
+		// Now stretch the board to the screen.
+		mBackgroundBitmap = Bitmap.createBitmap(mDrawAreaRect.width(), mDrawAreaRect.height(), conf);
+		new Canvas(mBackgroundBitmap).drawBitmap(mBoardBitmap, null,
+				new Rect(0, 0, mDrawAreaRect.width(), mDrawAreaRect.height()), mScalePaint);
+
+		// Now place each ball graphic side by side in the atlas.
+		Bitmap ball = mBallBitmaps[BallGraphic.BALL];
+		int spriteWidth = Math.max(1, Math.round(ball.getWidth() * scaleX));
+		int spriteHeight = Math.max(1, Math.round(ball.getHeight() * scaleY));
+
+		mSpriteAtlas = Bitmap.createBitmap(spriteWidth * BallGraphic.NUMBER_OF_GRAPHICS,
+				spriteHeight, conf);
+		Canvas atlasCanvas = new Canvas(mSpriteAtlas);
+
+		for (int graphic = 0; graphic < BallGraphic.NUMBER_OF_GRAPHICS; graphic++) {
+			mSpriteRects[graphic].set(graphic * spriteWidth, 0,
+					(graphic + 1) * spriteWidth, spriteHeight);
+
+			if (mBallBitmaps[graphic] != null)
+				atlasCanvas.drawBitmap(mBallBitmaps[graphic], null, mSpriteRects[graphic], mScalePaint);
+		}
+
+		for (Hole hole: mHoles)
+			hole.setScreenArea(scaleX, scaleY, mDrawAreaRect.left, mDrawAreaRect.top,
+					spriteWidth, spriteHeight);
+	}
+
+	/**
+	 * Now draw the board with a graphic in each hole.
+	 *
+	 * @param canvas Canvas to draw on.
+	 * @param graphics one of the BallGraphic values for each hole.
+	 *
+	 * @return false if nothing was drawn as there are no sprites yet.
+	 */
+	boolean draw(Canvas canvas, int[] graphics) {
+		return draw(canvas, graphics, null, 0);
+	}
+
+	/**
+	 * Now draw the board with a graphic in each hole and a ball part way
+	 * through a jump. The graphics are those after the jump, the holes
+	 * the jump lands in and jumps over are drawn by the jump.
+	 *
+	 * @param canvas Canvas to draw on.
+	 * @param graphics one of the BallGraphic values for each hole.
+	 * @param jump jump to draw or null if no ball is jumping.
+	 * @param now time in milliseconds.
+	 *
+	 * @return false if nothing was drawn as there are no sprites yet.
+	 */
+	boolean draw(Canvas canvas, int[] graphics, JumpAnimator jump, long now) {
+
+		if (mBackgroundBitmap == null) return false;
+
+		canvas.drawBitmap(mBackgroundBitmap, mDrawAreaRect.left, mDrawAreaRect.top, null);
+
+		int holes = Math.min(graphics.length, mHoles.size());
+
+		// Check the jump is on this board.
+		if (jump != null && (!jump.isRunning() || jump.getStartHole() >= holes
+				|| jump.getEndHole() >= holes || jump.getJumpedHole() >= holes))
+			jump = null;
+
+		// Now draw balls on to board.
+		for (int n = 0; n < holes; n++) {
+			if (jump != null && (n == jump.getEndHole() || n == jump.getJumpedHole()))
+				continue;
+
+			mHoles.get(n).drawBall(canvas, mSpriteAtlas, mSpriteRects, graphics[n]);
+		}
+
+		if (jump != null)
+			drawJump(canvas, graphics, jump, now);
+
+		return true;
+	}
+
+	/**
+	 * Now draw the jumped ball fading and the jumping ball moving in an
+	 * arc from one hole to the other.
+	 */
+	private void drawJump(Canvas canvas, int[] graphics, JumpAnimator jump, long now) {
+
+		float progress = jump.getProgress(now);
+
+		mJumpPaint.setAlpha(Math.round(255 * jump.getJumpedAlpha(progress)));
+		canvas.drawBitmap(mSpriteAtlas, mSpriteRects[BallGraphic.BALL],
+				getScreenArea(jump.getJumpedHole()), mJumpPaint);
+
+		// Jumping ball is shown as it will be when it lands.
+		int graphic = graphics[jump.getEndHole()];
+
+		if (graphic == BallGraphic.NO_BALL) graphic = BallGraphic.BALL;
+
+		Rect start = getScreenArea(jump.getStartHole());
+		Rect end = getScreenArea(jump.getEndHole());
+
+		float left = start.left + (end.left - start.left) * progress;
+		float top = start.top + (end.top - start.top) * progress
+				- (float) Math.sin(Math.PI * progress) * start.height() * JUMP_LIFT;
+
+		mJumpRect.set(left, top, left + start.width(), top + start.height());
+		canvas.drawBitmap(mSpriteAtlas, mSpriteRects[graphic], mJumpRect, null);
+	}
+
+	/**
+	 * Get the area of the screen drawn by a jump, from the holes it
+	 * covers up to the top of the arc.
+	 *
+	 * @param jump jump drawn.
+	 * @param area set to area of screen.
+	 */
+	void getJumpArea(JumpAnimator jump, Rect area) {
+
+		int holes = mHoles.size();
+
+		if (jump.getStartHole() >= holes || jump.getEndHole() >= holes
+				|| jump.getJumpedHole() >= holes) {
+			area.set(mDrawAreaRect);
+			return;
+		}
+
+		area.set(getScreenArea(jump.getStartHole()));
+
+		int lift = Math.round(area.height() * JUMP_LIFT) + 1;
+
+		area.union(getScreenArea(jump.getJumpedHole()));
+		area.union(getScreenArea(jump.getEndHole()));
+
+		area.top -= lift;
+	}
+
+	/**
+	 * Now find the hole at a point on the screen. The point is turned
+	 * back in to a cell of the board grid, so only the one hole in that
+	 * cell is checked whatever the size of the board.
+	 *
+	 * @param x X touched point.
+	 * @param y Y touched point.
+	 *
+	 * @return number of hole or Hole.NOT_TOUCHED.
+	 */
+	int findHole(float x, float y) {
+
+		// Wait until there is a size.
+		if (mDrawAreaRect.isEmpty()) return Hole.NOT_TOUCHED;
+
+		// Now find the cell on the board bitmap.
+		float boardX = (x - mDrawAreaRect.left) / mScaleX - (HOLE_LEFT - Hole.TOUCH_PADDING);
+		float boardY = (y - mDrawAreaRect.top) / mScaleY - (HOLE_TOP - Hole.TOUCH_PADDING);
+
+		int column = (int) Math.floor(boardX / HOLE_SPACING);
+		int row = (int) Math.floor(boardY / HOLE_SPACING);
+
+		if (column < 0 || column >= mGeometry.getColumns()
+				|| row < 0 || row >= mGeometry.getRows())
+			return Hole.NOT_TOUCHED;
+
+		int holeNumber = mHoleAtCell[row * mGeometry.getColumns() + column];
+
+		if (holeNumber == Hole.NOT_TOUCHED) return Hole.NOT_TOUCHED;
+
+		// Now check the touch is on the ball, not the board around it.
+		return mHoles.get(holeNumber).isChosen(x, y);
+	}
+
+	/**
+	 * Get the area of the screen a hole is drawn in.
+	 *
+	 * @param holeNumber number of hole.
+	 */
+	Rect getScreenArea(int holeNumber) {
+		return mHoles.get(holeNumber).getScreenArea();
+	}
+
+	/** Get number of holes laid out. */
+	int getNumberOfHoles() {
+		return mHoles.size();
+	}
+
+	/**
+	 * Check a graphic can be drawn.
+	 *
+	 * @param graphic one of the BallGraphic values.
+	 *
+	 * @return graphic or NO_BALL if it is not one of the values.
+	 */
+	static int checkGraphic(int graphic) {
+
+		if (graphic < BallGraphic.NO_BALL || graphic >= BallGraphic.NUMBER_OF_GRAPHICS)
+			return BallGraphic.NO_BALL;
+
+		return graphic;
+	}
+
+	/**
+	 * Now make a red tinted copy of a ball graphic.
+	 *
+	 * @param bitmap ball graphic to copy.
+	 *
+	 * @return tinted ball graphic.
+	 */
+	private static Bitmap createLosingBitmap(Bitmap bitmap) {
+
+		Bitmap losingBitmap = Bitmap.createBitmap(bitmap.getWidth(), bitmap.getHeight(),
+				Bitmap.Config.ARGB_8888);
+
+		Paint paint = new Paint();
+		paint.setColorFilter(new LightingColorFilter(LOSING_TINT_MULTIPLY, LOSING_TINT_ADD));
+
+		new Canvas(losingBitmap).drawBitmap(bitmap, 0, 0, paint);
+
+		return losingBitmap;
+	}
+}
@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.PixelFormat;
+import android.graphics.PorterDuff;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Draws the game board on its own surface from a render thread, so
+ * drawing the board never waits for the UI thread and the game never
+ * waits for a frame. It can be used in the layout in place of the
+ * board view.
+ *
+ * The game publishes the graphic of each hole through a BoardBuffer and
+ * asks for a frame. The render thread draws at most one frame for each
+ * vsync, timed by its own Choreographer, from the newest position
+ * published, and draws every frame while a ball jumps. Touches are
+ * still handled on the UI thread, with a second renderer that shares
+ * the loaded graphics.
+ *
+ * @author Adrian Panton
+ */
+public class BoardSurfaceView extends SurfaceView implements BoardDisplay,
+		SurfaceHolder.Callback, Choreographer.FrameCallback {
+
+	// Finds holes touched, only used on the UI thread.
+	private BoardRenderer mTouchRenderer;
+
+	// Draws board, only used on the render thread.
+	private BoardRenderer mDrawRenderer;
+
+	// Graphic of each hole from the game to the render thread.
+	private volatile BoardBuffer mBuffer = new BoardBuffer(BoardGeometry.ENGLISH.getNumberOfHoles());
+
+	private HandlerThread mRenderThread = null;
+	private volatile Handler mRenderHandler = null;
+
+	// Only used on the render thread.
+	private Choreographer mChoreographer = null;
+	private boolean mSurfaceReady = false;
+	private boolean mRedrawAll = true;
+
+	// Ball jumping as drawn, only used on the render thread.
+	private final JumpAnimator mDrawJump = new JumpAnimator();
+
+	// Ball jumping and touches waiting for it to land, only used on the
+	// UI thread.
+	private final JumpAnimator mJump = new JumpAnimator();
+
+	// Passes each jump to the render thread.
+	private final StartJump mStartJump = new StartJump();
+
+	// Ends the jump once it has had its time.
+	private final Runnable mFinishJump = new Runnable() {
+		@Override
+		public void run() {
+			finishJump();
+		}
+	};
+
+	// True from when a frame is asked for until it is drawn.
+	private final AtomicBoolean mFrameRequested = new AtomicBoolean(false);
+
+	// Use this instance of the interface to deliver action events.
+	private BoardView.onBoardListener mListener = null;
+
+	// Asks for a frame at the next vsync, run on the render thread.
+	private final Runnable mPostFrame = new Runnable() {
+		@Override
+		public void run() {
+			if (mChoreographer != null) mChoreographer.postFrameCallback(BoardSurfaceView.this);
+		}
+	};
+
+	public BoardSurfaceView(Context context) {
+		super(context);
+		setupView();
+	}
+
+	public BoardSurfaceView(Context context, AttributeSet attrs) {
+		super(context, attrs);
+		setupView();
+	}
+
+	public BoardSurfaceView(Context context, AttributeSet attrs, int defStyle) {
+		super(context, attrs, defStyle);
+		setupView();
+	}
+
+	/** Setup board surface **/
+	private void setupView() {
+
+		mTouchRenderer = new BoardRenderer(getResources());
+		mDrawRenderer = new BoardRenderer(mTouchRenderer);
+
+		// Show the window background around the board.
+		setZOrderOnTop(true);
+		getHolder().setFormat(PixelFormat.TRANSLUCENT);
+		getHolder().addCallback(this);
+	}
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+
+		// Create a square size view using the smallest size
+		// to create the square view.
+		int width = MeasureSpec.getSize(widthMeasureSpec);
+		int height = MeasureSpec.getSize(heightMeasureSpec);
+
+		int temp = Math.min(width, height);
+
+		// Set the dimensions.
+		setMeasuredDimension(temp, temp);
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+
+		mRenderThread = new HandlerThread("BoardRender", Process.THREAD_PRIORITY_DISPLAY);
+		mRenderThread.start();
+
+		mRenderHandler = new Handler(mRenderThread.getLooper());
+		mRenderHandler.post(new Runnable() {
+			@Override
+			public void run() {
+				mChoreographer = Choreographer.getInstance();
+			}
+		});
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+
+		final Handler handler = mRenderHandler;
+		mRenderHandler = null;
+
+		// Now stop frames and let the render thread finish.
+		handler.post(new Runnable() {
+			@Override
+			public void run() {
+				mChoreographer.removeFrameCallback(BoardSurfaceView.this);
+				mFrameRequested.set(false);
+			}
+		});
+		mRenderThread.quitSafely();
+		mRenderThread = null;
+
+		super.onDetachedFromWindow();
+	}
+
+	@Override
+	public void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+
+		mTouchRenderer.setSize(width, height, getPaddingLeft(), getPaddingTop(),
+				getPaddingRight(), getPaddingBottom());
+	}
+
+	@Override
+	public void surfaceCreated(SurfaceHolder holder) {
+		// Nothing to draw until the size is known in surfaceChanged().
+	}
+
+	@Override
+	public void surfaceChanged(SurfaceHolder holder, int format, final int width, final int height) {
+
+		final int left = getPaddingLeft();
+		final int top = getPaddingTop();
+		final int right = getPaddingRight();
+		final int bottom = getPaddingBottom();
+
+		postToRenderThread(new Runnable() {
+			@Override
+			public void run() {
+				mDrawRenderer.setSize(width, height, left, top, right, bottom);
+				mDrawRenderer.createSprites();
+
+				mSurfaceReady = true;
+				mRedrawAll = true;
+			}
+		});
+
+		requestFrame();
+	}
+
+	@Override
+	public void surfaceDestroyed(SurfaceHolder holder) {
+
+		final CountDownLatch stopped = new CountDownLatch(1);
+
+		// Now make sure the render thread has stopped drawing before
+		// the surface goes.
+		boolean posted = postToRenderThread(new Runnable() {
+			@Override
+			public void run() {
+				mSurfaceReady = false;
+				stopped.countDown();
+			}
+		});
+
+		if (!posted) return;
+
+		try {
+			stopped.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Now draw the newest position published, on the render thread. */
+	@Override
+	public void doFrame(long frameTimeNanos) {
+
+		mFrameRequested.set(false);
+
+		if (!mSurfaceReady) return;
+
+		BoardBuffer buffer = mBuffer;
+		boolean jumping = mDrawJump.isRunning();
+
+		if (!buffer.update() && !mRedrawAll && !jumping) return;
+
+		SurfaceHolder holder = getHolder();
+		Canvas canvas = holder.lockCanvas();
+
+		if (canvas == null) return;
+
+		long now = SystemClock.uptimeMillis();
+
+		try {
+			canvas.drawColor(0, PorterDuff.Mode.CLEAR);
+			mRedrawAll = !mDrawRenderer.draw(canvas, buffer.getReadList(), mDrawJump, now);
+
+		} finally {
+			holder.unlockCanvasAndPost(canvas);
+		}
+
+		if (!jumping) return;
+
+		// The last frame of a jump shows the ball landed, otherwise draw
+		// the next frame of the jump.
+		if (mDrawJump.isDone(now)) {
+			mDrawJump.finish();
+
+		} else if (mFrameRequested.compareAndSet(false, true)) {
+			mChoreographer.postFrameCallback(this);
+		}
+	}
+
+	@Override
+	public boolean performClick() {
+		super.performClick();
+
+		return false;
+	}
+
+	/** Now handle game board being touched */
+	@Override
+	public boolean onTouchEvent(MotionEvent event) {
+
+		performClick();
+
+		// Check to see if user touching screen.
+		if (event.getAction() == MotionEvent.ACTION_DOWN) {
+
+			int holeNumber = mTouchRenderer.findHole(event.getX(), event.getY());
+
+			// Now return that board been touched if no holes were found to been touched.
+			if (holeNumber == Hole.NOT_TOUCHED) holeNumber = BoardView.BOARD_TOUCHED;
+
+			// Keep touches until the ball jumping lands.
+			if (mJump.isRunning())
+				mJump.queueTouch(holeNumber);
+			else if (mListener != null)
+				mListener.holeTouched(holeNumber);
+
+			return true;
+		}
+
+		return false;
+	}
+
+	/** Set the calling fragment or activity  */
+	@Override
+	public void setBoardListener(BoardView.onBoardListener listener) {
+		mListener = listener;
+	}
+
+	/**
+	 * Now set the layout of holes to draw, holes are placed on a grid
+	 * and the board bitmap stretched to cover it. Must be called on the
+	 * UI thread.
+	 *
+	 * @param geometry layout of board.
+	 */
+	@Override
+	public void setGeometry(final BoardGeometry geometry) {
+
+		mTouchRenderer.setGeometry(geometry);
+		mTouchRenderer.setSize(getWidth(), getHeight(), getPaddingLeft(), getPaddingTop(),
+				getPaddingRight(), getPaddingBottom());
+
+		mBuffer = new BoardBuffer(geometry.getNumberOfHoles());
+
+		removeCallbacks(mFinishJump);
+		mJump.finish();
+		mJump.clearQueue();
+
+		final int width = getWidth();
+		final int height = getHeight();
+		final int left = getPaddingLeft();
+		final int top = getPaddingTop();
+		final int right = getPaddingRight();
+		final int bottom = getPaddingBottom();
+
+		postToRenderThread(new Runnable() {
+			@Override
+			public void run() {
+				mDrawRenderer.setGeometry(geometry);
+				mDrawRenderer.setSize(width, height, left, top, right, bottom);
+				mDrawRenderer.createSprites();
+
+				mDrawJump.finish();
+
+				mRedrawAll = true;
+			}
+		});
+
+		requestFrame();
+	}
+
+	/**
+	 * Now publish the graphic of every hole to the render thread and
+	 * clear the changes. As each frame draws the whole surface every
+	 * hole is published, not only those changed.
+	 *
+	 * @param changes graphic of each hole and the holes changed.
+	 */
+	@Override
+	public void setHoles(BoardChanges changes) {
+
+		BoardBuffer buffer = mBuffer;
+		int[] graphics = buffer.getWriteList();
+
+		int holes = Math.min(changes.getNumberOfHoles(), graphics.length);
+
+		for (int n = 0; n < holes; n++)
+			graphics[n] = BoardRenderer.checkGraphic(changes.getGraphic(n));
+
+		buffer.publish();
+		changes.clearChanges();
+
+		requestFrame();
+	}
+
+	/**
+	 * Now show a ball jumping, must be called on the UI thread.
+	 */
+	@Override
+	public void animateJump(int from, int jumped, int to, boolean back) {
+
+		long now = SystemClock.uptimeMillis();
+
+		mJump.start(from, jumped, to, back, now);
+
+		mStartJump.set(from, jumped, to, back, now);
+		postToRenderThread(mStartJump);
+
+		removeCallbacks(mFinishJump);
+		postDelayed(mFinishJump, JumpAnimator.JUMP_DURATION);
+
+		requestFrame();
+	}
+
+	/** Now end the jump and pass on the touches kept while it ran. */
+	private void finishJump() {
+
+		mJump.finish();
+
+		// Each touch may start a jump, the rest wait for it to land.
+		while (!mJump.isRunning() && mJump.hasQueuedTouch()) {
+			int holeNumber = mJump.nextQueuedTouch();
+
+			if (mListener != null) mListener.holeTouched(holeNumber);
+		}
+	}
+
+	/** Now ask the render thread for a frame, if one is not already coming. */
+	private void requestFrame() {
+
+		if (mFrameRequested.compareAndSet(false, true))
+			if (!postToRenderThread(mPostFrame))
+				mFrameRequested.set(false);
+	}
+
+	/**
+	 * Now run a task on the render thread.
+	 *
+	 * @param task task to run.
+	 *
+	 * @return false if there is no render thread.
+	 */
+	private boolean postToRenderThread(Runnable task) {
+
+		Handler handler = mRenderHandler;
+
+		return handler != null && handler.post(task);
+	}
+
+	/**
+	 * Starts a jump on the render thread. The one task is reused for
+	 * every jump, the jump is set on the UI thread before it is posted.
+	 * It is locked as a jump may be set again before the last has run.
+	 */
+	private class StartJump implements Runnable {
+
+		private int from;
+		private int jumped;
+		private int to;
+		private boolean back;
+		private long startTime;
+
+		synchronized void set(int from, int jumped, int to, boolean back, long startTime) {
+
+			this.from = from;
+			this.jumped = jumped;
+			this.to = to;
+			this.back = back;
+			this.startTime = startTime;
+		}
+
+		@Override
+		public synchronized void run() {
+			mDrawJump.start(from, jumped, to, back, startTime);
+		}
+	}
+}
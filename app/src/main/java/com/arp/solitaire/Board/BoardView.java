@@ -17,74 +17,50 @@
 package com.arp.solitaire.Board;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Rect;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
 
-import com.arp.solitaire.R;
-
-import java.util.ArrayList;
+import com.arp.solitaire.Game.Game;
 
 /**
  * This class draw the game board and handles the users touches
  * on the game board.
  * 
+ * The board and every ball graphic are scaled to the screen once when
+ * the view changes size, see BoardRenderer. Only the areas of holes
+ * whose graphic has changed are invalidated, and while a ball jumps
+ * only the area of the jump is drawn each frame.
+ * 
  * @author Adrian Panton
  */
-public class BoardView extends View {
+public class BoardView extends View implements BoardDisplay {
 
-	//********* The number ordering of ball placement on board. *********/
-	//       00 01 02
-	//       03 04 05
-	// 06 07 08 09 10 11 12
-	// 13 14 15 16 17 18 19
-	// 20 21 22 23 24 25 26
-	//       27 28 29
-	//       30 31 32
-	/********************************************************************/
+	// Holes are numbered in reading order, see BoardGeometry.
+	public static final int BOARD_TOUCHED = Game.BOARD_TOUCHED;
 	
-	// Number of holes of board.
-	public static final int NUMBER_OF_HOLES = 33;
-	public static final int BOARD_TOUCHED = -1;
+	private BoardRenderer mRenderer; // Draws board and finds holes touched.
 	
-	public static final int NO_BALL = 0;
-	public static final int BALL = 1;
-	public static final int BALL_UP = 2;
-	public static final int BALL_RIGHT = 3;
-	public static final int BALL_DOWN = 4;
-	public static final int BALL_LEFT = 5;
-	public static final int BALL_PICKED = 6;
+	// Graphic shown in each hole.
+	private int[] mGraphics = new int[BoardGeometry.ENGLISH.getNumberOfHoles()];
 	
-	// List of bitmaps that been loaded.
-	private Bitmap mBoardBitmap = null; // Board bitmap used in game.
-	private Bitmap mBallBitmap = null;	// Ball to draw in board hole.
-	private Bitmap mBallUpBitmap = null;
-	private Bitmap mBallRightBitmap = null;
-	private Bitmap mBallDownBitmap = null;
-	private Bitmap mBallLeftBitmap = null;
-	private Bitmap mBallPickedBitmap = null;
+	// True if every hole must be redrawn, as the board has been reset.
+	private boolean mRedrawAll = true;
 	
-	private Bitmap mGameBoardBitmap = null;	// Bitmap to draw game onto.
-	private Canvas mGameBoardCanvas = null; // Canvas used for drawing bitmap.
-	private Rect mGameBoardAreaRect = new Rect(); // Size of canvas to draw game on to.
-	
-	private Rect mDrawAreaRect = new Rect(); // Area of actual screen to draw bitmap on to.
-
-	private ArrayList<Hole> mHoles = new ArrayList<>(); // List of holes on board.
+	// Ball jumping and touches waiting for it to land.
+	private final JumpAnimator mJump = new JumpAnimator();
+	private final Rect mJumpArea = new Rect();
 	
-	// List of x positions for holes on board.
-	private static final int holeX[] = { 112, 152, 192, 112, 152, 192, 32, 72,
-			112, 152, 192, 232, 272, 32, 72, 112, 152, 192, 232, 272, 32, 72,
-			112, 152, 192, 232, 272, 112, 152, 192, 112, 152, 192 };
-
-	// List of y positions for holes on board.
-	private static final int holeY[] = { 30, 30, 30, 70, 70, 70, 110, 110, 110,
-			110, 110, 110, 110, 150, 150, 150, 150, 150, 150, 150, 190, 190,
-			190, 190, 190, 190, 190, 230, 230, 230, 270, 270, 270 };
+	// Ends the jump once it has had its time.
+	private final Runnable mFinishJump = new Runnable() {
+		@Override
+		public void run() {
+			finishJump();
+		}
+	};
 
 	// Use this instance of the interface to deliver action events.
 	private onBoardListener mListener = null;
@@ -128,21 +104,9 @@ public class BoardView extends View {
 	@Override
 	public void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
 
-		// Calculate area to draw compass on taking in to account padding.
-		mDrawAreaRect.top = getPaddingTop();
-		mDrawAreaRect.bottom = height - getPaddingBottom();
-		mDrawAreaRect.left = getPaddingLeft();
-		mDrawAreaRect.right = width - getPaddingRight();
-	
-		// Calculate the touch ares for holes.
-		float scaleX = (float)(mDrawAreaRect.right - mDrawAreaRect.left)
-				/ (float) mBoardBitmap.getWidth();
-		float scaleY = (float) (mDrawAreaRect.bottom - mDrawAreaRect.top)
-				/ (float) mBoardBitmap.getHeight();
-		
-		for (Hole hole: mHoles)
-			hole.setBallTouchArea(scaleX, scaleY);
-		
+		mRenderer.setSize(width, height, getPaddingLeft(), getPaddingTop(),
+				getPaddingRight(), getPaddingBottom());
+		mRenderer.createSprites();
 	}
 
 	@Override
@@ -161,18 +125,17 @@ public class BoardView extends View {
 		// Check to see if user touching screen.
 		if (event.getAction() == MotionEvent.ACTION_DOWN) {
 			
-			int holeNumber;
+			int holeNumber = mRenderer.findHole(event.getX(), event.getY());
 			
-			// Check to see if hole has been touched.
-			for (Hole hole: mHoles) {
-				if ((holeNumber = hole.isChosen(event.getX(), event.getY())) != Hole.NOT_TOUCHED) {
-					if (mListener != null)	mListener.holeTouched(holeNumber);	
-					return true; // Quit as we find a hole that been touched.
-				}
-			}
+			// Now return that board been touched if no holes were found to been touched.
+			if (holeNumber == Hole.NOT_TOUCHED) holeNumber = BOARD_TOUCHED;
+			
+			// Keep touches until the ball jumping lands.
+			if (mJump.isRunning())
+				mJump.queueTouch(holeNumber);
+			else if (mListener != null)
+				mListener.holeTouched(holeNumber);
 			
-			// Now return that board been touched as no holes were found to been touched.
-			if (mListener != null)	mListener.holeTouched(BOARD_TOUCHED);
 			return true;
 		} 
 		
@@ -180,127 +143,137 @@ public class BoardView extends View {
 	}
 	
 	@Override
-	protected synchronized void onDraw(Canvas canvas) {
+	protected void onDraw(Canvas canvas) {
 		super.onDraw(canvas);
 		
-		mGameBoardCanvas.drawBitmap(mBoardBitmap, null, mGameBoardAreaRect, null);
+		long now = SystemClock.uptimeMillis();
 		
-		// Now draw balls on to board.
-		for (Hole hole: mHoles) {
-			hole.drawBall(mGameBoardCanvas);
-		}
+		mRenderer.draw(canvas, mGraphics, mJump, now);
 		
-		canvas.drawBitmap(mGameBoardBitmap, null, mDrawAreaRect, null);
+		// Now ask for the next frame of the jump.
+		if (mJump.isRunning() && !mJump.isDone(now))
+			invalidateJump();
 	}
 	
 	/** Set the calling fragment or activity  */
+	@Override
 	public void setBoardListener(onBoardListener listener) {
 		mListener = listener;
 	}
 
-	/** Setup board view **/
-	private void setupView() {
+	/**
+	 * Now set the layout of holes to draw, holes are placed on a grid
+	 * and the board bitmap stretched to cover it.
+	 * 
+	 * @param geometry layout of board.
+	 */
+	@Override
+	public void setGeometry(BoardGeometry geometry) {
 		
-		BitmapFactory.Options options = new BitmapFactory.Options();
-		options.inScaled = false; // Stop auto scaling of bitmaps.
-
-		// Now load ball graphics.
-		mBallBitmap = BitmapFactory.decodeResource(getResources(),
-				R.mipmap.bm_solitaire_ball, options);
-		 mBallUpBitmap = BitmapFactory.decodeResource(getResources(),
-					R.mipmap.bm_solitaire_ball_up, options);
-		mBallRightBitmap =  BitmapFactory.decodeResource(getResources(),
-				R.mipmap.bm_solitaire_ball_right, options);
-		mBallDownBitmap =  BitmapFactory.decodeResource(getResources(),
-				R.mipmap.bm_solitaire_ball_down, options);
-		mBallLeftBitmap =  BitmapFactory.decodeResource(getResources(),
-				R.mipmap.bm_solitaire_ball_left, options);
-		mBallPickedBitmap =  BitmapFactory.decodeResource(getResources(),
-				R.mipmap.bm_solitaire_ball_picked, options);
+		mRenderer.setGeometry(geometry);
+		mRenderer.setSize(getWidth(), getHeight(), getPaddingLeft(), getPaddingTop(),
+				getPaddingRight(), getPaddingBottom());
+		mRenderer.createSprites();
 		
-		// Load board graphic.
-		mBoardBitmap = BitmapFactory.decodeResource(getResources(),
-				R.mipmap.bm_solitaire_board, options);
+		mGraphics = new int[geometry.getNumberOfHoles()];
+		mRedrawAll = true;
 		
-		// Setup bitmap and canvas to draw on for game board.
-		Bitmap.Config conf = Bitmap.Config.ARGB_8888; // see other conf types
-
-		// Create a MUTABLE bitmap to draw to for game play area.
-		mGameBoardBitmap = Bitmap.createBitmap(mBoardBitmap.getWidth(),
-				mBoardBitmap.getHeight(), conf);
-
-		// / Create canvas to draw on and colour to transparent.
-		mGameBoardCanvas = new Canvas(mGameBoardBitmap);
-		mGameBoardCanvas.drawARGB(0, 0, 0, 0);
+		removeCallbacks(mFinishJump);
+		mJump.finish();
+		mJump.clearQueue();
 		
-		// Set size game board.
-		mGameBoardAreaRect.top = 0;
-		mGameBoardAreaRect.left = 0;
-		mGameBoardAreaRect.right = mGameBoardCanvas.getWidth();
-		mGameBoardAreaRect.bottom = mGameBoardCanvas.getHeight();
-
-		// Now initialise holes.
-		int ballWidth = mBallBitmap.getWidth();
-		int ballHeight = mBallBitmap.getHeight();
+		postInvalidate();
+	}
+	
+	/** Setup board view **/
+	private void setupView() {
+		mRenderer = new BoardRenderer(getResources());
+	}
+	
+	/**
+	 * Now set the holes whose graphic has changed, or every hole after
+	 * the board has been reset, and clear the changes.
+	 *
+	 * @param changes graphic of each hole and the holes changed.
+	 */
+	@Override
+	public void setHoles(BoardChanges changes) {
 		
-		for (int n = 0; n < holeX.length; n++) {
-			Hole hole = new Hole();
-			hole.setHoleDrawPosition(holeX[n], holeY[n], ballWidth, ballHeight);
+		int holes = Math.min(changes.getNumberOfHoles(), mGraphics.length);
+		
+		if (mRedrawAll) {
+			for (int n = 0; n < holes; n++)
+				setHole(n, changes.getGraphic(n));
 			
-			hole.setHoleNumber(n);
+			mRedrawAll = false;
+			postInvalidate();
 			
-			mHoles.add(hole);
+		} else {
+			for (int n = 0; n < changes.getChangedCount(); n++) {
+				int holeNumber = changes.getChangedHole(n);
+				
+				if (holeNumber < holes) {
+					setHole(holeNumber, changes.getGraphic(holeNumber));
+					invalidateHole(holeNumber);
+				}
+			}
 		}
+		
+		changes.clearChanges();
 	}
 	
 	/**
-	 * Set balls into holes.
-	 *
-	 * @param ballList a list a ball graphics to display.
+	 * Now set the graphic shown in a hole.
+	 * 
+	 * @param holeNumber number of hole.
+	 * @param graphic one of the BallGraphic values.
 	 */
-	public void setHoles(int[] ballList) {
+	private void setHole(int holeNumber, int graphic) {
+		mGraphics[holeNumber] = BoardRenderer.checkGraphic(graphic);
+	}
+	
+	@Override
+	public void animateJump(int from, int jumped, int to, boolean back) {
+		
+		// Clear any jump not yet landed.
+		if (mJump.isRunning()) invalidateJump();
 		
-		int holeNumber = 0;
+		mJump.start(from, jumped, to, back, SystemClock.uptimeMillis());
+		invalidateJump();
 		
-		for (Integer graphic: ballList) {
-			Bitmap ballBitmap;
+		removeCallbacks(mFinishJump);
+		postDelayed(mFinishJump, JumpAnimator.JUMP_DURATION);
+	}
 	
-			// Get which bitmap to display in hole.
-			switch (graphic) {
-			case BALL:
-				ballBitmap = mBallBitmap;
-				break;
-				
-			case BALL_UP:
-				ballBitmap = mBallUpBitmap;
-				break;
-				
-			case BALL_RIGHT:
-				ballBitmap = mBallRightBitmap;
-				break;
-				
-			case BALL_DOWN:
-				ballBitmap = mBallDownBitmap;
-				break;
-				
-			case BALL_LEFT:
-				ballBitmap = mBallLeftBitmap;
-				break;
-				
-			case BALL_PICKED:
-				ballBitmap = mBallPickedBitmap;
-				break;
+	/** Now end the jump and pass on the touches kept while it ran. */
+	private void finishJump() {
 		
-			default:
-				ballBitmap = null;
-			}
+		invalidateJump();
+		mJump.finish();
 		
-			// Set the graphic to display.
-			mHoles.get(holeNumber).setBitmap(ballBitmap);
+		// Each touch may start a jump, the rest wait for it to land.
+		while (!mJump.isRunning() && mJump.hasQueuedTouch()) {
+			int holeNumber = mJump.nextQueuedTouch();
 			
-			holeNumber++;
+			if (mListener != null) mListener.holeTouched(holeNumber);
 		}
+	}
+	
+	/** Now invalidate the area of the screen the jump is drawn in. */
+	private void invalidateJump() {
 		
-		postInvalidate();
+		mRenderer.getJumpArea(mJump, mJumpArea);
+		postInvalidateOnAnimation(mJumpArea.left, mJumpArea.top, mJumpArea.right, mJumpArea.bottom);
+	}
+	
+	/**
+	 * Now invalidate the area of the screen a hole is drawn in.
+	 * 
+	 * @param holeNumber hole that has changed.
+	 */
+	private void invalidateHole(int holeNumber) {
+		
+		Rect area = mRenderer.getScreenArea(holeNumber);
+		postInvalidate(area.left, area.top, area.right, area.bottom);
 	}
 }
@@ -18,6 +18,7 @@ package com.arp.solitaire.Board;
 
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.graphics.RectF;
 
 /**
@@ -29,15 +30,17 @@ class Hole {
 
 	final static int NOT_TOUCHED = -1;
 	
-	private Bitmap graphic = null; // Graphic ball to draw.
-
-	private RectF destRect = new RectF(0, 0, 0, 0); // Area to draw ball in.
+	// Distance around ball on board bitmap that still touches it.
+	final static int TOUCH_PADDING = 3;
+	
+	private RectF destRect = new RectF(0, 0, 0, 0); // Area of ball on board bitmap.
+	private Rect screenRect = new Rect(); // Area to draw ball in on screen.
 	private RectF touchRect = new RectF(0, 0, 0, 0); // Area for touching ball.
 
 	private int holeNumber; // The hole number this is on the boarded.
 	
 	/** 
-	 * Now setup where to draw ball on board.
+	 * Now setup where ball is on board bitmap.
 	 * 
 	 * @param x 		X position to start drawing ball.
 	 * @param y			Y position to start drawing ball.
@@ -54,6 +57,28 @@ class Hole {
 		destRect.bottom = y + height;
 	}
 	
+	/**
+	 * Now work out where to draw ball on screen, the ball sprites are
+	 * already scaled so every hole is the same size.
+	 * 
+	 *  Please note call setHoleDrawPosition() before calling
+	 *  this routine.
+	 * 
+	 * @param xScale Board width scaling to fit board on screen.
+	 * @param yScale Board height scaling to fit board on screen.
+	 * @param left Left of board on screen.
+	 * @param top Top of board on screen.
+	 * @param width Width of ball sprite.
+	 * @param height Height of ball sprite.
+	 */
+	void setScreenArea(float xScale, float yScale, int left, int top, int width, int height) {
+		
+		screenRect.left = left + Math.round(destRect.left * xScale);
+		screenRect.top = top + Math.round(destRect.top * yScale);
+		screenRect.right = screenRect.left + width;
+		screenRect.bottom = screenRect.top + height;
+	}
+	
 	/**
 	 * Now work out where hole touch area is with screen.
 	 * 
@@ -62,22 +87,15 @@ class Hole {
 	 *  
 	 * @param xScale Hole width scaling to fit board on screen.
 	 * @param yScale Hole height scaling to fit board on screen.
+	 * @param left Left of board on screen.
+	 * @param top Top of board on screen.
 	 */
-	void setBallTouchArea(float xScale, float yScale) {
+	void setBallTouchArea(float xScale, float yScale, int left, int top) {
 
-		touchRect.top = (destRect.top - 3) * xScale;
-		touchRect.left = (destRect.left - 3) * yScale;
-		touchRect.right = (destRect.right + 3) * xScale;
-		touchRect.bottom = (destRect.bottom + 3) * yScale;
-	}
-
-	/**
-	 * Now set graphic that the hole contains
-	 * 
-	 * @param bitmap New graphic to display.
-	 */
-	void setBitmap(Bitmap bitmap) {
-		graphic = bitmap;
+		touchRect.top = top + (destRect.top - TOUCH_PADDING) * yScale;
+		touchRect.left = left + (destRect.left - TOUCH_PADDING) * xScale;
+		touchRect.right = left + (destRect.right + TOUCH_PADDING) * xScale;
+		touchRect.bottom = top + (destRect.bottom + TOUCH_PADDING) * yScale;
 	}
 
 	/**
@@ -93,12 +111,20 @@ class Hole {
 	 * Now draw graphic within hole.
 	 * 
 	 * @param canvas Canvas to draw hole graphic on.
+	 * @param atlas Bitmap holding every ball sprite at screen size.
+	 * @param sprites Area of atlas for each graphic.
+	 * @param graphic One of the BallGraphic values.
 	 */
-	void drawBall(Canvas canvas) {
+	void drawBall(Canvas canvas, Bitmap atlas, Rect[] sprites, int graphic) {
 		
 		// Check there is ball graphic to draw.
-		if(graphic != null)
-			canvas.drawBitmap(graphic, null, destRect, null);
+		if (graphic != BallGraphic.NO_BALL)
+			canvas.drawBitmap(atlas, sprites[graphic], screenRect, null);
+	}
+	
+	/** Get area of screen drawn by hole. */
+	Rect getScreenArea() {
+		return screenRect;
 	}
 
 	/**
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+/**
+ * The state of a ball jumping from one hole to another, with the
+ * holes touched while it jumps waiting to be passed on.
+ *
+ * One animator is made with its view and reused for every jump, so
+ * nothing is created as a jump starts or while it is drawn. Touches
+ * are kept in a fixed size ring, in the order they arrived.
+ *
+ * @author Adrian Panton
+ */
+class JumpAnimator {
+
+	// Time a jump takes in milliseconds.
+	static final int JUMP_DURATION = 250;
+
+	// Most touches kept while a ball jumps.
+	private static final int QUEUE_SIZE = 16;
+
+	private int from;
+	private int jumped;
+	private int to;
+	private boolean back; // True if the jump is being taken back.
+
+	private long startTime;
+	private boolean running = false;
+
+	// Touches waiting for the jump to end.
+	private final int[] queue = new int[QUEUE_SIZE];
+	private int queueHead = 0;
+	private int queueCount = 0;
+
+	/**
+	 * Now start a jump, replacing any jump already running.
+	 *
+	 * @param from hole ball jumps from.
+	 * @param jumped hole of ball jumped over.
+	 * @param to hole ball lands in.
+	 * @param back true if the jump is being taken back, the ball goes
+	 *             from to back to from and the jumped ball returns.
+	 * @param now time in milliseconds.
+	 */
+	void start(int from, int jumped, int to, boolean back, long now) {
+
+		this.from = from;
+		this.jumped = jumped;
+		this.to = to;
+		this.back = back;
+
+		startTime = now;
+		running = true;
+	}
+
+	/** Now stop the jump. */
+	void finish() {
+		running = false;
+	}
+
+	boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Check whether the jump has had its time.
+	 *
+	 * @param now time in milliseconds.
+	 */
+	boolean isDone(long now) {
+		return now - startTime >= JUMP_DURATION;
+	}
+
+	/**
+	 * Get how far the ball has jumped, speeding up as it leaves and
+	 * slowing as it lands.
+	 *
+	 * @param now time in milliseconds.
+	 *
+	 * @return from 0 at the start to 1 at the end.
+	 */
+	float getProgress(long now) {
+
+		float time = Math.min(1f, Math.max(0f, (float) (now - startTime) / JUMP_DURATION));
+
+		return (float) (1 - Math.cos(Math.PI * time)) / 2;
+	}
+
+	/** Get hole the moving ball is drawn from. */
+	int getStartHole() {
+		return back ? to : from;
+	}
+
+	/** Get hole the moving ball lands in. */
+	int getEndHole() {
+		return back ? from : to;
+	}
+
+	/** Get hole of ball jumped over. */
+	int getJumpedHole() {
+		return jumped;
+	}
+
+	/**
+	 * Get how much of the jumped ball shows, it fades out as it is
+	 * jumped and back in as the jump is taken back.
+	 *
+	 * @param progress from getProgress().
+	 *
+	 * @return from 0 for none to 1 for all.
+	 */
+	float getJumpedAlpha(float progress) {
+		return back ? progress : 1 - progress;
+	}
+
+	/**
+	 * Now keep a touch until the jump ends.
+	 *
+	 * @param hole hole touched or BoardView.BOARD_TOUCHED.
+	 *
+	 * @return false if too many touches are waiting, the touch is lost.
+	 */
+	boolean queueTouch(int hole) {
+
+		if (queueCount == QUEUE_SIZE) return false;
+
+		queue[(queueHead + queueCount) % QUEUE_SIZE] = hole;
+		queueCount++;
+
+		return true;
+	}
+
+	boolean hasQueuedTouch() {
+		return queueCount > 0;
+	}
+
+	/** Get the oldest touch waiting and remove it. */
+	int nextQueuedTouch() {
+
+		int hole = queue[queueHead];
+
+		queueHead = (queueHead + 1) % QUEUE_SIZE;
+		queueCount--;
+
+		return hole;
+	}
+
+	/** Now forget every touch waiting. */
+	void clearQueue() {
+		queueHead = 0;
+		queueCount = 0;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Game;
+
+import android.view.Choreographer;
+
+/**
+ * Runs the ball flash on the UI thread in step with the display.
+ * 
+ * Each flash is a single frame callback posted for when the interval
+ * has passed, so the flash is drawn on a vsync and nothing runs between
+ * flashes. When nothing is animating, or the activity is paused, no
+ * callback is posted at all and the scheduler is idle until animating
+ * again. No thread is created.
+ * 
+ * Must be created and used on the UI thread.
+ * 
+ * @author Adrian Panton
+ */
+public class FrameScheduler implements Choreographer.FrameCallback {
+
+	private final Choreographer mChoreographer;
+
+	private final int interval;
+	
+	// True while the activity is running.
+	private boolean mStarted = false;
+	
+	// True while the game has something to animate.
+	private boolean mAnimating = false;
+	
+	// True while a frame callback is posted.
+	private boolean mPosted = false;
+	
+	// Use this instance of the interface to deliver action events.
+	private onFrameSchedulerListener mListener = null;
+
+	public interface onFrameSchedulerListener {
+		void timerDone();
+	}
+
+	/**
+	 * Create a scheduler.
+	 * 
+	 * @param interval time between flashes in milliseconds.
+	 */
+	public FrameScheduler(int interval) {
+	
+		this.interval = interval;
+		
+		mChoreographer = Choreographer.getInstance();
+	}
+	
+	/** Set the calling fragment or activity */
+	public void setSchedulerListener(onFrameSchedulerListener listener) {
+		mListener = listener;
+	}
+
+	/** Now start flashing when there is something to animate. */
+	public void start() {
+
+		mStarted = true;
+		schedule();
+	}
+
+	/** Now stop flashing until started again. */
+	public void stop() {
+
+		mStarted = false;
+		cancel();
+	}
+	
+	/**
+	 * Set whether there is something to animate, the scheduler is idle
+	 * when there is not.
+	 * 
+	 * @param animating true if the game is animating.
+	 */
+	public void setAnimating(boolean animating) {
+		
+		if (mAnimating == animating) return;
+		
+		mAnimating = animating;
+		
+		if (animating)
+			schedule();
+		else
+			cancel();
+	}
+	
+	@Override
+	public void doFrame(long frameTimeNanos) {
+		
+		mPosted = false;
+		
+		if (!mStarted || !mAnimating) return;
+		
+		// Post the next flash first, the listener may stop animating.
+		schedule();
+		
+		if (mListener != null) mListener.timerDone();
+	}
+	
+	/** Now post a frame callback for the next flash if one is needed. */
+	private void schedule() {
+		
+		if (mPosted || !mStarted || !mAnimating) return;
+		
+		mPosted = true;
+		mChoreographer.postFrameCallbackDelayed(this, interval);
+	}
+	
+	/** Now remove any frame callback posted. */
+	private void cancel() {
+		
+		if (!mPosted) return;
+		
+		mPosted = false;
+		mChoreographer.removeFrameCallback(this);
+	}
+}
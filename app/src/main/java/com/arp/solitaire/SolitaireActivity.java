@@ -16,21 +16,39 @@
 
 package com.arp.solitaire;
 
+import android.content.res.AssetFileDescriptor;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.fragment.app.FragmentActivity;
 import android.view.View;
 import android.view.View.OnClickListener;
+import android.view.View.OnLongClickListener;
 import android.widget.Button;
 import android.widget.LinearLayout;
+import android.widget.Toast;
 
 import com.arp.solitaire.Board.BallControl;
+import com.arp.solitaire.Board.BoardChanges;
+import com.arp.solitaire.Board.BoardDisplay;
 import com.arp.solitaire.Board.BoardView;
 import com.arp.solitaire.Game.Game;
-import com.arp.solitaire.Game.GameTimer;
+import com.arp.solitaire.Game.FrameScheduler;
+import com.arp.solitaire.Solution.SolvabilityDatabase;
 import com.arp.solitaire.dialogs.GameOverDialog;
 import com.arp.solitaire.dialogs.SaveLoadDialog;
 import com.arp.solitaire.dialogs.WarningDialog;
 import com.arp.solitaire.dialogs.WarningDialogUtil;
+import com.arp.solitaire.io.FileGameStore;
+import com.arp.solitaire.io.GameStore;
+import com.arp.solitaire.io.MappedGameStore;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Now display a game of solitaire and allow the player
@@ -38,12 +56,21 @@ import com.arp.solitaire.dialogs.WarningDialogUtil;
  *
  * @author Adrian Panton
  */
-public class SolitaireActivity extends FragmentActivity implements OnClickListener, BoardView.onBoardListener,
-        Game.onGameListener, GameTimer.onGameTimerListener, WarningDialog.OnWarningDialogListener,SaveLoadDialog.LoadSaveListener{
+public class SolitaireActivity extends FragmentActivity implements OnClickListener, OnLongClickListener, BoardView.onBoardListener,
+        Game.onGameListener, FrameScheduler.onFrameSchedulerListener, WarningDialog.OnWarningDialogListener,SaveLoadDialog.LoadSaveListener{
 
     // Interval to flash the chosen ball in milliseconds.
     private static final int FLASH_INTERVAL = 500;
 
+    // Directory within the app's files where games are saved.
+    private static final String GAMES_DIRECTORY = "games";
+
+    // File within the app's files holding every save slot.
+    private static final String SLOTS_FILE = "games.slots";
+
+    // Asset holding the solvability of every reachable position.
+    private static final String SOLVABILITY_ASSET = "solvability.db";
+
     // List of end of game messages.
     private static final String NO_MOVES_TITLE = "No More Moves";
     private static final String NO_MOVES_MESSAGE = "Sorry you have failed to solve"
@@ -54,9 +81,9 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
     private static final String ALMOST_MESSAGE = "You were close to solving the puzzle "
             + "Better luck next time.";
 
-    private BoardView mBoardView;
+    private BoardDisplay mBoardView; // BoardView or BoardSurfaceView from the layout.
     private Game mGame;
-    private GameTimer mGameTimer;
+    private FrameScheduler mFrameScheduler;
 
     LinearLayout buttonLayer1;
     LinearLayout buttonLayer2;
@@ -65,7 +92,23 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
 
     Button mHelpButton;
 
-    String mFilename;
+    // Slot chosen to save to while waiting for overwrite warning.
+    int mSaveSlot;
+
+    // Saves and loads games off the UI thread, one at a time.
+    private ExecutorService mGameStoreExecutor;
+
+    // Searches for solutions off the UI thread.
+    private ExecutorService mSolveExecutor;
+
+    // Passes the results of saves and loads back to the UI thread.
+    private final Handler mUiHandler = new Handler(Looper.getMainLooper());
+    private final Executor mUiExecutor = new Executor() {
+        @Override
+        public void execute(Runnable task) {
+            mUiHandler.post(task);
+        }
+    };
 
     //WarningDialogUtil warningDialog = new WarningDialogUtil();
 
@@ -77,7 +120,7 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
         // Set to portrait mode only.
        // setRequestedOrientation(ActivityInfo.SCREEN_ORIENTATION_PORTRAIT);
 
-        mBoardView = findViewById(R.id.boardView);
+        mBoardView = (BoardDisplay) findViewById(R.id.boardView);
         mBoardView.setBoardListener(this);
 
         findViewById(R.id.undoButton)
@@ -89,6 +132,10 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
         findViewById(R.id.solutionButton)
                 .setOnClickListener(this);
 
+        // Long click shows the solution with the fewest moves.
+        findViewById(R.id.solutionButton)
+                .setOnLongClickListener(this);
+
         mHelpButton = findViewById(R.id.helpButton);
         mHelpButton.setOnClickListener(this);
 
@@ -104,6 +151,13 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
         findViewById(R.id.forwardButton)
                 .setOnClickListener(this);
 
+        // Long click steps over every jump of a ball at once.
+        findViewById(R.id.backButton)
+                .setOnLongClickListener(this);
+
+        findViewById(R.id.forwardButton)
+                .setOnLongClickListener(this);
+
         findViewById(R.id.resetSolutionButton)
                 .setOnClickListener(this);
 
@@ -117,8 +171,17 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
 
         setupGameModeButtons();
 
+        mFrameScheduler = new FrameScheduler(FLASH_INTERVAL);
+        mFrameScheduler.setSchedulerListener(this);
+
         mGame = new Game();
         mGame.setGameListener(this);
+        mGameStoreExecutor = Executors.newSingleThreadExecutor();
+        startOpeningGameStore();
+        mSolveExecutor = Executors.newSingleThreadExecutor();
+        mGame.setSolveExecutor(mSolveExecutor, mUiExecutor);
+        if (mBoardView != null) mBoardView.setGeometry(mGame.getGeometry());
+        mGame.setSolvabilityDatabase(openSolvabilityDatabase());
         mGame.startGame();
 
         displayHelpMode();
@@ -128,17 +191,25 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
     public void onResume() {
         super.onResume();
 
-        mGameTimer = new GameTimer(FLASH_INTERVAL);
-        mGameTimer.setTimerListener(this);
-
-        if (mGameTimer != null) mGameTimer.timerOn();
+        if (mFrameScheduler != null) mFrameScheduler.start();
     }
 
     @Override
     public void onPause() {
         super.onPause();
 
-        if (mGameTimer != null) mGameTimer.timerOff();
+        if (mFrameScheduler != null) mFrameScheduler.stop();
+    }
+
+    @Override
+    protected void onDestroy() {
+
+        // Let saves already asked for finish, but tell nobody.
+        if (mGame != null) mGame.setGameListener(null);
+        if (mGameStoreExecutor != null) mGameStoreExecutor.shutdown();
+        if (mSolveExecutor != null) mSolveExecutor.shutdownNow();
+
+        super.onDestroy();
     }
 
     @Override
@@ -165,15 +236,21 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
 
             case R.id.solutionButton:
                 setupSolutionModeButtons();
-                if (mGame != null) mGame.startSolution();
+                if (mGame != null) {
+                    mGame.setFewestMoves(false);
+                    mGame.startSolution();
+                }
                 break;
 
             case R.id.helpButton:
-                if (mGame != null) mGame.toggleHelpMode();
+                if (mGame != null) nextHelpMode();
                 displayHelpMode();
                 break;
 
             case R.id.loadButton:
+                // Games can not be loaded until the store has been opened.
+                if (mGame == null || mGame.getGameStore() == null) break;
+
                 // Now show loading dialog box.
                 SaveLoadDialog loadDialog = new SaveLoadDialog();
                 loadDialog.setSavingOrLoading(SaveLoadDialog.LOADING_GAME);
@@ -181,6 +258,8 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
                 break;
 
             case R.id.saveButton:
+                if (mGame == null || mGame.getGameStore() == null) break;
+
                 // Now show saving dialog box.
                 SaveLoadDialog saveDialog = new SaveLoadDialog();
                 saveDialog.setSavingOrLoading(SaveLoadDialog.SAVING_GAME);
@@ -209,16 +288,137 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
 
     }
 
+    @Override
+    public boolean onLongClick(View v) {
+
+        if (mGame == null) return false;
+
+        switch (v.getId()) {
+            case R.id.solutionButton:
+                setupSolutionModeButtons();
+                mGame.setFewestMoves(true);
+                mGame.startSolution();
+                return true;
+
+            case R.id.backButton:
+                mGame.solutionBackMove();
+                return true;
+
+            case R.id.forwardButton:
+                mGame.solutionForwardMove();
+                return true;
+        }
+
+        return false;
+    }
+
     /**
-     * Now display whether help is on or off in help button.
+     * Now move help on to the next mode, from off to showing the
+     * jumps, to showing which jumps keep the game winnable and back
+     * to off.
+     */
+    private void nextHelpMode() {
+
+        if (!mGame.getHelpMode()) {
+            mGame.toggleHelpMode();
+        } else if (!mGame.getShowWinningMoves()) {
+            mGame.setShowWinningMoves(true);
+        } else {
+            mGame.setShowWinningMoves(false);
+            mGame.toggleHelpMode();
+        }
+    }
+
+    /**
+     * Now display what the help button will change help to.
      */
     private void displayHelpMode() {
 
         if (mGame != null) {
-            if (mGame.getHelpMode())
-                mHelpButton.setText(getResources().getString(R.string.helpOff));
-            else
+            if (!mGame.getHelpMode())
                 mHelpButton.setText(getResources().getString(R.string.helpOn));
+            else if (!mGame.getShowWinningMoves())
+                mHelpButton.setText(getResources().getString(R.string.helpWinning));
+            else
+                mHelpButton.setText(getResources().getString(R.string.helpOff));
+        }
+    }
+
+    /**
+     * Now open the store of saved games on its executor, as making the
+     * slot file and bringing games over reads and writes the disk. The
+     * game is given the store on the UI thread once it is open, saves
+     * and loads can not be asked for until then.
+     */
+    private void startOpeningGameStore() {
+
+        mGameStoreExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final GameStore gameStore = openGameStore();
+
+                mUiExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        mGame.setGameStore(gameStore, mGameStoreExecutor, mUiExecutor);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Now open the slot file games are saved to, falling back to a
+     * file for each slot if it can not be opened. Called on the game
+     * store executor.
+     *
+     * @return store of saved games.
+     */
+    private GameStore openGameStore() {
+
+        FileGameStore fileGameStore = new FileGameStore(new File(getFilesDir(), GAMES_DIRECTORY));
+
+        try {
+            MappedGameStore gameStore = new MappedGameStore(new File(getFilesDir(), SLOTS_FILE));
+
+            // Now bring over games saved one file to a slot.
+            if (gameStore.wasCreated()) gameStore.importGames(fileGameStore);
+
+            return gameStore;
+
+        } catch (IOException e) {
+            return fileGameStore;
+        }
+    }
+
+    /**
+     * Now map the solvability database from the app assets, the asset
+     * is stored uncompressed so it can be mapped in place.
+     *
+     * @return database or null if it is not in the app.
+     */
+    private SolvabilityDatabase openSolvabilityDatabase() {
+
+        try {
+            AssetFileDescriptor descriptor = getAssets().openFd(SOLVABILITY_ASSET);
+
+            // The mapping stays valid once the file is closed.
+            try {
+                FileInputStream fis = descriptor.createInputStream();
+
+                try {
+                    return SolvabilityDatabase.open(fis.getChannel(), descriptor.getStartOffset(),
+                            descriptor.getLength(), mGame.getGeometry());
+                } finally {
+                    fis.close();
+                }
+
+            } finally {
+                descriptor.close();
+            }
+
+        } catch (IOException e) {
+            return null;
         }
     }
 
@@ -255,9 +455,18 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
 	/* Callback routines from game.*/
 
     @Override
-    public void updateBoard(int[] ballList) {
+    public void updateBoard(BoardChanges changes) {
 
-        if (mBoardView != null) mBoardView.setHoles(ballList);
+        if (mBoardView != null) mBoardView.setHoles(changes);
+
+        // Only flash while a ball is selected or a solution is showing.
+        if (mFrameScheduler != null) mFrameScheduler.setAnimating(mGame.isAnimating());
+    }
+
+    @Override
+    public void ballJumped(int from, int jumped, int to, boolean back) {
+
+        if (mBoardView != null) mBoardView.animateJump(from, jumped, to, back);
     }
 
     /**
@@ -302,7 +511,11 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
         warningDialog.show(getSupportFragmentManager(), WarningDialog.TAG);
     }
 
-	/* Callback routines from game timer. */
+    public void fewestMovesNotFound() {
+        Toast.makeText(this, R.string.fewestMovesNotFound, Toast.LENGTH_LONG).show();
+    }
+
+	/* Callback routines from frame scheduler. */
 
     @Override
     public void timerDone() {
@@ -328,7 +541,7 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
 
             case WarningDialogUtil.OVERWRITE_GAME_ID:
                 if (mGame != null)
-                    mGame.saveGame(getWindow().getContext(), mFilename);
+                    mGame.saveGame(mSaveSlot);
 
                 return;
 
@@ -361,11 +574,16 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
 	/* Callback routines from save load dialog. */
 
     @Override
-    public void loadGame(String filename, boolean exist) {
+    public GameStore getGameStore() {
+        return mGame.getGameStore();
+    }
+
+    @Override
+    public void loadGame(int slot, boolean exist) {
 
         if (exist) {
             if (mGame != null)
-                mGame.loadGame(getWindow().getContext(), filename);
+                mGame.loadGame(slot);
         } else {
             WarningDialogUtil warningDialog = new WarningDialogUtil();
             warningDialog.noSavedGameWarning();
@@ -374,17 +592,17 @@ public class SolitaireActivity extends FragmentActivity implements OnClickListen
     }
 
     @Override
-    public void saveGame(String filename, boolean exist, int slotNumber) {
+    public void saveGame(int slot, boolean exist) {
 
-        mFilename = filename;
+        mSaveSlot = slot;
 
         if (exist) {
             WarningDialogUtil warningDialog = new WarningDialogUtil();
-            warningDialog.overWriteWarning(slotNumber);
+            warningDialog.overWriteWarning(slot + 1);
             warningDialog.show(getSupportFragmentManager(), WarningDialog.TAG);
         } else {
             if (mGame != null)
-                mGame.saveGame(getWindow().getContext(), filename);
+                mGame.saveGame(slot);
         }
 
     }
@@ -30,7 +30,7 @@ import android.widget.ListView;
 import android.widget.TextView;
 
 import com.arp.solitaire.R;
-import com.arp.solitaire.io.SolitaireIO;
+import com.arp.solitaire.io.GameStore;
 
 import java.util.Locale;
 
@@ -53,14 +53,10 @@ public class SaveLoadDialog  extends DialogFragment implements OnClickListener {
 	// If true display saving dialog, false display loading dialog.
 	private boolean savingOrLoading;
 	
-	// List filename to save game to.
-	private static final String gameFilename[] = {"game01.sol", "game02.sol", "game03.sol", "game04.sol", 
-			"game05.sol", "game06.sol", "game07.sol", "game08.sol", "game09.sol", "game10.sol" };
-
-	// A List of whether file exists or not true = exists.
-	private Boolean[] fileExistList = new Boolean[gameFilename.length];
+	// A List of whether each slot holds a game or not true = exists.
+	private boolean[] fileExistList;
 	
-	private String[] menuItems = new String[gameFilename.length];
+	private String[] menuItems;
 	
 	LoadSaveListener mListener;
 
@@ -69,8 +65,9 @@ public class SaveLoadDialog  extends DialogFragment implements OnClickListener {
 	 * progress and results back to the Activity.
 	 */
 	public interface LoadSaveListener {
-		void loadGame(String filename, boolean exist);
-		void saveGame(String filename, boolean exist, int slotNumber);
+		GameStore getGameStore();
+		void loadGame(int slot, boolean exist);
+		void saveGame(int slot, boolean exist);
 	}
 
 	/**
@@ -124,16 +121,18 @@ public class SaveLoadDialog  extends DialogFragment implements OnClickListener {
 		else 
 			titleTextView.setText(LOAD_TITLE);
 		
-		// Check whether files exists.
-		for (int n = 0; n < gameFilename.length; n++) {
+		// Check whether each slot holds a game, all in one read.
+		GameStore gameStore = mListener.getGameStore();
+		
+		fileExistList = gameStore.getUsedSlots();
+		menuItems = new String[fileExistList.length];
+		
+		for (int n = 0; n < menuItems.length; n++) {
 			String slotNumber = String.format(Locale.UK, "Slot %02d ", n + 1);
-			if (SolitaireIO.fileExist(gameFilename[n], getContext())) {
+			if (fileExistList[n])
 				menuItems[n] = slotNumber + "- Used ";
-				fileExistList[n] = true;
-			} else {
+			else
 				menuItems[n] = slotNumber + "- Empty";
-				fileExistList[n] = false;
-			}
 		}
 		
 		// Setup list view.
@@ -154,12 +153,12 @@ public class SaveLoadDialog  extends DialogFragment implements OnClickListener {
 
 				if (savingOrLoading) {
 					// Saving game.
-					if (mListener != null) mListener.saveGame(gameFilename[position],
-						fileExistList[position], position + 1);
+					if (mListener != null) mListener.saveGame(position,
+						fileExistList[position]);
 					
 				} else {
 					// Loading game.
-					if (mListener != null) mListener.loadGame(gameFilename[position],
+					if (mListener != null) mListener.loadGame(position,
 							fileExistList[position]);
 				}
 				
@@ -0,0 +1,438 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+import com.arp.solitaire.Game.UndoMove;
+
+/**
+ * Routines used to control the movement and placement of balls
+ * of the game board.
+ * 
+ * The board is held as a single long with a bit set for each hole
+ * that contains a ball, see BoardGeometry for the jump masks used.
+ * Boards with more than 64 holes are held in a WideBoard instead.
+ * 
+ * @author Adrian Panton
+ */
+public class BallControl {
+
+	// How game has ended.
+	public static final int GAME_IN_PLAY = 0;
+	public static final int GAME_FAILED = 1;
+	public static final int GAME_WON = 2;
+	public static final int GAME_NEARLY = 3;
+	
+	public static final int NO_BALL_SELECTED = -1;
+	
+	// Layout of holes and jumps on the board.
+	private final BoardGeometry geometry;
+	
+	// Hole empty at the start and hole the last ball should finish in.
+	private int startHole;
+	private int finishHole;
+	
+	// Bit set for each hole that contains a ball.
+	private long board;
+	
+	// Position of a wide board or null if board fits in a long.
+	private final WideBoard wideBoard;
+
+	private int selectedBall; // Ball that been select by player.
+	private int ballCounter;  // Number balls left on board.
+	
+	// Jumps the selected ball can make for each direction or NO_JUMP.
+	private final int[] selectedJumps = new int[BoardGeometry.NUMBER_OF_DIRECTIONS];
+	
+	// Bit set for each jump that can be made on the board, kept up to
+	// date as balls are moved so the whole board is not rescanned.
+	private final long[] legalJumps;
+	private int legalJumpCount; // Number of jumps that can be made.
+
+	public BallControl() {
+		this(BoardGeometry.ENGLISH);
+	}
+	
+	public BallControl(BoardGeometry geometry) {
+
+		this.geometry = geometry;
+		
+		if (geometry.isWide())
+			wideBoard = new WideBoard(geometry);
+		else
+			wideBoard = null;
+		
+		legalJumps = new long[(geometry.getNumberOfJumps() + Long.SIZE - 1) / Long.SIZE];
+		
+		setProblem(geometry.getMiddleHole(), geometry.getMiddleHole());
+	}
+	
+	/**
+	 * Now set the puzzle to play and place the balls for its start.
+	 * 
+	 * @param startHole hole left empty at the start.
+	 * @param finishHole hole the last ball should finish in to win.
+	 */
+	public void setProblem(int startHole, int finishHole) {
+		
+		this.startHole = startHole;
+		this.finishHole = finishHole;
+		
+		resetBalls();
+	}
+	
+	/**
+	 * Now place balls into initial position on solitaire board.
+	 */
+	public void resetBalls() {
+	
+		ballCounter = geometry.getNumberOfHoles() - 1;
+		selectedBall = NO_BALL_SELECTED;
+		
+		// Every hole contains a ball except the start hole.
+		if (wideBoard != null)
+			wideBoard.setStartBoard(startHole);
+		else
+			board = geometry.getStartBoard(startHole);
+		
+		findLegalJumps();
+	}
+	
+	/**
+	 * Now check to see if ball selected can made a legal move.
+	 * 
+	 * @param holeNumber to check for a legal move.
+	 * 
+	 * @return true if a valid can be made.
+	 */
+	public boolean checkValidMove(int holeNumber) {
+	
+		boolean validMove = false;
+		
+		// Check each direction to see if ball can move that way.
+		for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++) {
+			int jump = geometry.getJump(holeNumber, direction);
+			
+			if (jump != BoardGeometry.NO_JUMP && isJumpLegal(jump)) {
+				selectedJumps[direction] = jump;
+				validMove = true;
+			} else {
+				selectedJumps[direction] = BoardGeometry.NO_JUMP;
+			}
+		}
+		
+		if (validMove)
+			selectedBall = holeNumber;
+		else
+			selectedBall = NO_BALL_SELECTED;
+		
+		return validMove;
+
+	}
+
+	/**
+	 * Move ball to new position on board.
+	 * 
+	 * @param oldPosition of ball to move.
+	 * @param jumped the ball being jumped.
+	 * @param newPosition new position of ball.
+	 */
+	public void moveBall(int oldPosition, int jumped, int newPosition) {
+		
+		ballCounter--; // Decrease number of balls on board.
+		selectedBall = NO_BALL_SELECTED;
+
+		setBall(oldPosition, false);
+		setBall(jumped, false);
+		setBall(newPosition, true);
+		
+		updateLegalJumps(oldPosition);
+		updateLegalJumps(jumped);
+		updateLegalJumps(newPosition);
+	}
+	
+	/** Set selected ball.*/
+	public void setSelectedBall(int selectedBall) {
+		this.selectedBall = selectedBall;
+	}
+
+	/**
+	 * Get the jump the selected ball can make in a direction.
+	 * 
+	 * @param direction of jump.
+	 * 
+	 * @return jump number or NO_JUMP if no ball selected or move not valid.
+	 */
+	public int getValidJump(int direction) {
+		
+		if (selectedBall == NO_BALL_SELECTED)
+			return BoardGeometry.NO_JUMP;
+		
+		return selectedJumps[direction];
+	}
+	
+	/**
+	 * Find the jump the selected ball can make to reach a hole.
+	 * 
+	 * @param newPosition hole to move selected ball to.
+	 * 
+	 * @return jump number or NO_JUMP if hole can not be reached.
+	 */
+	public int findValidJump(int newPosition) {
+		
+		for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++) {
+			int jump = getValidJump(direction);
+			
+			if (jump != BoardGeometry.NO_JUMP && geometry.getTo(jump) == newPosition)
+				return jump;
+		}
+		
+		return BoardGeometry.NO_JUMP;
+	}
+	
+	/**
+	 * Check whether a hole contains a ball.
+	 * 
+	 * @param holeNumber to check.
+	 * 
+	 * @return true if ball is present.
+	 */
+	public boolean isBallPresent(int holeNumber) {
+		
+		if (wideBoard != null)
+			return wideBoard.isBallPresent(holeNumber);
+		
+		return (board & BoardGeometry.holeBit(holeNumber)) != 0;
+	}
+	
+	/**
+	 * Now add or remove a ball.
+	 * 
+	 * @param holeNumber to change.
+	 * @param present true to place a ball, false to remove it.
+	 */
+	private void setBall(int holeNumber, boolean present) {
+		
+		if (wideBoard != null)
+			wideBoard.setBall(holeNumber, present);
+		else if (present)
+			board |= BoardGeometry.holeBit(holeNumber);
+		else
+			board &= ~BoardGeometry.holeBit(holeNumber);
+	}
+	
+	/** Check whether a jump can be made on the board as it is now. */
+	private boolean canJump(int jump) {
+		
+		if (wideBoard != null)
+			return wideBoard.isLegal(jump);
+		
+		return geometry.isLegal(board, jump);
+	}
+
+    /**
+	 * Get a list of ball graphics.
+	 * 
+	 * @return list of ball graphics to display.
+	 */
+	public int[] getBallGraphicList() {
+		
+		if (wideBoard != null)
+			return wideBoard.getBallGraphicList();
+		
+		return BallGraphic.toGraphicList(board, geometry.getNumberOfHoles());
+	}
+	
+	/**
+	 * Now fill a list of ball graphics, used when redrawing so no new
+	 * list is created.
+	 * 
+	 * @param balls list with an entry for each hole.
+	 */
+	public void getBallGraphicList(int[] balls) {
+		
+		if (wideBoard != null)
+			wideBoard.getBallGraphicList(balls);
+		else
+			BallGraphic.toGraphicList(board, balls);
+	}
+	
+	/**
+	 * Now undo a move on the board.
+	 * 
+	 * @param move undoMove data need to undo the move. 
+	 */
+	public void undoMove(UndoMove move ) {
+		
+		setBall(move.getNewPosition(), false);
+		setBall(move.getJumped(), true);
+		setBall(move.getOldPosition(), true);
+		
+		updateLegalJumps(move.getNewPosition());
+		updateLegalJumps(move.getJumped());
+		updateLegalJumps(move.getOldPosition());
+		
+		ballCounter ++;
+		selectedBall = NO_BALL_SELECTED;
+	}
+	
+	/**
+	 * Now find every jump that can be made on the board.
+	 */
+	private void findLegalJumps() {
+		
+		for (int n = 0; n < legalJumps.length; n++)
+			legalJumps[n] = 0;
+		
+		legalJumpCount = 0;
+		
+		for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+			if (canJump(jump)) {
+				legalJumps[jump >>> 6] |= 1L << jump;
+				legalJumpCount++;
+			}
+		}
+	}
+	
+	/**
+	 * Now recheck only the jumps that use a hole after the hole has
+	 * gained or lost a ball.
+	 * 
+	 * @param holeNumber that has changed.
+	 */
+	private void updateLegalJumps(int holeNumber) {
+		
+		for (int jump : geometry.getJumpsUsingHole(holeNumber)) {
+			long bit = 1L << jump;
+			boolean wasLegal = (legalJumps[jump >>> 6] & bit) != 0;
+			
+			if (canJump(jump)) {
+				if (!wasLegal) {
+					legalJumps[jump >>> 6] |= bit;
+					legalJumpCount++;
+				}
+			} else if (wasLegal) {
+				legalJumps[jump >>> 6] &= ~bit;
+				legalJumpCount--;
+			}
+		}
+	}
+	
+	/**
+	 * Check to see if game has ended by checking whether any moves
+	 * still can be made.
+	 * 
+	 * @return how game has ended or not ended 
+	 */
+	public int checkForGameEnd() {
+	
+		// Now check to see if only one ball remains then game has ended.
+		if (ballCounter == 1) {
+			
+			// Check to see if ball is in the finish hole.
+			if (isBallPresent(finishHole))
+				return GAME_WON;
+			else
+				return GAME_NEARLY;
+		}
+		
+		// Now check for any valid jumps on the board.
+		if (hasLegalMove())
+			return GAME_IN_PLAY;
+		
+		return GAME_FAILED; // Default failed.
+	}
+	
+	/** Check whether any ball on the board can make a move. */
+	public boolean hasLegalMove() {
+		return legalJumpCount != 0;
+	}
+	
+	/** Get number of jumps that can be made on the board. */
+	public int getLegalJumpCount() {
+		return legalJumpCount;
+	}
+	
+	/**
+	 * Check whether a jump can be made on the board.
+	 * 
+	 * @param jump number of jump.
+	 * 
+	 * @return true if jump can be made.
+	 */
+	public boolean isJumpLegal(int jump) {
+		return (legalJumps[jump >>> 6] & (1L << jump)) != 0;
+	}
+	
+	/** Get board layout. */
+	public BoardGeometry getGeometry() {
+		return geometry;
+	}
+	
+	/** Get bits for holes that contain a ball, boards that are not wide only. */
+	public long getBoard() {
+		return board;
+	}
+	
+	/** Get position of a wide board or null if board fits in a long. */
+	public WideBoard getWideBoard() {
+		return wideBoard;
+	}
+	
+	/** Get hole empty at the start. */
+	public int getStartHole() {
+		return startHole;
+	}
+	
+	/** Get hole the last ball should finish in. */
+	public int getFinishHole() {
+		return finishHole;
+	}
+	
+	/** Get position at the start, boards that are not wide only. */
+	public long getStartBoard() {
+		return geometry.getStartBoard(startHole);
+	}
+	
+	/** Get ball selected. */
+	public int getSelectedBall() {
+		return selectedBall;
+	}
+	
+	/** Get number of balls left on board. */
+	public int getBallCounter() {
+		return ballCounter;
+	}
+
+	/**
+	 * Now restored balls on grid after load game.
+	 * 
+	 * @param ballGraphicList list of ball graphics to display.
+	 * @param ballCount number of balls left.
+	 */
+	public void restoreGame(int[] ballGraphicList, int ballCount) {
+	
+		if (wideBoard != null)
+			wideBoard.setBallGraphicList(ballGraphicList);
+		else
+			board = BallGraphic.toBoard(ballGraphicList);
+	
+		selectedBall = NO_BALL_SELECTED;
+		ballCounter = ballCount;
+		
+		findLegalJumps();
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+/**
+ * The graphics that can be shown in each hole, a list of these with
+ * one for each hole is how a position is passed to the board view and
+ * stored in saved games.
+ *
+ * @author Adrian Panton
+ */
+public class BallGraphic {
+
+	public static final int NO_BALL = 0;
+	public static final int BALL = 1;
+	public static final int BALL_UP = 2;
+	public static final int BALL_RIGHT = 3;
+	public static final int BALL_DOWN = 4;
+	public static final int BALL_LEFT = 5;
+	public static final int BALL_PICKED = 6;
+	public static final int BALL_UP_LOSING = 7;
+	public static final int BALL_RIGHT_LOSING = 8;
+	public static final int BALL_DOWN_LOSING = 9;
+	public static final int BALL_LEFT_LOSING = 10;
+
+	// Number of different graphics, each is less than this.
+	public static final int NUMBER_OF_GRAPHICS = 11;
+
+	private BallGraphic() {
+	}
+
+	/**
+	 * Now get the position shown by a list of ball graphics, every
+	 * graphic other than NO_BALL is a ball.
+	 *
+	 * @param ballGraphicList graphic for each hole.
+	 *
+	 * @return position with a bit set for each ball.
+	 */
+	public static long toBoard(int[] ballGraphicList) {
+
+		long board = 0;
+
+		for (int n = 0; n < ballGraphicList.length; n++) {
+			if (ballGraphicList[n] != NO_BALL)
+				board |= BoardGeometry.holeBit(n);
+		}
+
+		return board;
+	}
+
+	/**
+	 * Now get a list of ball graphics showing a position.
+	 *
+	 * @param board position with a bit set for each ball.
+	 * @param numberOfHoles number of holes on board.
+	 *
+	 * @return BALL or NO_BALL for each hole.
+	 */
+	public static int[] toGraphicList(long board, int numberOfHoles) {
+
+		int balls[] = new int[numberOfHoles];
+		toGraphicList(board, balls);
+
+		return balls;
+	}
+
+	/**
+	 * Now fill a list of ball graphics showing a position, so a list can
+	 * be reused rather than created for every redraw.
+	 *
+	 * @param board position with a bit set for each ball.
+	 * @param balls set to BALL or NO_BALL for each hole.
+	 */
+	public static void toGraphicList(long board, int[] balls) {
+
+		for (int n = 0; n < balls.length; n++)
+			if ((board & BoardGeometry.holeBit(n)) != 0)
+				balls[n] = BALL;
+			else
+				balls[n] = NO_BALL;
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Passes the graphic of every hole from the game to a render thread
+ * without either waiting on a lock. There are three lists: the writer
+ * fills one, the reader draws from another and the third holds the
+ * newest list published. Publishing and taking the newest list each
+ * swap with the third in a single atomic step, so the reader always
+ * gets a whole position and the writer never waits for a frame.
+ *
+ * Only one thread may write and one thread read.
+ *
+ * @author Adrian Panton
+ */
+public class BoardBuffer {
+
+	// Set in the shared state when the middle list has not been read.
+	private static final int FRESH = 4;
+	private static final int INDEX_MASK = 3;
+
+	private final int[][] lists = new int[3][];
+
+	// Index of the middle list, with FRESH if it is newer than the reader's.
+	private final AtomicInteger middle = new AtomicInteger(1);
+
+	private int writeIndex = 0; // Only used by the writer.
+	private int readIndex = 2;  // Only used by the reader.
+
+	/**
+	 * Create a buffer with every hole empty.
+	 *
+	 * @param numberOfHoles number of holes on board.
+	 */
+	public BoardBuffer(int numberOfHoles) {
+
+		for (int n = 0; n < lists.length; n++)
+			lists[n] = new int[numberOfHoles];
+	}
+
+	/**
+	 * Get the list for the writer to fill, every hole must be set as it
+	 * may hold an older position.
+	 *
+	 * @return graphic for each hole.
+	 */
+	public int[] getWriteList() {
+		return lists[writeIndex];
+	}
+
+	/** Now make the list written the newest, ready for the reader. */
+	public void publish() {
+		writeIndex = middle.getAndSet(writeIndex | FRESH) & INDEX_MASK;
+	}
+
+	/**
+	 * Now take the newest list if one has been published since the last
+	 * call.
+	 *
+	 * @return true if the read list has changed.
+	 */
+	public boolean update() {
+
+		if ((middle.get() & FRESH) == 0)
+			return false;
+
+		readIndex = middle.getAndSet(readIndex) & INDEX_MASK;
+
+		return true;
+	}
+
+	/**
+	 * Get the list for the reader to draw from.
+	 *
+	 * @return graphic for each hole.
+	 */
+	public int[] getReadList() {
+		return lists[readIndex];
+	}
+
+	public int getNumberOfHoles() {
+		return lists[0].length;
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+/**
+ * The graphic shown in each hole together with a list of the holes
+ * whose graphic has changed since the board was last drawn. The game
+ * updates it on every redraw and the view only redraws the holes
+ * listed, so a flashing ball redraws one hole rather than the board.
+ *
+ * Everything is sized once for the board, nothing is created when
+ * graphics are updated or changes read.
+ *
+ * @author Adrian Panton
+ */
+public class BoardChanges {
+
+	// Graphic shown in each hole.
+	private final int[] graphics;
+
+	// Holes changed since last cleared, in the order they changed.
+	private final int[] changedHoles;
+	private int changedCount;
+
+	// True for each hole in the changed list.
+	private final boolean[] changed;
+
+	/**
+	 * Create changes for a board, every hole starts empty and changed.
+	 *
+	 * @param numberOfHoles number of holes on board.
+	 */
+	public BoardChanges(int numberOfHoles) {
+
+		graphics = new int[numberOfHoles];
+		changedHoles = new int[numberOfHoles];
+		changed = new boolean[numberOfHoles];
+
+		markAllChanged();
+	}
+
+	/**
+	 * Now set the graphic of every hole, only holes whose graphic is
+	 * different are marked as changed.
+	 *
+	 * @param ballList graphic for each hole.
+	 */
+	public void update(int[] ballList) {
+
+		for (int n = 0; n < graphics.length; n++)
+			setGraphic(n, ballList[n]);
+	}
+
+	/**
+	 * Now set the graphic of a hole.
+	 *
+	 * @param hole number of hole.
+	 * @param graphic one of the BallGraphic values.
+	 */
+	public void setGraphic(int hole, int graphic) {
+
+		if (graphics[hole] != graphic) {
+			graphics[hole] = graphic;
+			markChanged(hole);
+		}
+	}
+
+	/** Now mark every hole as changed, so the whole board is redrawn. */
+	public void markAllChanged() {
+
+		for (int n = 0; n < graphics.length; n++)
+			markChanged(n);
+	}
+
+	private void markChanged(int hole) {
+
+		if (!changed[hole]) {
+			changed[hole] = true;
+			changedHoles[changedCount++] = hole;
+		}
+	}
+
+	/** Now empty the list of changed holes once they have been drawn. */
+	public void clearChanges() {
+
+		for (int n = 0; n < changedCount; n++)
+			changed[changedHoles[n]] = false;
+
+		changedCount = 0;
+	}
+
+	/** Get number of holes changed since last cleared. */
+	public int getChangedCount() {
+		return changedCount;
+	}
+
+	/**
+	 * Get a changed hole.
+	 *
+	 * @param index from 0 to getChangedCount() - 1.
+	 *
+	 * @return number of hole.
+	 */
+	public int getChangedHole(int index) {
+		return changedHoles[index];
+	}
+
+	/** Get graphic shown in a hole. */
+	public int getGraphic(int hole) {
+		return graphics[hole];
+	}
+
+	public int getNumberOfHoles() {
+		return graphics.length;
+	}
+}
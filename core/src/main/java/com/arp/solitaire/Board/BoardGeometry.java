@@ -0,0 +1,623 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+import java.util.Arrays;
+
+/**
+ * Describes the holes of a game board and every jump that can be
+ * made on it. A board position is held as a long with one bit set
+ * for each hole that contains a ball, and each jump is stored as
+ * bit masks so it can be checked and made with a few bit operations.
+ *
+ * The holes are read from a text layout of the board, one line for
+ * each row, with every table worked out once when the board is made.
+ *
+ * Boards with more than 64 holes are wide, their positions are held in
+ * an array of longs with hole n at bit n % 64 of word n / 64, see
+ * WideBoard. Each jump then has a mask for every word it uses, so a
+ * jump across a word boundary is still checked and made without
+ * looping over holes. The single long methods and masks are only used
+ * for boards which are not wide.
+ *
+ * @author Adrian Panton
+ */
+public class BoardGeometry {
+
+	// Directions a ball can jump in.
+	public static final int UP = 0;
+	public static final int RIGHT = 1;
+	public static final int DOWN = 2;
+	public static final int LEFT = 3;
+	public static final int NUMBER_OF_DIRECTIONS = 4;
+
+	public static final int NO_JUMP = -1;
+	private static final int NO_HOLE = -1;
+
+	// Most holes a position held in a long can have.
+	public static final int MAX_HOLES = Long.SIZE;
+
+	// Most holes a wide board held in an array of longs can have.
+	public static final int MAX_WIDE_HOLES = 4096;
+
+	// Characters used in a layout, any other character is not a hole.
+	public static final char HOLE = 'o';
+	public static final char MIDDLE_HOLE = '*'; // Hole empty at the start.
+
+	// Word masks kept for each jump, one for each hole it uses.
+	private static final int WORD_MASKS = 3;
+
+	// Column and row moved for each direction.
+	private static final int[] columnStep = { 0, 1, 0, -1 };
+	private static final int[] rowStep = { -1, 0, 1, 0 };
+
+	//********* The number ordering of ball placement on board. *********/
+	// Holes are numbered along each row from the top, for the English
+	// board this gives:
+	//       00 01 02
+	//       03 04 05
+	// 06 07 08 09 10 11 12
+	// 13 14 15 16 17 18 19
+	// 20 21 22 23 24 25 26
+	//       27 28 29
+	//       30 31 32
+	/********************************************************************/
+	public static final String ENGLISH_LAYOUT =
+			"  ooo  \n" +
+			"  ooo  \n" +
+			"ooooooo\n" +
+			"ooo*ooo\n" +
+			"ooooooo\n" +
+			"  ooo  \n" +
+			"  ooo  ";
+
+	public static final String EUROPEAN_LAYOUT =
+			"  ooo  \n" +
+			" ooooo \n" +
+			"ooooooo\n" +
+			"ooo*ooo\n" +
+			"ooooooo\n" +
+			" ooooo \n" +
+			"  ooo  ";
+
+	public static final String WIEGLEB_LAYOUT =
+			"   ooo   \n" +
+			"   ooo   \n" +
+			"   ooo   \n" +
+			"ooooooooo\n" +
+			"oooo*oooo\n" +
+			"ooooooooo\n" +
+			"   ooo   \n" +
+			"   ooo   \n" +
+			"   ooo   ";
+
+	public static final String DIAMOND_LAYOUT =
+			"    o    \n" +
+			"   ooo   \n" +
+			"  ooooo  \n" +
+			" ooooooo \n" +
+			"oooo*oooo\n" +
+			" ooooooo \n" +
+			"  ooooo  \n" +
+			"   ooo   \n" +
+			"    o    ";
+
+	public static final BoardGeometry ENGLISH = fromLayout(ENGLISH_LAYOUT);
+	public static final BoardGeometry EUROPEAN = fromLayout(EUROPEAN_LAYOUT);
+	public static final BoardGeometry WIEGLEB = fromLayout(WIEGLEB_LAYOUT);
+	public static final BoardGeometry DIAMOND = fromLayout(DIAMOND_LAYOUT);
+
+	private final int numberOfHoles;
+	private final int middleHole;   // Hole left empty at start and where the last ball should finish.
+	private final long fullBoard;   // Position with a ball in every hole.
+	private final int numberOfJumps; // Number of jumps possible on board.
+	private final int numberOfWords; // Longs needed to hold a position.
+
+	// Size of grid holding the holes.
+	private final int columns;
+	private final int rows;
+
+	// Position of each hole on the board grid.
+	private final int[] column;
+	private final int[] row;
+
+	// The holes used by each jump.
+	private final int[] jumpFrom;
+	private final int[] jumpOver;
+	private final int[] jumpTo;
+	private final int[] jumpDirection;
+
+	// Bits for the ball making the jump and the ball being jumped.
+	private final long[] pegMask;
+
+	// Bits for all three holes used by a jump.
+	private final long[] moveMask;
+
+	// Masks for each word used by a jump, the masks for jump n are at
+	// 3n to 3n + 2. Jumps using fewer than three words have spare masks
+	// of zero on word 0 which always pass and change nothing.
+	private final int[] maskWord;    // Index of word in position.
+	private final long[] wordPegMask;
+	private final long[] wordMoveMask;
+
+	// Jump number for each hole and direction or NO_JUMP.
+	private final int[] holeJumps;
+
+	// List of jumps which use a hole as the from, over or to hole.
+	private final int[][] jumpsUsingHole;
+
+	/**
+	 * Now build a board from a text layout. Each line is a row of the
+	 * board with HOLE for a hole and MIDDLE_HOLE for the hole left
+	 * empty at the start, any other character such as a space is not
+	 * part of the board. If no middle hole is marked the hole nearest
+	 * the centre of the grid is used.
+	 *
+	 * @param layout rows of the board separated by new lines.
+	 *
+	 * @return board geometry.
+	 *
+	 * @throws IllegalArgumentException if layout has no holes or too many.
+	 */
+	public static BoardGeometry fromLayout(String layout) {
+
+		String[] lines = layout.split("\n");
+
+		int rows = lines.length;
+		int columns = 0;
+		for (String line : lines)
+			columns = Math.max(columns, line.length());
+
+		// Number the holes along each row from the top.
+		int[] gridHoles = new int[columns * rows];
+		int[] column = new int[columns * rows];
+		int[] row = new int[columns * rows];
+		int holes = 0;
+		int middleHole = NO_HOLE;
+
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < columns; x++) {
+				char c = x < lines[y].length() ? lines[y].charAt(x) : ' ';
+
+				if (c != HOLE && c != MIDDLE_HOLE) {
+					gridHoles[y * columns + x] = NO_HOLE;
+					continue;
+				}
+
+				if (c == MIDDLE_HOLE)
+					middleHole = holes;
+
+				gridHoles[y * columns + x] = holes;
+				column[holes] = x;
+				row[holes] = y;
+				holes++;
+			}
+		}
+
+		if (holes == 0)
+			throw new IllegalArgumentException("Board layout has no holes");
+
+		if (holes > MAX_WIDE_HOLES)
+			throw new IllegalArgumentException("Board layout has " + holes
+					+ " holes, no more than " + MAX_WIDE_HOLES + " allowed");
+
+		if (middleHole == NO_HOLE)
+			middleHole = findCentreHole(column, row, holes, columns, rows);
+
+		return new BoardGeometry(holes, middleHole, columns, rows,
+				Arrays.copyOf(column, holes), Arrays.copyOf(row, holes), gridHoles);
+	}
+
+	/**
+	 * Now work out every jump on the board from the grid of holes.
+	 *
+	 * @param numberOfHoles on the board, no more than MAX_WIDE_HOLES.
+	 * @param middleHole hole which is empty at the start of a game.
+	 * @param columns width of grid.
+	 * @param rows height of grid.
+	 * @param column grid column of each hole.
+	 * @param row grid row of each hole.
+	 * @param gridHoles hole at each grid position or NO_HOLE.
+	 */
+	private BoardGeometry(int numberOfHoles, int middleHole, int columns, int rows,
+			int[] column, int[] row, int[] gridHoles) {
+
+		this.numberOfHoles = numberOfHoles;
+		this.middleHole = middleHole;
+		this.columns = columns;
+		this.rows = rows;
+		this.column = column;
+		this.row = row;
+
+		numberOfWords = (numberOfHoles + Long.SIZE - 1) / Long.SIZE;
+
+		if (numberOfHoles > MAX_HOLES)
+			fullBoard = 0; // Not held in a long.
+		else if (numberOfHoles == Long.SIZE)
+			fullBoard = -1L;
+		else
+			fullBoard = (1L << numberOfHoles) - 1;
+
+		// Find the hole jumped and moved to for each hole and direction.
+		int[] over = new int[numberOfHoles * NUMBER_OF_DIRECTIONS];
+		int[] to = new int[numberOfHoles * NUMBER_OF_DIRECTIONS];
+		int jumps = 0;
+
+		for (int n = 0; n < numberOfHoles; n++) {
+			for (int direction = 0; direction < NUMBER_OF_DIRECTIONS; direction++) {
+				int index = n * NUMBER_OF_DIRECTIONS + direction;
+
+				over[index] = gridHole(gridHoles, column[n] + columnStep[direction],
+						row[n] + rowStep[direction]);
+				to[index] = gridHole(gridHoles, column[n] + 2 * columnStep[direction],
+						row[n] + 2 * rowStep[direction]);
+
+				if (over[index] != NO_HOLE && to[index] != NO_HOLE)
+					jumps++;
+			}
+		}
+
+		numberOfJumps = jumps;
+		jumpFrom = new int[jumps];
+		jumpOver = new int[jumps];
+		jumpTo = new int[jumps];
+		jumpDirection = new int[jumps];
+		pegMask = new long[jumps];
+		moveMask = new long[jumps];
+		maskWord = new int[jumps * WORD_MASKS];
+		wordPegMask = new long[jumps * WORD_MASKS];
+		wordMoveMask = new long[jumps * WORD_MASKS];
+		holeJumps = new int[numberOfHoles * NUMBER_OF_DIRECTIONS];
+
+		// Now store jumps in hole order so jumps from a hole are together.
+		int jump = 0;
+		for (int n = 0; n < numberOfHoles; n++) {
+			for (int direction = 0; direction < NUMBER_OF_DIRECTIONS; direction++) {
+				int index = n * NUMBER_OF_DIRECTIONS + direction;
+
+				if (over[index] == NO_HOLE || to[index] == NO_HOLE) {
+					holeJumps[index] = NO_JUMP;
+					continue;
+				}
+
+				jumpFrom[jump] = n;
+				jumpOver[jump] = over[index];
+				jumpTo[jump] = to[index];
+				jumpDirection[jump] = direction;
+				holeJumps[index] = jump;
+
+				if (!isWide()) {
+					pegMask[jump] = holeBit(n) | holeBit(over[index]);
+					moveMask[jump] = pegMask[jump] | holeBit(to[index]);
+				}
+
+				jump++;
+			}
+		}
+
+		// Now split each jump into masks for the words it uses.
+		for (jump = 0; jump < numberOfJumps; jump++) {
+			int first = jump * WORD_MASKS;
+
+			int masks = addWordMask(first, first, jumpFrom[jump], true);
+			masks = addWordMask(first, masks, jumpOver[jump], true);
+			addWordMask(first, masks, jumpTo[jump], false);
+		}
+
+		// Now list jumps that are affected when a hole changes.
+		jumpsUsingHole = new int[numberOfHoles][];
+		for (int n = 0; n < numberOfHoles; n++) {
+			int count = 0;
+			for (jump = 0; jump < numberOfJumps; jump++)
+				if (usesHole(jump, n))
+					count++;
+
+			jumpsUsingHole[n] = new int[count];
+
+			count = 0;
+			for (jump = 0; jump < numberOfJumps; jump++)
+				if (usesHole(jump, n))
+					jumpsUsingHole[n][count++] = jump;
+		}
+	}
+
+	/**
+	 * Now add a hole of a jump to the jump's word masks, sharing the
+	 * mask of an earlier hole in the same word.
+	 *
+	 * @param first first mask of the jump.
+	 * @param masks index after the last mask of the jump so far.
+	 * @param hole number of hole.
+	 * @param peg true if hole needs a ball for the jump, false if it must be empty.
+	 *
+	 * @return index after the last mask of the jump.
+	 */
+	private int addWordMask(int first, int masks, int hole, boolean peg) {
+
+		int word = hole / Long.SIZE;
+		int mask = masks;
+
+		// Look for a mask of this jump already using the word.
+		for (int n = first; n < masks; n++)
+			if (maskWord[n] == word)
+				mask = n;
+
+		if (mask == masks) {
+			maskWord[mask] = word;
+			masks++;
+		}
+
+		if (peg)
+			wordPegMask[mask] |= holeBit(hole);
+		wordMoveMask[mask] |= holeBit(hole);
+
+		return masks;
+	}
+
+	/** Check whether a jump uses a hole as the from, over or to hole. */
+	private boolean usesHole(int jump, int hole) {
+		return jumpFrom[jump] == hole || jumpOver[jump] == hole || jumpTo[jump] == hole;
+	}
+
+	/** Get hole at a grid position or NO_HOLE if off the board. */
+	private int gridHole(int[] gridHoles, int x, int y) {
+
+		if (x < 0 || x >= columns || y < 0 || y >= rows)
+			return NO_HOLE;
+
+		return gridHoles[y * columns + x];
+	}
+
+	/**
+	 * Find the hole nearest the centre of the grid, the first in hole
+	 * order if several are as near.
+	 */
+	private static int findCentreHole(int[] column, int[] row, int holes, int columns, int rows) {
+
+		int centre = 0;
+		int nearest = Integer.MAX_VALUE;
+
+		for (int n = 0; n < holes; n++) {
+			// Distances are doubled to keep them whole.
+			int dx = 2 * column[n] - (columns - 1);
+			int dy = 2 * row[n] - (rows - 1);
+			int distance = dx * dx + dy * dy;
+
+			if (distance < nearest) {
+				nearest = distance;
+				centre = n;
+			}
+		}
+
+		return centre;
+	}
+
+	/**
+	 * Get the bit used for a hole within a board position, or within
+	 * its word of a wide board.
+	 *
+	 * @param hole number of hole.
+	 *
+	 * @return bit set for hole.
+	 */
+	public static long holeBit(int hole) {
+		return 1L << hole;
+	}
+
+	/**
+	 * Check whether a jump can be made, the ball making the jump and the
+	 * ball being jumped must be present and the hole moved to empty.
+	 *
+	 * @param board position to check.
+	 * @param jump number of jump.
+	 *
+	 * @return true if jump can be made.
+	 */
+	public boolean isLegal(long board, int jump) {
+		return (board & moveMask[jump]) == pegMask[jump];
+	}
+
+	/**
+	 * Now make a jump. Making the same jump again on the new position
+	 * will undo the jump.
+	 *
+	 * @param board position before jump.
+	 * @param jump number of legal jump.
+	 *
+	 * @return position after jump.
+	 */
+	public long makeJump(long board, int jump) {
+		return board ^ moveMask[jump];
+	}
+
+	/**
+	 * Check whether a jump can be made on a wide board.
+	 *
+	 * @param words position to check.
+	 * @param jump number of jump.
+	 *
+	 * @return true if jump can be made.
+	 */
+	public boolean isLegal(long[] words, int jump) {
+
+		int n = jump * WORD_MASKS;
+
+		return (words[maskWord[n]] & wordMoveMask[n]) == wordPegMask[n]
+				&& (words[maskWord[n + 1]] & wordMoveMask[n + 1]) == wordPegMask[n + 1]
+				&& (words[maskWord[n + 2]] & wordMoveMask[n + 2]) == wordPegMask[n + 2];
+	}
+
+	/**
+	 * Now make a jump on a wide board in place. Making the same jump
+	 * again will undo the jump.
+	 *
+	 * @param words position to change.
+	 * @param jump number of legal jump.
+	 */
+	public void makeJump(long[] words, int jump) {
+
+		int n = jump * WORD_MASKS;
+
+		words[maskWord[n]] ^= wordMoveMask[n];
+		words[maskWord[n + 1]] ^= wordMoveMask[n + 1];
+		words[maskWord[n + 2]] ^= wordMoveMask[n + 2];
+	}
+
+	/**
+	 * Get the position at the start of a game with every hole
+	 * filled except the middle hole.
+	 *
+	 * @return start position.
+	 */
+	public long getStartBoard() {
+		return getStartBoard(middleHole);
+	}
+
+	/**
+	 * Get the position at the start of a game with every hole
+	 * filled except one.
+	 *
+	 * @param emptyHole hole left empty.
+	 *
+	 * @return start position.
+	 */
+	public long getStartBoard(int emptyHole) {
+		return fullBoard & ~holeBit(emptyHole);
+	}
+
+	/**
+	 * Get jump that can made from a hole in a direction.
+	 *
+	 * @param hole number of hole the ball jumps from.
+	 * @param direction of jump.
+	 *
+	 * @return jump number or NO_JUMP if jump goes off board.
+	 */
+	public int getJump(int hole, int direction) {
+		return holeJumps[hole * NUMBER_OF_DIRECTIONS + direction];
+	}
+
+	/**
+	 * Get the jumps whose legality can change when a hole gains or
+	 * loses a ball.
+	 *
+	 * @param hole number of hole.
+	 *
+	 * @return list of jumps using hole, must not be changed.
+	 */
+	public int[] getJumpsUsingHole(int hole) {
+		return jumpsUsingHole[hole];
+	}
+
+	/** Check whether positions need more than one long. */
+	public boolean isWide() {
+		return numberOfHoles > MAX_HOLES;
+	}
+
+	/* Getter routines. */
+
+	public int getNumberOfHoles() {
+		return numberOfHoles;
+	}
+
+	public int getMiddleHole() {
+		return middleHole;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public long getFullBoard() {
+		return fullBoard;
+	}
+
+	public int getNumberOfJumps() {
+		return numberOfJumps;
+	}
+
+	public int getNumberOfWords() {
+		return numberOfWords;
+	}
+
+	public int getColumn(int hole) {
+		return column[hole];
+	}
+
+	public int getRow(int hole) {
+		return row[hole];
+	}
+
+	public int getFrom(int jump) {
+		return jumpFrom[jump];
+	}
+
+	public int getOver(int jump) {
+		return jumpOver[jump];
+	}
+
+	public int getTo(int jump) {
+		return jumpTo[jump];
+	}
+
+	public int getDirection(int jump) {
+		return jumpDirection[jump];
+	}
+
+	public long getPegMask(int jump) {
+		return pegMask[jump];
+	}
+
+	public long getMoveMask(int jump) {
+		return moveMask[jump];
+	}
+
+	/**
+	 * Check whether another board has the same holes in the same
+	 * places and the same middle hole, so the jumps are the same too.
+	 * Boards built from the same layout are equal.
+	 */
+	@Override
+	public boolean equals(Object other) {
+
+		if (this == other)
+			return true;
+
+		if (!(other instanceof BoardGeometry))
+			return false;
+
+		BoardGeometry geometry = (BoardGeometry) other;
+
+		return columns == geometry.columns && rows == geometry.rows
+				&& middleHole == geometry.middleHole
+				&& Arrays.equals(column, geometry.column)
+				&& Arrays.equals(row, geometry.row);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = columns * 31 + rows;
+		hash = hash * 31 + middleHole;
+		hash = hash * 31 + Arrays.hashCode(column);
+
+		return hash * 31 + Arrays.hashCode(row);
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+/**
+ * A board position held in an array of longs, used for boards with
+ * more holes than fit in a single long. Hole n is bit n % 64 of word
+ * n / 64. The words are sized once for the board and jumps are made
+ * in place, so nothing is created while moving balls.
+ *
+ * @author Adrian Panton
+ */
+public class WideBoard {
+
+	// Layout of holes and jumps on the board.
+	private final BoardGeometry geometry;
+
+	// Bit set for each hole that contains a ball.
+	private final long[] words;
+
+	/**
+	 * Create an empty board.
+	 *
+	 * @param geometry layout of board.
+	 */
+	public WideBoard(BoardGeometry geometry) {
+
+		this.geometry = geometry;
+
+		words = new long[geometry.getNumberOfWords()];
+	}
+
+	/**
+	 * Now place balls into every hole except the middle hole.
+	 */
+	public void setStartBoard() {
+		setStartBoard(geometry.getMiddleHole());
+	}
+
+	/**
+	 * Now place balls into every hole except one.
+	 *
+	 * @param emptyHole hole left empty.
+	 */
+	public void setStartBoard(int emptyHole) {
+
+		int holes = geometry.getNumberOfHoles();
+
+		for (int n = 0; n < words.length; n++) {
+			int bits = Math.min(Long.SIZE, holes - n * Long.SIZE);
+			words[n] = bits == Long.SIZE ? -1L : (1L << bits) - 1;
+		}
+
+		setBall(emptyHole, false);
+	}
+
+	/** Now remove every ball. */
+	public void clear() {
+
+		for (int n = 0; n < words.length; n++)
+			words[n] = 0;
+	}
+
+	/**
+	 * Now copy another position on the same board.
+	 *
+	 * @param other position to copy.
+	 */
+	public void copyFrom(WideBoard other) {
+		System.arraycopy(other.words, 0, words, 0, words.length);
+	}
+
+	/**
+	 * Check whether a hole contains a ball.
+	 *
+	 * @param hole number of hole.
+	 *
+	 * @return true if ball is present.
+	 */
+	public boolean isBallPresent(int hole) {
+		return (words[hole / Long.SIZE] & BoardGeometry.holeBit(hole)) != 0;
+	}
+
+	/**
+	 * Now add or remove a ball.
+	 *
+	 * @param hole number of hole.
+	 * @param present true to place a ball, false to remove it.
+	 */
+	public void setBall(int hole, boolean present) {
+
+		if (present)
+			words[hole / Long.SIZE] |= BoardGeometry.holeBit(hole);
+		else
+			words[hole / Long.SIZE] &= ~BoardGeometry.holeBit(hole);
+	}
+
+	/**
+	 * Check whether a jump can be made.
+	 *
+	 * @param jump number of jump.
+	 *
+	 * @return true if jump can be made.
+	 */
+	public boolean isLegal(int jump) {
+		return geometry.isLegal(words, jump);
+	}
+
+	/**
+	 * Now make a jump, making the same jump again will undo it.
+	 *
+	 * @param jump number of legal jump.
+	 */
+	public void makeJump(int jump) {
+		geometry.makeJump(words, jump);
+	}
+
+	/** Get number of balls on board. */
+	public int getBallCount() {
+
+		int count = 0;
+
+		for (long word : words)
+			count += Long.bitCount(word);
+
+		return count;
+	}
+
+	/**
+	 * Now set the position shown by a list of ball graphics, every
+	 * graphic other than NO_BALL is a ball.
+	 *
+	 * @param ballGraphicList graphic for each hole.
+	 */
+	public void setBallGraphicList(int[] ballGraphicList) {
+
+		clear();
+
+		for (int n = 0; n < ballGraphicList.length; n++)
+			if (ballGraphicList[n] != BallGraphic.NO_BALL)
+				setBall(n, true);
+	}
+
+	/**
+	 * Get a list of ball graphics showing the position.
+	 *
+	 * @return BALL or NO_BALL for each hole.
+	 */
+	public int[] getBallGraphicList() {
+
+		int balls[] = new int[geometry.getNumberOfHoles()];
+		getBallGraphicList(balls);
+
+		return balls;
+	}
+
+	/**
+	 * Now fill a list of ball graphics showing the position.
+	 *
+	 * @param balls set to BALL or NO_BALL for each hole.
+	 */
+	public void getBallGraphicList(int[] balls) {
+
+		for (int n = 0; n < balls.length; n++)
+			balls[n] = isBallPresent(n) ? BallGraphic.BALL : BallGraphic.NO_BALL;
+	}
+
+	/** Get board layout. */
+	public BoardGeometry getGeometry() {
+		return geometry;
+	}
+}
@@ -0,0 +1,895 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Game;
+
+import com.arp.solitaire.Board.BallControl;
+import com.arp.solitaire.Board.BallGraphic;
+import com.arp.solitaire.Board.BoardChanges;
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Solution.SolutionControl;
+import com.arp.solitaire.Solution.SolutionMove;
+import com.arp.solitaire.Solution.SolvabilityDatabase;
+import com.arp.solitaire.Solution.Solver;
+import com.arp.solitaire.Solution.TranspositionTable;
+import com.arp.solitaire.io.AsyncGameStore;
+import com.arp.solitaire.io.GameSaveData;
+import com.arp.solitaire.io.GameStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Play a game of solitaire.
+ * 
+ * @author Adrian Panton
+ */
+public class Game {
+	
+	// Passed to updateGame() when the board is touched away from a hole.
+	public static final int BOARD_TOUCHED = -1;
+	
+	// ID at beginning of game save file.
+	private static final String FILE_ID = "SOL" ; 
+	
+	private static final boolean GAME_MODE = true;      // Set game mode.
+	private static final boolean SOLUTION_MODE = false; // Set solution mode.
+	
+	private static final boolean HELP_ON = true;   // Turn help on.
+	private static final boolean HELP_OFF = false; // Turn help off. 
+	
+	private static final boolean BALL_ON = true;
+	private static final boolean BALL_OFF = false;
+	
+	// Ball arrow graphics for each jump direction.
+	private static final int[] ARROWS = { BallGraphic.BALL_UP, BallGraphic.BALL_RIGHT,
+			BallGraphic.BALL_DOWN, BallGraphic.BALL_LEFT };
+	
+	// Ball arrow graphics for jumps that lose the game.
+	private static final int[] LOSING_ARROWS = { BallGraphic.BALL_UP_LOSING,
+			BallGraphic.BALL_RIGHT_LOSING, BallGraphic.BALL_DOWN_LOSING, BallGraphic.BALL_LEFT_LOSING };
+		
+	// Which true we are in game mode, false in solution mode.
+	private boolean mGameMode; 
+	
+	// True if solution was started from the players position, false
+	// if from the start of the game.
+	private boolean mSolutionFromGame;
+	
+	// When true help mode is o.
+	private boolean mHelpMode;
+	
+	// When true help arrows show whether each jump keeps the game winnable.
+	private boolean mShowWinningMoves;
+	
+	// If true selected ball display or false selected ball not shown.
+	private boolean mFlashOnOff;
+		
+	// Routines for ball movement in game mode.
+	private BallControl mBallControl;
+	
+	// Routines for undo game movements.
+	private UndoBufferControl mUndoBufferControl;
+	
+	// Positions known to be solvable or not, shared by solution and help.
+	private TranspositionTable mPositionTable;
+	
+	// Routines for ball movement in solution mode.
+	private SolutionControl mSolutionControl;
+	
+	// Solvability of every reachable position, null if not available.
+	private SolvabilityDatabase mSolvabilityDatabase = null;
+	
+	// Used to check jumps on the solve executor when there is no
+	// solvability database.
+	private Solver mHelpSolver;
+	
+	// If true solutions use the fewest moves.
+	private boolean mFewestMoves = false;
+	
+	// Solutions are found on the solve executor and the game told on
+	// the callback executor.
+	private Executor mSolveExecutor = AsyncGameStore.DIRECT;
+	private Executor mSolveCallbackExecutor = AsyncGameStore.DIRECT;
+	
+	// Counts solutions started and ended, a search which finishes after
+	// its solution ended is not shown.
+	private volatile int mSolveNumber = 0;
+	
+	// Where games are saved to, null if games can not be saved.
+	private AsyncGameStore mGameStore = null;
+	
+	// Told when games have been saved and loaded.
+	private final AsyncGameStore.onGameStoreListener mGameStoreListener =
+			new AsyncGameStore.onGameStoreListener() {
+		@Override
+		public void gameSaved(int slot, boolean saved) {
+			if (!saved && mListener != null) mListener.gameSaveFailed();
+		}
+		
+		@Override
+		public void gameLoaded(int slot, GameSaveData gameSaveData) {
+			restoreGame(gameSaveData);
+		}
+	};
+	
+	// Whether each jump of the selected ball keeps the game winnable,
+	// worked out once for the ball and position below. Jumps are drawn
+	// as winnable until the solver has checked them.
+	private boolean[] mWinningJumps = new boolean[BoardGeometry.NUMBER_OF_DIRECTIONS];
+	private int mCheckedBall = BallControl.NO_BALL_SELECTED;
+	private long mCheckedBoard;
+	
+	// Counts checks of the jumps started, a check on the solve executor
+	// for a ball no longer selected is skipped.
+	private volatile int mCheckNumber = 0;
+	
+	// Graphics worked out for each redraw, reused so redrawing creates
+	// nothing, and the holes that changed from the last redraw.
+	private final int[] mBalls;
+	private final BoardChanges mBoardChanges;
+	
+	// Use this instance of the interface to deliver action events.
+	private onGameListener mListener = null;
+
+	public interface onGameListener {
+		void updateBoard(BoardChanges changes);
+		void ballJumped(int from, int jumped, int to, boolean back);
+		void gameEnded(int how);
+		void gameSaveFailed();
+		void gameLoadFailed();
+		void fewestMovesNotFound();
+	}
+	
+	public Game() {
+		this(BoardGeometry.ENGLISH);
+	}
+	
+	/**
+	 * Create a game on a board.
+	 * 
+	 * @param geometry layout of board to play on, no more than 64 holes
+	 *                 as the solver holds positions in a long.
+	 */
+	public Game(BoardGeometry geometry) {
+		
+		mBallControl = new BallControl(geometry);
+		mUndoBufferControl = new UndoBufferControl(geometry.getNumberOfHoles());
+		
+		mBalls = new int[geometry.getNumberOfHoles()];
+		mBoardChanges = new BoardChanges(geometry.getNumberOfHoles());
+		
+		setupSolvers();
+		
+		mHelpMode = HELP_OFF; 
+	}
+	
+	/**
+	 * Now set the puzzle to play and start a new game of it, the
+	 * normal game starts and finishes in the middle hole.
+	 * 
+	 * @param startHole hole left empty at the start.
+	 * @param finishHole hole the last ball should finish in to win.
+	 */
+	public void setProblem(int startHole, int finishHole) {
+		
+		boolean newFinish = finishHole != mBallControl.getFinishHole();
+		
+		mBallControl.setProblem(startHole, finishHole);
+		
+		// Solved positions only hold for the hole they finish in.
+		if (newFinish)
+			setupSolvers();
+		else
+			mSolutionControl.setSolvabilityDatabase(mSolvabilityDatabase, startHole);
+		
+		startGame();
+	}
+	
+	/** Now create the solvers for the hole the game finishes in. */
+	private void setupSolvers() {
+		
+		BoardGeometry geometry = mBallControl.getGeometry();
+		
+		mPositionTable = new TranspositionTable(geometry, mBallControl.getFinishHole());
+		mSolutionControl = new SolutionControl(mPositionTable);
+		mSolutionControl.setSolvabilityDatabase(mSolvabilityDatabase, mBallControl.getStartHole());
+		mHelpSolver = new Solver(geometry, mPositionTable);
+		
+		mCheckedBall = BallControl.NO_BALL_SELECTED;
+		mCheckNumber++;
+	}
+	
+	/** Set the calling fragment of activity  */
+	public void setGameListener(onGameListener listener) {
+		mListener = listener;
+	}
+	
+	/** Now start game. */
+	public void startGame() {
+		
+		mGameMode = GAME_MODE;
+		mSolveNumber++;
+		
+		mBallControl.resetBalls();
+		mUndoBufferControl.resetBuffer();
+		
+		redrawBalls();
+			
+	}
+	
+	/** Now start solution. */
+	public void startSolution() {
+	
+		mGameMode = SOLUTION_MODE;
+		mSolveNumber++;
+		
+		final SolutionControl solutionControl = mSolutionControl;
+		final int solveNumber = mSolveNumber;
+		final boolean fewestMoves = mFewestMoves;
+		final long board = mBallControl.getBoard();
+		final long startBoard = mBallControl.getStartBoard();
+		
+		// The players moves are kept until a solution replaces them.
+		mSolutionFromGame = true;
+		solutionControl.setSolution(board, Collections.<SolutionMove>emptyList());
+		redrawBalls();
+		
+		mSolveExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				
+				// Skip searches for solutions already ended.
+				if (solveNumber != mSolveNumber) return;
+				
+				// Solve from the players position, if the puzzle can no
+				// longer be solved from there solve from the start.
+				List<SolutionMove> solution = solutionControl.findSolution(board, fewestMoves);
+				final boolean fromGame = solution != null;
+				
+				if (!fromGame)
+					solution = solutionControl.findSolution(startBoard, fewestMoves);
+				
+				final List<SolutionMove> found = solution;
+				final boolean gaveUp = fewestMoves && solutionControl.isFewestMovesStopped();
+				
+				mSolveCallbackExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						solutionFound(solveNumber, fromGame ? board : startBoard, found, gaveUp);
+					}
+				});
+			}
+		});
+	}
+	
+	/**
+	 * Now show the solution found by the search, the listener is told
+	 * if the fewest move search gave up and the solver's solution is
+	 * shown instead.
+	 * 
+	 * @param solveNumber number of the solution searched for.
+	 * @param board position searched from.
+	 * @param solution list of jumps or null if there is none.
+	 * @param gaveUp true if the fewest move search ran out of time.
+	 */
+	private void solutionFound(int solveNumber, long board, List<SolutionMove> solution,
+			boolean gaveUp) {
+		
+		if (solveNumber != mSolveNumber || solution == null) return;
+		
+		mSolutionFromGame = board == mBallControl.getBoard();
+		mSolutionControl.setSolution(board, solution);
+		
+		redrawBalls();
+		
+		if (gaveUp && mListener != null) mListener.fewestMovesNotFound();
+	}
+	
+	/** Restart Game/ */
+	public void restartGame() {
+	
+		mGameMode = GAME_MODE;
+		mSolveNumber++;
+		
+		redrawBalls();
+		
+	}
+	
+	/** Now continue game from where user ended solution. */
+	public void continueGame() {
+
+		mGameMode = GAME_MODE;
+		mSolveNumber++;
+		
+		// Players moves can only be undone if solution started from them.
+		if (!mSolutionFromGame)
+			mUndoBufferControl.resetBuffer();
+		
+		// Now add the solution moves made so they can be undone.
+		int movesPlayed = mSolutionControl.getMovesPlayed();
+		
+		for (int n = 0; n < movesPlayed; n++) {
+			SolutionMove move = mSolutionControl.getMove(n);
+			mUndoBufferControl.saveMove(move.getOldPosition(), move.getJumped(),
+					move.getNewPosition());
+		}
+		
+		mBallControl.restoreGame(mSolutionControl.getBallGraphicList(),
+				mSolutionControl.getBallCount());
+
+		redrawBalls();
+	}
+	
+	/** Undo player move. */
+	public void undoMove() {
+		
+		// Get data need to undo a move.
+		UndoMove undoMove = mUndoBufferControl.popMove();
+		
+		// Check to see if there a move to undo if not quit.
+		if (undoMove == null) return;
+		
+		mBallControl.undoMove(undoMove);
+		
+		if (mListener != null)
+			mListener.ballJumped(undoMove.getOldPosition(), undoMove.getJumped(),
+					undoMove.getNewPosition(), true);
+		
+		redrawBalls();
+	}
+	
+	/**
+	 *  Now toggle Help Mode on of off.
+	 *  Help is drawing arrows on balls to show which
+	 *  direction you can move in.  
+	 */
+	public void toggleHelpMode() {
+		
+		if (mHelpMode)
+			mHelpMode = HELP_OFF;
+		else
+			mHelpMode = HELP_ON;
+		
+		redrawBalls();
+	}
+	
+	/**
+	 * Get whether help is on or off.
+	 * 
+	 * @return true if help mode is on.
+	 */
+	public boolean getHelpMode() {
+		return mHelpMode;
+	}
+	
+	/**
+	 * Now set whether help arrows show which jumps keep the game winnable,
+	 * arrows for jumps that lose the game are drawn differently.
+	 * 
+	 * @param showWinningMoves true to check each jump.
+	 */
+	public void setShowWinningMoves(boolean showWinningMoves) {
+		
+		mShowWinningMoves = showWinningMoves;
+		
+		redrawBalls();
+	}
+	
+	/**
+	 * Get whether help arrows show which jumps keep the game winnable.
+	 * 
+	 * @return true if each jump is checked.
+	 */
+	public boolean getShowWinningMoves() {
+		return mShowWinningMoves;
+	}
+	
+	/**
+	 * Set the database used to check jumps, without one or for puzzles
+	 * it was not made for jumps are checked with the solver.
+	 * 
+	 * @param database solvability of every reachable position or null.
+	 */
+	public void setSolvabilityDatabase(SolvabilityDatabase database) {
+		mSolvabilityDatabase = database;
+		mSolutionControl.setSolvabilityDatabase(database, mBallControl.getStartHole());
+	}
+	
+	/**
+	 * Set whether solutions use the fewest moves, any number of jumps
+	 * in a row by one ball counting as one move. The search gives up
+	 * after SolutionControl.FEWEST_MOVES_TIME_LIMIT, which without a
+	 * solvability database is usual from early positions, and the
+	 * listener is told a solution from the solver is shown instead.
+	 * 
+	 * @param fewestMoves true to search for the fewest moves.
+	 */
+	public void setFewestMoves(boolean fewestMoves) {
+		mFewestMoves = fewestMoves;
+	}
+	
+	/**
+	 * Set where solutions are searched for and help jumps are checked
+	 * without a database, a search can take seconds so should not run
+	 * on the thread playing the game. Without this searches run
+	 * straight away.
+	 * 
+	 * @param solveExecutor runs searches, one at a time.
+	 * @param callbackExecutor runs the result on the thread playing
+	 *                         the game.
+	 */
+	public void setSolveExecutor(Executor solveExecutor, Executor callbackExecutor) {
+		mSolveExecutor = solveExecutor;
+		mSolveCallbackExecutor = callbackExecutor;
+	}
+	
+	/**
+	 * Set where games are saved to and loaded from, games are saved and
+	 * loaded straight away.
+	 * 
+	 * @param gameStore store of saved games.
+	 */
+	public void setGameStore(GameStore gameStore) {
+		setGameStore(gameStore, AsyncGameStore.DIRECT, AsyncGameStore.DIRECT);
+	}
+	
+	/**
+	 * Set where games are saved to and loaded from, games are saved and
+	 * loaded on one executor and the game told on the other.
+	 * 
+	 * @param gameStore store of saved games.
+	 * @param ioExecutor runs saves and loads, one at a time.
+	 * @param callbackExecutor runs the results on the thread playing
+	 *                         the game.
+	 */
+	public void setGameStore(GameStore gameStore, Executor ioExecutor, Executor callbackExecutor) {
+		
+		if (mGameStore != null) mGameStore.setGameStoreListener(null);
+		
+		mGameStore = new AsyncGameStore(gameStore, ioExecutor, callbackExecutor);
+		mGameStore.setGameStoreListener(mGameStoreListener);
+	}
+	
+	/** Get where games are saved to, null if not set. */
+	public GameStore getGameStore() {
+		return mGameStore != null ? mGameStore.getGameStore() : null;
+	}
+	
+	/** Get layout of board the game is played on. */
+	public BoardGeometry getGeometry() {
+		return mBallControl.getGeometry();
+	}
+	
+	/**
+	 *  Now load a saved game, the game is restored once it has been
+	 *  loaded.
+	 * 
+	 *  @param slot number of slot to load game from.
+	 */
+	public void loadGame(int slot) {
+		
+		if (mGameStore == null) {
+			if (mListener != null) mListener.gameLoadFailed();
+			return;
+		}
+		
+		mGameStore.loadGame(slot);
+	}
+	
+	/**
+	 * Now restore a game that has been loaded.
+	 * 
+	 * @param gameSaveData game loaded or null if failed.
+	 */
+	private void restoreGame(GameSaveData gameSaveData) {
+		
+		// Check to see if game data was loaded quit if not.
+		if (gameSaveData == null) {
+			if (mListener != null) mListener.gameLoadFailed();
+			return;
+		}
+			
+		// File ID to see if it's a valid file file if not quit.
+		if (!gameSaveData.getFileID().contentEquals(FILE_ID)) {
+			if (mListener != null) mListener.gameLoadFailed();
+			return;
+		}
+		
+		// Check the game was saved on a board with as many holes, its
+		// balls and moves do not fit any other.
+		int holes = mBallControl.getGeometry().getNumberOfHoles();
+		int[] graphicList = gameSaveData.getGraphicList();
+		ArrayList<UndoMove> undoMoves = gameSaveData.getUndoMoves();
+		int undoBufferPointer = gameSaveData.getUndoBufferPointer();
+		
+		if (graphicList == null || graphicList.length != holes
+				|| undoMoves == null || undoMoves.size() != holes
+				|| undoBufferPointer < 0 || undoBufferPointer > holes) {
+			if (mListener != null) mListener.gameLoadFailed();
+			return;
+		}
+		
+		mBallControl.restoreGame(graphicList, gameSaveData.getBallCount());
+		
+		mUndoBufferControl.restoreUndoBuffer(undoMoves, undoBufferPointer);
+		
+		redrawBalls();
+			
+	}
+	
+	/** 
+	 * Now save game, the listener is told if saving fails.
+	 *
+	 * @param slot number of slot to save game to.
+	 */
+	public void saveGame(int slot) {
+	
+		if (mGameStore == null) {
+			if (mListener != null) mListener.gameSaveFailed();
+			return;
+		}
+		
+		// Now create data to save for game, a copy as the game carries
+		// on while it is saved.
+		GameSaveData gameSaveData = new GameSaveData();
+		gameSaveData.setFileID(FILE_ID);
+		gameSaveData.setBallCount(mBallControl.getBallCounter());
+		gameSaveData.setGraphicList(mBallControl.getBallGraphicList());
+		gameSaveData.setUndoBufferPointer(mUndoBufferControl.getUndoBufferPointer());
+		gameSaveData.setUndoMoves(mUndoBufferControl.copyUndoBuffer());
+		
+		mGameStore.saveGame(slot, gameSaveData);
+	}
+	
+	/** Move solution back one move. */
+	public void solutionBack() {
+		
+		int movesPlayed = mSolutionControl.getMovesPlayed();
+		
+		mSolutionControl.backward();
+		solutionJumped(movesPlayed);
+		redrawBalls();
+	}
+	
+	/** Move solution forward one move. */
+	public void solutionForward() {
+		
+		int movesPlayed = mSolutionControl.getMovesPlayed();
+		
+		mSolutionControl.forward();
+		solutionJumped(movesPlayed);
+		redrawBalls();
+	}
+	
+	/** Move solution back over every jump of the last ball moved. */
+	public void solutionBackMove() {
+		
+		int movesPlayed = mSolutionControl.getMovesPlayed();
+		
+		mSolutionControl.backwardMove();
+		solutionJumped(movesPlayed);
+		redrawBalls();
+	}
+	
+	/** Move solution forward over every jump of the next ball to move. */
+	public void solutionForwardMove() {
+		
+		int movesPlayed = mSolutionControl.getMovesPlayed();
+		
+		mSolutionControl.forwardMove();
+		solutionJumped(movesPlayed);
+		redrawBalls();
+	}
+	
+	/**
+	 * Now tell the listener of the jump made or taken back in the
+	 * solution. Moves of more than one jump are not shown jumping, the
+	 * balls move straight to where they end up.
+	 * 
+	 * @param movesPlayed number of solution moves played before.
+	 */
+	private void solutionJumped(int movesPlayed) {
+		
+		if (mListener == null) return;
+		
+		int moves = mSolutionControl.getMovesPlayed();
+		
+		if (moves == movesPlayed + 1) {
+			SolutionMove move = mSolutionControl.getMove(movesPlayed);
+			mListener.ballJumped(move.getOldPosition(), move.getJumped(),
+					move.getNewPosition(), false);
+			
+		} else if (moves == movesPlayed - 1) {
+			SolutionMove move = mSolutionControl.getMove(moves);
+			mListener.ballJumped(move.getOldPosition(), move.getJumped(),
+					move.getNewPosition(), true);
+		}
+	}
+	
+	/** Redraw balls on game board. */
+	private void redrawBalls() {
+	
+		// Redraw balls depending on what mode the game is in.
+		if (mGameMode)
+			redrawBallsGame();
+		else
+			redrawBallSolution();
+	}
+	
+	/**
+	 * Check whether anything on the board flashes, a selected ball in
+	 * game mode or the next ball to move in solution mode. When nothing
+	 * does flashBall() need not be called.
+	 * 
+	 * @return true if the board is animating.
+	 */
+	public boolean isAnimating() {
+		
+		if (mGameMode)
+			return mBallControl.getSelectedBall() != BallControl.NO_BALL_SELECTED;
+		
+		return !mSolutionControl.isSolutionFinished();
+	}
+	
+	/** 
+	 * Now flash the selected ball on and off.
+	 * Called by the frame scheduler while the board is animating.
+     */
+	public void flashBall() {
+		
+		if (mFlashOnOff)
+			mFlashOnOff = BALL_OFF;
+		else
+			mFlashOnOff = BALL_ON;
+		
+		redrawBalls();
+	}
+	
+	/**
+	 * Now move ball to new position if move is legal.
+	 * 
+	 * @param selectedHole to where to move to.
+	 */
+	private void doMove(int selectedHole) {
+
+		// Get jump selected ball can make to reach the hole.
+		int jump = mBallControl.findValidJump(selectedHole);
+		
+		// Check if move is valid if so do move.
+		if (jump != BoardGeometry.NO_JUMP) {
+			BoardGeometry geometry = mBallControl.getGeometry();
+			int oldPosition = geometry.getFrom(jump);
+			int jumpBall = geometry.getOver(jump);
+			mBallControl.moveBall(oldPosition, jumpBall, selectedHole);
+			mUndoBufferControl.saveMove(oldPosition, jumpBall, selectedHole);
+			
+			if (mListener != null)
+				mListener.ballJumped(oldPosition, jumpBall, selectedHole, false);
+			
+			checkGamaEnded();
+			return;
+		}
+
+		// Now cancel move.
+		mBallControl.setSelectedBall(BallControl.NO_BALL_SELECTED);
+	}
+	
+	/**
+	 * Now update the game after player chosen a place on the board.
+	 * Either try to make the move if player chosen a hole or if player
+	 * touched the board or a invalid move then cancel the move.
+	 * 
+	 * @param selectedHole the hole number the player has chosen or
+	 *  	BOARD_TOUCHED if player touched the board to cancel move.  
+	 */
+	public void updateGame(int selectedHole) {
+
+		// Stop player from selecting balls in solution mode.
+		if (mGameMode == SOLUTION_MODE ) return;
+		
+		// Check to see if board was touched if so cancel move if started.
+		if (selectedHole != BOARD_TOUCHED) {
+
+			// Check whether hole touched has a ball present.
+			if (mBallControl.isBallPresent(selectedHole)) {
+				// Ball is present so check if ball can make a valid move.
+
+				mBallControl.checkValidMove(selectedHole);
+
+			} else {
+				// No ball present in the hole so try to move to hole.
+				
+				// Check to see if a ball been selected if not quit.
+				if (mBallControl.getSelectedBall() != BallControl.NO_BALL_SELECTED)
+					doMove(selectedHole);
+			}
+
+		} else {
+			mBallControl.setSelectedBall(BallControl.NO_BALL_SELECTED); // Assume move invalid.
+		}
+		
+		redrawBalls();
+	}
+
+	/**
+	 * Now redraw balls on board when in game mode.
+	 */
+	private void redrawBallsGame() {
+		
+		int balls[] = mBalls;
+		mBallControl.getBallGraphicList(balls);
+		int selectedBall = mBallControl.getSelectedBall();
+		// Check to see if a ball been selected.
+		if (selectedBall != BallControl.NO_BALL_SELECTED ) {
+			
+			// If ball flashing check if we need to turn ball to do not draw.
+			if (!mFlashOnOff)
+				balls[selectedBall] = BallGraphic.NO_BALL;
+			
+			// Now check if help is on if so draw arrows on the balls.
+			if (mHelpMode) {
+				BoardGeometry geometry = mBallControl.getGeometry();
+				
+				if (mShowWinningMoves)
+					checkWinningJumps();
+				
+				for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++) {
+					int jump = mBallControl.getValidJump(direction);
+					
+					if (jump == BoardGeometry.NO_JUMP) continue;
+					
+					if (mShowWinningMoves && !mWinningJumps[direction])
+						balls[geometry.getOver(jump)] = LOSING_ARROWS[direction];
+					else
+						balls[geometry.getOver(jump)] = ARROWS[direction];
+				}
+			}
+		}
+		
+		publishBalls();
+	}
+
+	/**
+	 * Now work out which jumps of the selected ball keep the game
+	 * winnable. This is only done when the ball or position changes
+	 * so flashing the ball does not repeat the lookups. The database
+	 * is read straight away, without it the solver checks the jumps
+	 * on the solve executor and the arrows are drawn again once it has.
+	 */
+	private void checkWinningJumps() {
+		
+		final int selectedBall = mBallControl.getSelectedBall();
+		final long board = mBallControl.getBoard();
+		
+		if (selectedBall == mCheckedBall && board == mCheckedBoard) return;
+		
+		mCheckedBall = selectedBall;
+		mCheckedBoard = board;
+		
+		final int checkNumber = ++mCheckNumber;
+		
+		// Position after each jump, or 0 if the ball can not jump that way.
+		BoardGeometry geometry = mBallControl.getGeometry();
+		final long[] newBoards = new long[BoardGeometry.NUMBER_OF_DIRECTIONS];
+		
+		for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++) {
+			int jump = mBallControl.getValidJump(direction);
+			
+			newBoards[direction] = jump != BoardGeometry.NO_JUMP ? geometry.makeJump(board, jump) : 0;
+			mWinningJumps[direction] = true;
+		}
+		
+		// The database only holds positions reachable from its own start.
+		if (mSolvabilityDatabase != null && mSolvabilityDatabase.isFor(
+				mBallControl.getStartHole(), mBallControl.getFinishHole())) {
+			for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++)
+				if (newBoards[direction] != 0)
+					mWinningJumps[direction] = mSolvabilityDatabase.isSolvable(newBoards[direction]);
+			return;
+		}
+		
+		final Solver helpSolver = mHelpSolver;
+		
+		mSolveExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				
+				// Skip checks for a ball no longer selected.
+				if (checkNumber != mCheckNumber) return;
+				
+				final boolean[] winning = new boolean[BoardGeometry.NUMBER_OF_DIRECTIONS];
+				
+				for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++)
+					winning[direction] = newBoards[direction] == 0
+							|| helpSolver.isSolvable(newBoards[direction]);
+				
+				mSolveCallbackExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						winningJumpsFound(checkNumber, winning);
+					}
+				});
+			}
+		});
+	}
+	
+	/**
+	 * Now show which jumps of the selected ball the solver found keep
+	 * the game winnable.
+	 * 
+	 * @param checkNumber number of the check made.
+	 * @param winning true for each direction whose jump keeps the game winnable.
+	 */
+	private void winningJumpsFound(int checkNumber, boolean[] winning) {
+		
+		if (checkNumber != mCheckNumber) return;
+		
+		System.arraycopy(winning, 0, mWinningJumps, 0, winning.length);
+		
+		redrawBalls();
+	}
+
+	/**
+	 * Now redraw balls on board when in solution mode.
+	 */
+	private void redrawBallSolution() {
+		
+		int balls[] = mBalls;
+		mSolutionControl.getBallGraphicList(balls);
+		
+		if (!mSolutionControl.isSolutionFinished()) {
+			SolutionMove move = mSolutionControl.getCurrentMove();
+		
+			// To display ball that going move or not display ball.
+			if (mFlashOnOff)
+				// Change graphic on to move to picked ball graphic. 
+				balls[move.getOldPosition()] = BallGraphic.BALL_PICKED;
+			else
+				balls[move.getOldPosition()] = BallGraphic.NO_BALL;
+		
+			// Change the ball to be remove to arrow ball.
+			balls[move.getJumped()] = ARROWS[move.getDirection()];
+		}
+		
+		publishBalls();
+	}
+	
+	/** Now pass the holes whose graphics changed to the listener. */
+	private void publishBalls() {
+		
+		mBoardChanges.update(mBalls);
+		
+		if (mListener != null) mListener.updateBoard(mBoardChanges);
+	}
+
+	/**
+	 * Check to see if game has ended if so then print a
+	 * message depend on whether the player has solved 
+	 * the puzzle or not solved the puzzle.
+	 */
+	private void checkGamaEnded() {
+		
+		int ended = mBallControl.checkForGameEnd();
+		
+		if (mListener != null && ended != BallControl.GAME_IN_PLAY)
+				mListener.gameEnded(ended);
+	}
+
+}
+
@@ -16,8 +16,6 @@
 
 package com.arp.solitaire.Game;
 
-import com.arp.solitaire.Board.BoardView;
-
 import java.util.ArrayList;
 
 /**
@@ -33,10 +31,20 @@ class UndoBufferControl {
 	// Use to point to where to get and save moves to.
 	private int undoBufferPointer; 
 	
-	UndoBufferControl() {
+	// Most moves that can be stored.
+	private final int size;
+	
+	/**
+	 * Create undo buffer.
+	 * 
+	 * @param size most moves to store, the number of holes is always enough.
+	 */
+	UndoBufferControl(int size) {
+		
+		this.size = size;
 		
 		// Now create a undo buffer for size needed.
-		for (int n = 0; n < BoardView.NUMBER_OF_HOLES; n++) {
+		for (int n = 0; n < size; n++) {
 			UndoMove undoMove = new UndoMove();
 			undoBuffer.add(undoMove);
 		}
@@ -59,7 +67,7 @@ class UndoBufferControl {
 	void saveMove(int oldPosition, int jumped, int newPosition) {
 		
 		// Check if we reach of buffer if so quit this should happen.
-		if (undoBufferPointer >= BoardView.NUMBER_OF_HOLES) 
+		if (undoBufferPointer >= size) 
 			return;
 		
 		// Get place where to store move within buffer.
@@ -100,6 +108,27 @@ class UndoBufferControl {
 		return undoBuffer;
 	}
 	
+	/**
+	 * Get a copy of the undo buffer, which can be kept while more moves
+	 * are made.
+	 * 
+	 * @return a copy of every move in the buffer.
+	 */
+	ArrayList<UndoMove> copyUndoBuffer() {
+		
+		ArrayList<UndoMove> copy = new ArrayList<>(undoBuffer.size());
+		
+		for (UndoMove move : undoBuffer) {
+			UndoMove undoMove = new UndoMove();
+			undoMove.setOldPosition(move.getOldPosition());
+			undoMove.setJumped(move.getJumped());
+			undoMove.setNewPosition(move.getNewPosition());
+			copy.add(undoMove);
+		}
+		
+		return copy;
+	}
+	
 	/**
 	 * Now restore undo buffers after a load game.
 	 * 
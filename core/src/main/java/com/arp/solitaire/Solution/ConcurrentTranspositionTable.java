@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A transposition table which can be read and written by many search
+ * threads at once without locking. The table has a fixed size and
+ * acts as a cache, when a position can not be placed near its hash
+ * slot it is simply not stored.
+ *
+ * @author Adrian Panton
+ */
+public class ConcurrentTranspositionTable {
+
+	public static final int DEFAULT_CAPACITY_BITS = 22;
+
+	// Entries are laid out as in TranspositionTable.
+	private static final int RESULT_SHIFT = 62;
+	private static final long POSITION_MASK = (1L << RESULT_SHIFT) - 1;
+	private static final long EMPTY = 0;
+
+	// Number of slots looked at before a position is given up on.
+	private static final int MAX_PROBES = 32;
+
+	private final Symmetry symmetry;
+	private final int finishHole;
+
+	private final AtomicLongArray entries;
+	private final int mask;
+
+	private final AtomicInteger size = new AtomicInteger(); // Number of positions in table.
+
+	/**
+	 * Create a table for positions finishing in the middle hole.
+	 *
+	 * @param geometry layout of board.
+	 */
+	public ConcurrentTranspositionTable(BoardGeometry geometry) {
+		this(geometry, geometry.getMiddleHole(), DEFAULT_CAPACITY_BITS);
+	}
+
+	/**
+	 * Create a table for positions finishing in a hole.
+	 *
+	 * @param geometry layout of board, no more than 62 holes.
+	 * @param finishHole hole the last ball should finish in.
+	 * @param capacityBits table holds 2 to the power of this many slots.
+	 */
+	public ConcurrentTranspositionTable(BoardGeometry geometry, int finishHole, int capacityBits) {
+
+		if (geometry.getNumberOfHoles() > RESULT_SHIFT)
+			throw new IllegalArgumentException("Board has too many holes for table");
+
+		this.finishHole = finishHole;
+
+		symmetry = new Symmetry(geometry, finishHole);
+		entries = new AtomicLongArray(1 << capacityBits);
+		mask = entries.length() - 1;
+	}
+
+	/**
+	 * Get what is known about a position already in canonical form.
+	 *
+	 * @param key canonical position from getSymmetry().
+	 *
+	 * @return UNKNOWN, SOLVABLE or UNSOLVABLE from TranspositionTable.
+	 */
+	public int getCanonical(long key) {
+
+		int slot = hash(key) & mask;
+
+		for (int probe = 0; probe < MAX_PROBES; probe++, slot = (slot + 1) & mask) {
+			long entry = entries.get(slot);
+
+			if (entry == EMPTY)
+				break;
+
+			if ((entry & POSITION_MASK) == key)
+				return (int) (entry >>> RESULT_SHIFT);
+		}
+
+		return TranspositionTable.UNKNOWN;
+	}
+
+	/**
+	 * Now store what is known about a position already in canonical form.
+	 *
+	 * @param key canonical position from getSymmetry().
+	 * @param result SOLVABLE or UNSOLVABLE from TranspositionTable.
+	 */
+	public void putCanonical(long key, int result) {
+
+		long newEntry = key | ((long) result << RESULT_SHIFT);
+		int slot = hash(key) & mask;
+
+		for (int probe = 0; probe < MAX_PROBES; probe++, slot = (slot + 1) & mask) {
+			long entry = entries.get(slot);
+
+			// Try to claim an empty slot, if another thread got there
+			// first check whether it stored the same position.
+			if (entry == EMPTY) {
+				if (entries.compareAndSet(slot, EMPTY, newEntry)) {
+					size.incrementAndGet();
+					return;
+				}
+
+				entry = entries.get(slot);
+			}
+
+			if ((entry & POSITION_MASK) == key) {
+				entries.set(slot, newEntry);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Get what is known about a position.
+	 *
+	 * @param board position to look up.
+	 *
+	 * @return UNKNOWN, SOLVABLE or UNSOLVABLE from TranspositionTable.
+	 */
+	public int get(long board) {
+		return getCanonical(symmetry.canonical(board));
+	}
+
+	/**
+	 * Now store what is known about a position.
+	 *
+	 * @param board position to store.
+	 * @param result SOLVABLE or UNSOLVABLE from TranspositionTable.
+	 */
+	public void put(long board, int result) {
+		putCanonical(symmetry.canonical(board), result);
+	}
+
+	/** Get number of positions stored. */
+	public int size() {
+		return size.get();
+	}
+
+	/** Get hole the positions are solved to. */
+	public int getFinishHole() {
+		return finishHole;
+	}
+
+	/** Get symmetries used to store positions. */
+	public Symmetry getSymmetry() {
+		return symmetry;
+	}
+
+	/** Spread the bits of a position over the table. */
+	private static int hash(long key) {
+
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds a solution using the fewest moves, where any number of jumps
+ * in a row by the same ball count as a single move. The search is an
+ * iterative deepening A* search, each pass looking for a solution
+ * within a number of moves and raising the limit to the smallest
+ * number of moves seen to be needed when none is found.
+ *
+ * The moves still needed from a position are bounded below using
+ * Merson regions, groups of holes which when full can only be changed
+ * by a move starting inside the group. Each full region needs its own
+ * move, except one holding the ball part way through a move which may
+ * carry on for free. The bound found for each position is remembered
+ * between passes, and positions which can not be solved at all are cut
+ * off using the solvability database when one is set, otherwise using a
+ * Solver sharing the game's table.
+ *
+ * A search from early in the game can take seconds, or over a minute
+ * without the database, a time limit makes solve() give up instead so
+ * the caller can fall back to the Solver.
+ *
+ * @author Adrian Panton
+ */
+public class MinimumMoveSolver {
+
+	// Most positions whose move bound is remembered, about 9 bytes each.
+	public static final int DEFAULT_MAX_TABLE_SIZE = 1 << 20;
+
+	// Passed to setTimeLimit() to search until a solution is found.
+	public static final long NO_TIME_LIMIT = 0;
+
+	private static final int NO_HOLE = -1;
+
+	// Returned by the search when a solution is found.
+	private static final int FOUND = -1;
+
+	// Returned by the search for positions which can not be solved.
+	private static final int UNSOLVABLE = Integer.MAX_VALUE;
+
+	// Largest move bound that is remembered.
+	private static final int MAX_BOUND = Byte.MAX_VALUE;
+
+	// Layout of holes and jumps on the board.
+	private final BoardGeometry geometry;
+
+	// Used to check whether positions can be solved at all.
+	private final Solver solver;
+	private volatile SolvabilityDatabase database = null;
+
+	private final Symmetry symmetry;
+
+	private final long target; // Position with a single ball in the finish hole.
+
+	// Holes of each Merson region, no two sharing a hole.
+	private final long[] regions;
+
+	// Fewest moves known to be needed from positions searched.
+	private final MoveBoundTable bounds;
+
+	// Jumps made along the line currently being searched.
+	private final int[] path;
+
+	private long nodeCount; // Number of positions searched by last solve.
+
+	// Longest a solve may search before giving up, in milliseconds.
+	private long timeLimit = NO_TIME_LIMIT;
+	private long deadline; // System.nanoTime() the last solve gives up at.
+
+	// True if the last solve gave up on reaching the time limit.
+	private boolean stopped;
+
+	public MinimumMoveSolver() {
+		this(new TranspositionTable(BoardGeometry.ENGLISH));
+	}
+
+	/**
+	 * Create a solver which shares a table of solvable positions.
+	 *
+	 * @param table positions already solved, also gives the board and finish hole.
+	 */
+	public MinimumMoveSolver(TranspositionTable table) {
+		this(table, DEFAULT_MAX_TABLE_SIZE);
+	}
+
+	/**
+	 * Create a solver which shares a table of solvable positions.
+	 *
+	 * @param table positions already solved, also gives the board and finish hole.
+	 * @param maxTableSize most positions whose move bound is remembered.
+	 */
+	public MinimumMoveSolver(TranspositionTable table, int maxTableSize) {
+
+		geometry = table.getGeometry();
+		symmetry = table.getSymmetry();
+		solver = new Solver(geometry, table);
+
+		target = BoardGeometry.holeBit(table.getFinishHole());
+		regions = findRegions(geometry, table.getFinishHole());
+		bounds = new MoveBoundTable(maxTableSize);
+		path = new int[geometry.getNumberOfHoles()];
+	}
+
+	/**
+	 * Now find a solution with the fewest moves.
+	 *
+	 * @param board position to solve from.
+	 *
+	 * @return list of moves, each a list of the jumps made by one ball,
+	 *         or null if there is no solution or the time limit was
+	 *         reached, which isStopped() tells apart.
+	 */
+	public List<List<SolutionMove>> solve(long board) {
+
+		nodeCount = 0;
+		stopped = false;
+		deadline = System.nanoTime() + timeLimit * 1000000L;
+
+		if (!isSolvable(board))
+			return null;
+
+		int limit = lowerBound(board, NO_HOLE);
+
+		while (true) {
+			int result = search(board, 0, 0, limit);
+
+			if (result == FOUND)
+				break;
+
+			if (stopped)
+				return null;
+
+			limit = result;
+		}
+
+		// Number of jumps is the number of balls removed.
+		return groupMoves(Solver.buildSolution(geometry, path, Long.bitCount(board) - 1));
+	}
+
+	/**
+	 * Now split a list of jumps into moves, a jump from the hole the last
+	 * jump finished in carries on the same move.
+	 *
+	 * @param jumps list of jumps in the order they are made.
+	 *
+	 * @return list of moves, each a list of jumps.
+	 */
+	public static List<List<SolutionMove>> groupMoves(List<SolutionMove> jumps) {
+
+		List<List<SolutionMove>> moves = new ArrayList<>();
+		List<SolutionMove> move = null;
+
+		for (SolutionMove jump : jumps) {
+			if (move == null || move.get(move.size() - 1).getNewPosition() != jump.getOldPosition()) {
+				move = new ArrayList<>();
+				moves.add(move);
+			}
+
+			move.add(jump);
+		}
+
+		return moves;
+	}
+
+	/**
+	 * Set the database used to check positions can be solved, which
+	 * saves filling the solver's table with every position tried. It is
+	 * only used if made for the same start and finish hole, as it knows
+	 * nothing of positions reachable from other starts.
+	 *
+	 * @param database solvable positions or null.
+	 * @param startHole hole left empty at the start of the game solved.
+	 */
+	public void setSolvabilityDatabase(SolvabilityDatabase database, int startHole) {
+
+		if (database != null && !database.isFor(startHole, solver.getTable().getFinishHole()))
+			database = null;
+
+		this.database = database;
+	}
+
+	/** Get number of positions searched by the last solve. */
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Set the longest a solve may search before giving up.
+	 *
+	 * @param timeLimit time in milliseconds or NO_TIME_LIMIT.
+	 */
+	public void setTimeLimit(long timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	/**
+	 * Check whether the last solve gave up on reaching the time limit,
+	 * rather than finding the position could not be solved.
+	 *
+	 * @return true if the last solve was stopped.
+	 */
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	/** Get number of positions whose move bound is remembered. */
+	public int getTableSize() {
+		return bounds.size();
+	}
+
+	/** Get number of Merson regions used to bound the moves needed. */
+	public int getNumberOfRegions() {
+		return regions.length;
+	}
+
+	/** Check whether a position can still reach the finish hole. */
+	private boolean isSolvable(long board) {
+
+		if (database != null)
+			return database.isSolvable(board);
+
+		return solver.isSolvable(board);
+	}
+
+	/**
+	 * Get the fewest moves a position can need.
+	 *
+	 * @param board position to check.
+	 * @param movingHole hole of a ball part way through a move or NO_HOLE.
+	 *
+	 * @return lower bound on moves still to make.
+	 */
+	private int lowerBound(long board, int movingHole) {
+
+		long moving = movingHole == NO_HOLE ? 0 : BoardGeometry.holeBit(movingHole);
+		int bound = 0;
+
+		for (long region : regions)
+			if ((board & region) == region && (region & moving) == 0)
+				bound++;
+
+		// At least one more move unless solved or a move is carrying on.
+		if (bound == 0 && board != target && moving == 0)
+			bound = 1;
+
+		return bound;
+	}
+
+	/**
+	 * Search for a solution at the start of a move.
+	 *
+	 * @param board position to search from.
+	 * @param depth number of jumps made so far.
+	 * @param moves number of moves made so far.
+	 * @param limit most moves allowed in this pass.
+	 *
+	 * @return FOUND with the jumps left in path, otherwise the fewest
+	 *         moves a solution through this position could need.
+	 */
+	private int search(long board, int depth, int moves, int limit) {
+
+		nodeCount++;
+
+		if (timeLimit != NO_TIME_LIMIT && System.nanoTime() - deadline > 0) {
+			stopped = true;
+			return UNSOLVABLE;
+		}
+
+		if (board == target)
+			return FOUND;
+
+		int needed = moves + lowerBound(board, NO_HOLE);
+		if (needed > limit)
+			return needed;
+
+		long key = symmetry.canonical(board);
+		int known = bounds.get(key);
+
+		if (moves + known > limit)
+			return moves + known;
+
+		if (!isSolvable(board))
+			return UNSOLVABLE;
+
+		int next = UNSOLVABLE;
+
+		// Now start a new move with each ball that can jump.
+		for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+			if (geometry.isLegal(board, jump)) {
+				path[depth] = jump;
+
+				int result = carryOn(geometry.makeJump(board, jump), depth + 1, moves + 1,
+						limit, geometry.getTo(jump));
+
+				if (result == FOUND)
+					return FOUND;
+
+				// Bounds found after stopping are not complete.
+				if (stopped)
+					return UNSOLVABLE;
+
+				next = Math.min(next, result);
+			}
+		}
+
+		bounds.put(key, Math.min(MAX_BOUND, Math.max(known, next - moves)));
+
+		return next;
+	}
+
+	/**
+	 * Search after a jump, either ending the move or carrying on with
+	 * more jumps by the same ball.
+	 *
+	 * @param board position after jump.
+	 * @param depth number of jumps made so far.
+	 * @param moves number of moves made so far including this one.
+	 * @param limit most moves allowed in this pass.
+	 * @param movingHole hole the ball finished its jump in.
+	 *
+	 * @return FOUND or the fewest moves a solution could need.
+	 */
+	private int carryOn(long board, int depth, int moves, int limit, int movingHole) {
+
+		int next = search(board, depth, moves, limit);
+
+		// No more jumps can help a position that can not be solved.
+		if (next == FOUND || next == UNSOLVABLE || stopped)
+			return next;
+
+		if (moves + lowerBound(board, movingHole) > limit)
+			return next;
+
+		for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++) {
+			int jump = geometry.getJump(movingHole, direction);
+
+			if (jump != BoardGeometry.NO_JUMP && geometry.isLegal(board, jump)) {
+				path[depth] = jump;
+
+				int result = carryOn(geometry.makeJump(board, jump), depth + 1, moves,
+						limit, geometry.getTo(jump));
+
+				if (result == FOUND || stopped)
+					return result;
+
+				next = Math.min(next, result);
+			}
+		}
+
+		return next;
+	}
+
+	/**
+	 * Now find Merson regions on a board, groups of holes for which
+	 * every jump over one of their holes starts or finishes inside the
+	 * group. Single holes are chosen first, then pairs, then two by two
+	 * squares, keeping only regions which share no hole with one
+	 * already chosen.
+	 *
+	 * @param geometry layout of board.
+	 * @param finishHole hole the last ball should finish in, a ball
+	 *                   left there alone may never need to move.
+	 *
+	 * @return holes of each region.
+	 */
+	static long[] findRegions(BoardGeometry geometry, int finishHole) {
+
+		List<Long> candidates = new ArrayList<>();
+
+		// Shapes as column and row offsets from their first hole.
+		int[][][] shapes = {
+				{ { 0, 0 } },
+				{ { 0, 0 }, { 1, 0 } },
+				{ { 0, 0 }, { 0, 1 } },
+				{ { 0, 0 }, { 1, 0 }, { 0, 1 }, { 1, 1 } } };
+
+		int[] gridHoles = new int[geometry.getColumns() * geometry.getRows()];
+		for (int n = 0; n < gridHoles.length; n++)
+			gridHoles[n] = NO_HOLE;
+		for (int n = 0; n < geometry.getNumberOfHoles(); n++)
+			gridHoles[geometry.getRow(n) * geometry.getColumns() + geometry.getColumn(n)] = n;
+
+		for (int[][] shape : shapes) {
+			for (int n = 0; n < geometry.getNumberOfHoles(); n++) {
+				long region = 0;
+
+				for (int[] offset : shape) {
+					int column = geometry.getColumn(n) + offset[0];
+					int row = geometry.getRow(n) + offset[1];
+
+					if (column >= geometry.getColumns() || row >= geometry.getRows()
+							|| gridHoles[row * geometry.getColumns() + column] == NO_HOLE) {
+						region = 0;
+						break;
+					}
+
+					region |= BoardGeometry.holeBit(gridHoles[row * geometry.getColumns() + column]);
+				}
+
+				if (region != 0 && region != BoardGeometry.holeBit(finishHole)
+						&& isMersonRegion(geometry, region))
+					candidates.add(region);
+			}
+		}
+
+		// Keep the regions which do not overlap, smallest first.
+		List<Long> chosen = new ArrayList<>();
+		long used = 0;
+
+		for (long region : candidates) {
+			if ((region & used) == 0) {
+				chosen.add(region);
+				used |= region;
+			}
+		}
+
+		long[] regions = new long[chosen.size()];
+		for (int n = 0; n < regions.length; n++)
+			regions[n] = chosen.get(n);
+
+		return regions;
+	}
+
+	/**
+	 * Check every jump over a hole of a region starts or finishes inside it.
+	 */
+	private static boolean isMersonRegion(BoardGeometry geometry, long region) {
+
+		for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+			long from = BoardGeometry.holeBit(geometry.getFrom(jump));
+			long over = BoardGeometry.holeBit(geometry.getOver(jump));
+			long to = BoardGeometry.holeBit(geometry.getTo(jump));
+
+			if ((region & over) != 0 && (region & (from | to)) == 0)
+				return false;
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+/**
+ * Remembers the fewest moves each position searched by the minimum
+ * move solver is known to need, so later passes of the search can cut
+ * off positions sooner. The table stops growing once full and is
+ * cleared instead, which keeps the memory used fixed.
+ *
+ * @author Adrian Panton
+ */
+class MoveBoundTable {
+
+	private static final int INITIAL_CAPACITY = 1 << 16;
+
+	private static final long EMPTY = 0; // No position has no balls.
+
+	private final int maxSize; // Most positions kept before clearing.
+
+	private long[] keys = new long[INITIAL_CAPACITY];
+	private byte[] bounds = new byte[INITIAL_CAPACITY];
+
+	private int size; // Number of positions in table.
+
+	/**
+	 * Create a table.
+	 *
+	 * @param maxSize most positions to keep.
+	 */
+	MoveBoundTable(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Get the fewest moves a position is known to need.
+	 *
+	 * @param key canonical position.
+	 *
+	 * @return moves needed or 0 if position is not in table.
+	 */
+	int get(long key) {
+
+		int mask = keys.length - 1;
+
+		for (int slot = hash(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask)
+			if (keys[slot] == key)
+				return bounds[slot];
+
+		return 0;
+	}
+
+	/**
+	 * Now store the fewest moves a position is known to need.
+	 *
+	 * @param key canonical position.
+	 * @param bound moves needed, no more than 127.
+	 */
+	void put(long key, int bound) {
+
+		if (size >= maxSize)
+			clear();
+
+		// Keep table no more than half full.
+		if (size * 2 >= keys.length)
+			resize();
+
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+
+		while (keys[slot] != EMPTY && keys[slot] != key)
+			slot = (slot + 1) & mask;
+
+		if (keys[slot] == EMPTY)
+			size++;
+
+		keys[slot] = key;
+		bounds[slot] = (byte) bound;
+	}
+
+	/** Now remove all positions from the table. */
+	void clear() {
+
+		keys = new long[INITIAL_CAPACITY];
+		bounds = new byte[INITIAL_CAPACITY];
+		size = 0;
+	}
+
+	/** Get number of positions stored. */
+	int size() {
+		return size;
+	}
+
+	/** Now double the size of the table. */
+	private void resize() {
+
+		long[] oldKeys = keys;
+		byte[] oldBounds = bounds;
+
+		keys = new long[oldKeys.length * 2];
+		bounds = new byte[keys.length];
+
+		int mask = keys.length - 1;
+
+		for (int n = 0; n < oldKeys.length; n++) {
+			if (oldKeys[n] == EMPTY) continue;
+
+			int slot = hash(oldKeys[n]) & mask;
+			while (keys[slot] != EMPTY)
+				slot = (slot + 1) & mask;
+
+			keys[slot] = oldKeys[n];
+			bounds[slot] = oldBounds[n];
+		}
+	}
+
+	/** Spread the bits of a position over the table. */
+	private static int hash(long key) {
+
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
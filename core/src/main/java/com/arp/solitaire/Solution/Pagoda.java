@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A pagoda function gives each hole a weight such that no jump can
+ * raise the total weight of the balls on the board, for every jump
+ * the from and jumped holes weigh at least as much as the move to
+ * hole. A position whose value is below the value of the target can
+ * therefore never reach it. The value is summed a byte of holes at a
+ * time from tables made when the pagoda is created.
+ *
+ * @author Adrian Panton
+ */
+public class Pagoda {
+
+	private static final int BITS_PER_CHUNK = 8;
+	private static final int CHUNK_SIZE = 1 << BITS_PER_CHUNK;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	//********* Pagoda functions for the English board. *****************/
+	// Weights are listed in hole order, laid out as the board.
+
+	// Stops balls being left on the corners of the arms.
+	private static final int arms[] = {
+			    -1,  0, -1,
+			     1,  1,  1,
+			-1,  1,  0,  1,  0,  1, -1,
+			 0,  1,  1,  1,  1,  1,  0,
+			-1,  1,  0,  1,  0,  1, -1,
+			     1,  1,  1,
+			    -1,  0, -1 };
+
+	// As arms with the middle row and column counting more.
+	private static final int cross[] = {
+			    -1,  1, -1,
+			     1,  1,  1,
+			-1,  1,  0,  1,  0,  1, -1,
+			 1,  1,  1,  2,  1,  1,  1,
+			-1,  1,  0,  1,  0,  1, -1,
+			     1,  1,  1,
+			    -1,  1, -1 };
+
+	// Stops balls being left at the end of one arm, used in every
+	// rotation and reflection.
+	private static final int armEnd[] = {
+			     0,  0,  0,
+			     0,  2,  0,
+			 0,  0,  0,  0,  0,  0,  0,
+			 0,  2,  0,  2,  0,  2,  1,
+			 0,  1,  0,  1,  0,  1, -1,
+			     0,  1,  0,
+			     0,  0,  0 };
+	/********************************************************************/
+
+	private final int[] weights;
+
+	private final int chunks; // Number of bytes a position is split into.
+
+	// Value of every byte for each byte position,
+	// index is chunk * CHUNK_SIZE + byte.
+	private final int[] chunkValues;
+
+	/**
+	 * Now check the weights form a pagoda function and build the
+	 * tables used to value a position.
+	 *
+	 * @param geometry layout of board.
+	 * @param weights weight of each hole.
+	 *
+	 * @throws IllegalArgumentException if a jump could raise the value.
+	 */
+	public Pagoda(BoardGeometry geometry, int[] weights) {
+
+		int holes = geometry.getNumberOfHoles();
+
+		if (weights.length != holes)
+			throw new IllegalArgumentException("Pagoda needs a weight for each of " + holes + " holes");
+
+		for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+			if (weights[geometry.getFrom(jump)] + weights[geometry.getOver(jump)]
+					< weights[geometry.getTo(jump)])
+				throw new IllegalArgumentException("Jump from hole " + geometry.getFrom(jump)
+						+ " to hole " + geometry.getTo(jump) + " raises pagoda value");
+		}
+
+		this.weights = weights.clone();
+
+		chunks = (holes + BITS_PER_CHUNK - 1) / BITS_PER_CHUNK;
+		chunkValues = new int[chunks * CHUNK_SIZE];
+
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			for (int value = 0; value < CHUNK_SIZE; value++) {
+				int sum = 0;
+
+				for (int bit = 0; bit < BITS_PER_CHUNK; bit++) {
+					int hole = chunk * BITS_PER_CHUNK + bit;
+
+					if ((value & (1 << bit)) != 0 && hole < holes)
+						sum += weights[hole];
+				}
+
+				chunkValues[chunk * CHUNK_SIZE + value] = sum;
+			}
+		}
+	}
+
+	/**
+	 * Get the pagoda functions known for a board, boards are matched
+	 * by their layout so a board built again from the English layout
+	 * gets the English functions.
+	 *
+	 * @param geometry layout of board.
+	 *
+	 * @return list of pagoda functions, empty if none are known.
+	 */
+	public static List<Pagoda> getLibrary(BoardGeometry geometry) {
+
+		if (!BoardGeometry.ENGLISH.equals(geometry))
+			return Collections.emptyList();
+
+		List<Pagoda> library = new ArrayList<>();
+
+		library.add(new Pagoda(geometry, arms));
+		library.add(new Pagoda(geometry, cross));
+
+		Pagoda pagoda = new Pagoda(geometry, armEnd);
+		Symmetry symmetry = new Symmetry(geometry);
+
+		for (int transform = 0; transform < symmetry.getNumberOfTransforms(); transform++)
+			library.add(pagoda.transform(symmetry, transform));
+
+		return library;
+	}
+
+	/**
+	 * Get the total weight of the balls in a position.
+	 *
+	 * @param board position to value.
+	 *
+	 * @return value of position.
+	 */
+	public int value(long board) {
+
+		int sum = 0;
+
+		for (int chunk = 0, base = 0; chunk < chunks; chunk++, base += CHUNK_SIZE)
+			sum += chunkValues[base + (int) ((board >>> (chunk * BITS_PER_CHUNK)) & CHUNK_MASK)];
+
+		return sum;
+	}
+
+	/**
+	 * Get the same pagoda function rotated or reflected, the result is
+	 * also a pagoda function as the symmetry moves jumps onto jumps.
+	 *
+	 * @param symmetry symmetries of the board.
+	 * @param transform number of symmetry.
+	 *
+	 * @return transformed pagoda.
+	 */
+	public Pagoda transform(Symmetry symmetry, int transform) {
+
+		int[] image = new int[weights.length];
+
+		for (int hole = 0; hole < weights.length; hole++)
+			image[symmetry.transformHole(hole, transform)] = weights[hole];
+
+		return new Pagoda(symmetry.getGeometry(), image);
+	}
+
+	/** Get weight of a hole. */
+	public int getWeight(int hole) {
+		return weights[hole];
+	}
+}
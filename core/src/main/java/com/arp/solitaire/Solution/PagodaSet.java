@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import java.util.List;
+
+/**
+ * A list of pagoda functions checked against one target position, used
+ * by the solvers to stop searching positions which can not reach it.
+ *
+ * @author Adrian Panton
+ */
+public class PagodaSet {
+
+	public static final int NOT_PRUNED = -1;
+
+	private final Pagoda[] pagodas;
+
+	// Value of the target position for each pagoda.
+	private final int[] targetValues;
+
+	/**
+	 * Create a set of pagoda functions for a target position.
+	 *
+	 * @param pagodas pagoda functions to check, cheapest to prune first.
+	 * @param target position to be reached, normally one ball in a hole.
+	 */
+	public PagodaSet(List<Pagoda> pagodas, long target) {
+
+		this.pagodas = pagodas.toArray(new Pagoda[pagodas.size()]);
+
+		targetValues = new int[this.pagodas.length];
+
+		for (int n = 0; n < this.pagodas.length; n++)
+			targetValues[n] = this.pagodas[n].value(target);
+	}
+
+	/**
+	 * Find a pagoda function which shows a position can not reach the
+	 * target.
+	 *
+	 * @param board position to check.
+	 *
+	 * @return number of first pagoda that prunes the position or NOT_PRUNED.
+	 */
+	public int findPruning(long board) {
+
+		for (int n = 0; n < pagodas.length; n++)
+			if (pagodas[n].value(board) < targetValues[n])
+				return n;
+
+		return NOT_PRUNED;
+	}
+
+	/** Get number of pagoda functions in set. */
+	public int size() {
+		return pagodas.length;
+	}
+
+	/** Get a pagoda function from the set. */
+	public Pagoda getPagoda(int pagoda) {
+		return pagodas[pagoda];
+	}
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Finds a solution using every core. The first few levels of the
+ * search are split into fork join tasks, one for each jump, and each
+ * task below that searches depth first on its own. Positions which
+ * can not be solved are shared between the tasks through a
+ * concurrent transposition table, and positions which pagoda
+ * functions show can not reach the finish hole are not searched.
+ *
+ * @author Adrian Panton
+ */
+public class ParallelSolver {
+
+	// Number of jumps from the start position that are split into tasks.
+	public static final int DEFAULT_SPLIT_DEPTH = 4;
+
+	// Layout of holes and jumps on the board.
+	private final BoardGeometry geometry;
+
+	// Positions known to reach or not reach the finish hole.
+	private final ConcurrentTranspositionTable table;
+
+	private final ForkJoinPool pool;
+
+	private final long target; // Position with a single ball in the finish hole.
+
+	private int splitDepth = DEFAULT_SPLIT_DEPTH;
+
+	// Pagoda functions used to cut off positions.
+	private PagodaSet pagodas;
+
+	private final AtomicLong nodeCount = new AtomicLong(); // Positions searched by last solve.
+
+	// Number of positions cut off by each pagoda in last solve.
+	private AtomicLongArray pruneCounts;
+
+	// Set once any task reaches the target so the others can stop.
+	private volatile boolean solved;
+
+	/**
+	 * Create a solver for the English board.
+	 *
+	 * @param parallelism number of threads to search with.
+	 */
+	public ParallelSolver(int parallelism) {
+		this(BoardGeometry.ENGLISH, parallelism);
+	}
+
+	public ParallelSolver(BoardGeometry geometry, int parallelism) {
+		this(geometry, new ConcurrentTranspositionTable(geometry), parallelism);
+	}
+
+	/**
+	 * Create a solver which shares a table with other searches.
+	 *
+	 * @param geometry layout of board.
+	 * @param table positions already solved for the finish hole.
+	 * @param parallelism number of threads to search with.
+	 */
+	public ParallelSolver(BoardGeometry geometry, ConcurrentTranspositionTable table,
+			int parallelism) {
+
+		this.geometry = geometry;
+		this.table = table;
+
+		target = BoardGeometry.holeBit(table.getFinishHole());
+		pool = new ForkJoinPool(parallelism);
+
+		setPagodas(Pagoda.getLibrary(geometry));
+	}
+
+	/**
+	 * Now find a solution that leaves one ball in the finish hole
+	 * of the table.
+	 *
+	 * @param board position to solve from.
+	 *
+	 * @return list of moves to play or null if there is no solution.
+	 */
+	public List<SolutionMove> solve(long board) {
+
+		nodeCount.set(0);
+		pruneCounts = new AtomicLongArray(pagodas.size());
+		solved = false;
+
+		int[] path = pool.invoke(new SearchTask(board, 0, new int[geometry.getNumberOfHoles()]));
+
+		if (path == null)
+			return null;
+
+		return Solver.buildSolution(geometry, path, Long.bitCount(board) - 1);
+	}
+
+	/**
+	 * Check whether a position can still reach the finish hole.
+	 *
+	 * @param board position to check.
+	 *
+	 * @return true if position can be solved.
+	 */
+	public boolean isSolvable(long board) {
+
+		int known = table.get(board);
+
+		if (known != TranspositionTable.UNKNOWN)
+			return known == TranspositionTable.SOLVABLE;
+
+		return solve(board) != null;
+	}
+
+	/**
+	 * Set how many jumps from the start position are split into
+	 * separate tasks, more levels give better balancing for more
+	 * threads at the cost of more tasks.
+	 *
+	 * @param splitDepth number of levels to split.
+	 */
+	public void setSplitDepth(int splitDepth) {
+		this.splitDepth = splitDepth;
+	}
+
+	/**
+	 * Set the pagoda functions used to cut off positions, replacing
+	 * those known for the board.
+	 *
+	 * @param pagodaList pagoda functions to check, cheapest to prune first.
+	 */
+	public void setPagodas(List<Pagoda> pagodaList) {
+
+		pagodas = new PagodaSet(pagodaList, target);
+		pruneCounts = new AtomicLongArray(pagodas.size());
+	}
+
+	/**
+	 * Get number of positions a pagoda function cut off in the last solve.
+	 *
+	 * @param pagoda number of pagoda in list set.
+	 *
+	 * @return number of positions pruned.
+	 */
+	public long getPruneCount(int pagoda) {
+		return pruneCounts.get(pagoda);
+	}
+
+	/** Get pagoda functions used to cut off positions. */
+	public PagodaSet getPagodas() {
+		return pagodas;
+	}
+
+	/** Get number of threads used to search. */
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/** Get number of positions searched by the last solve. */
+	public long getNodeCount() {
+		return nodeCount.get();
+	}
+
+	/** Get table of positions solved. */
+	public ConcurrentTranspositionTable getTable() {
+		return table;
+	}
+
+	/** Now stop the search threads. */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Now time solving a position with one thread and with a number of
+	 * threads, each starting with an empty table.
+	 *
+	 * @param geometry layout of board.
+	 * @param board position to solve from.
+	 * @param parallelism number of threads for the parallel solve.
+	 *
+	 * @return single thread time divided by parallel time.
+	 */
+	public static double measureSpeedup(BoardGeometry geometry, long board, int parallelism) {
+
+		long start = System.nanoTime();
+		new Solver(geometry).solve(board);
+		long sequentialTime = System.nanoTime() - start;
+
+		ParallelSolver solver = new ParallelSolver(geometry, parallelism);
+
+		try {
+			start = System.nanoTime();
+			solver.solve(board);
+		} finally {
+			solver.shutdown();
+		}
+
+		long parallelTime = System.nanoTime() - start;
+
+		return (double) sequentialTime / parallelTime;
+	}
+
+	/**
+	 * Searches the positions below one position, either by splitting
+	 * into a task per jump or by searching depth first.
+	 */
+	private class SearchTask extends RecursiveTask<int[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long board;
+		private final int depth;
+		private final int[] path; // Jumps made to reach board, owned by this task.
+
+		private long nodes; // Positions searched by this task.
+		private long[] prunes; // Positions cut off by each pagoda in this task.
+
+		SearchTask(long board, int depth, int[] path) {
+			this.board = board;
+			this.depth = depth;
+			this.path = path;
+		}
+
+		@Override
+		protected int[] compute() {
+
+			if (depth >= splitDepth) {
+				prunes = new long[pagodas.size()];
+
+				boolean found = search(board, depth);
+				nodeCount.addAndGet(nodes);
+
+				for (int n = 0; n < prunes.length; n++)
+					if (prunes[n] != 0)
+						pruneCounts.addAndGet(n, prunes[n]);
+
+				return found ? path : null;
+			}
+
+			nodeCount.incrementAndGet();
+
+			if (board == target) {
+				solved = true;
+				return path;
+			}
+
+			int pagoda = pagodas.findPruning(board);
+
+			if (pagoda != PagodaSet.NOT_PRUNED) {
+				pruneCounts.incrementAndGet(pagoda);
+				return null;
+			}
+
+			long key = table.getSymmetry().canonical(board);
+
+			if (table.getCanonical(key) == TranspositionTable.UNSOLVABLE)
+				return null;
+
+			// Now create a task for each jump that can be made.
+			List<SearchTask> tasks = new ArrayList<>();
+
+			for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+				if (geometry.isLegal(board, jump)) {
+					int[] jumpPath = path.clone();
+					jumpPath[depth] = jump;
+
+					tasks.add(new SearchTask(geometry.makeJump(board, jump), depth + 1, jumpPath));
+				}
+			}
+
+			invokeAll(tasks);
+
+			for (SearchTask task : tasks) {
+				int[] found = task.join();
+
+				if (found != null) {
+					table.putCanonical(key, TranspositionTable.SOLVABLE);
+					return found;
+				}
+			}
+
+			// Only mark as unsolvable if no task stopped early.
+			if (!solved)
+				table.putCanonical(key, TranspositionTable.UNSOLVABLE);
+
+			return null;
+		}
+
+		/**
+		 * Search depth first for a line of jumps that reaches the target.
+		 *
+		 * @param board position to search from.
+		 * @param depth number of jumps made so far.
+		 *
+		 * @return true if target was reached, the jumps are left in path.
+		 */
+		private boolean search(long board, int depth) {
+
+			nodes++;
+
+			if (board == target) {
+				solved = true;
+				return true;
+			}
+
+			// Stop if another task has found a solution.
+			if (solved)
+				return false;
+
+			int pagoda = pagodas.findPruning(board);
+
+			if (pagoda != PagodaSet.NOT_PRUNED) {
+				prunes[pagoda]++;
+				return false;
+			}
+
+			long key = table.getSymmetry().canonical(board);
+
+			if (table.getCanonical(key) == TranspositionTable.UNSOLVABLE)
+				return false;
+
+			for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+				if (geometry.isLegal(board, jump)) {
+					path[depth] = jump;
+
+					if (search(geometry.makeJump(board, jump), depth + 1)) {
+						table.putCanonical(key, TranspositionTable.SOLVABLE);
+						return true;
+					}
+				}
+			}
+
+			// Only mark as unsolvable if search was not stopped early.
+			if (!solved)
+				table.putCanonical(key, TranspositionTable.UNSOLVABLE);
+
+			return false;
+		}
+	}
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BallGraphic;
+import com.arp.solitaire.Board.BoardGeometry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class which controls the movement when in solution mode.
+ *
+ * @author Adrian Panton
+ */
+public class SolutionControl {
+
+	// Longest the fewest move search may take before a solution from
+	// the solver is shown instead, in milliseconds.
+	public static final long FEWEST_MOVES_TIME_LIMIT = 3000;
+	
+	private static final boolean SOLUTION_ENDED = true;
+	private static final boolean  SOLUTION_NOT_ENDED = false;
+	
+	// Used to store the list of moves for solution to game.
+	private List<SolutionMove> solutionList = new ArrayList<>();
+	
+	// Layout of holes and jumps on the board.
+	private final BoardGeometry geometry;
+	
+	// Used to search for a solution from a position.
+	private final Solver solver;
+	
+	// Used to search for a solution with the fewest moves.
+	private final MinimumMoveSolver minimumMoveSolver;
+	
+	// Position the solution starts from.
+	private long startBoard;
+	
+	// Bit set for each hole that contains a ball.
+	private long board;
+	
+	private int solutionPointer; // Used to point to solution move within solution list.
+	
+	// If true solution reached the end.
+	private boolean solutionReachedEnd;
+
+	public SolutionControl() {
+		this(new TranspositionTable(BoardGeometry.ENGLISH));
+	}
+	
+	/**
+	 * Create solution control which shares a table of solved positions.
+	 * 
+	 * @param table positions already solved, also gives the board layout.
+	 */
+	public SolutionControl(TranspositionTable table) {
+		
+		geometry = table.getGeometry();
+		solver = new Solver(geometry, table);
+		
+		// The fewest move search keeps a table of its own.
+		minimumMoveSolver = new MinimumMoveSolver(
+				new TranspositionTable(geometry, table.getFinishHole()));
+		minimumMoveSolver.setTimeLimit(FEWEST_MOVES_TIME_LIMIT);
+		
+		// Show the start of a game until a solution has been found.
+		setSolution(geometry.getStartBoard(), new ArrayList<SolutionMove>());
+	}
+	
+	/**
+	 * Now search for a solution without changing the solution shown.
+	 * The solver shares its table, so this must run on the same thread
+	 * as everything else using the table. When the fewest move search
+	 * gives up the solver's solution is found instead, which
+	 * isFewestMovesStopped() tells.
+	 * 
+	 * @param board position to solve from.
+	 * @param fewestMoves true to search for the fewest moves, where any
+	 *                    number of jumps in a row by one ball count as
+	 *                    one move.
+	 * 
+	 * @return list of jumps or null if there is no solution.
+	 */
+	public List<SolutionMove> findSolution(long board, boolean fewestMoves) {
+		
+		if (fewestMoves) {
+			List<SolutionMove> solution = flatten(minimumMoveSolver.solve(board));
+			
+			if (!isFewestMovesStopped()) return solution;
+		}
+		
+		return solver.solve(board);
+	}
+	
+	/**
+	 * Check whether the last fewest move search gave up on reaching
+	 * its time limit.
+	 * 
+	 * @return true if the search was stopped.
+	 */
+	public boolean isFewestMovesStopped() {
+		return minimumMoveSolver.isStopped();
+	}
+	
+	/**
+	 * Now make a solution found by a search the solution to show.
+	 * 
+	 * @param board position the solution starts from.
+	 * @param solution list of jumps, empty to show just the position.
+	 */
+	public void setSolution(long board, List<SolutionMove> solution) {
+		
+		solutionList = solution;
+		startBoard = board;
+		
+		resetBalls();
+	}
+	
+	/**
+	 * Now join a solution split into moves back into a list of jumps.
+	 * 
+	 * @param moves list of moves, each a list of jumps, or null.
+	 * 
+	 * @return list of jumps or null if there were no moves.
+	 */
+	private static List<SolutionMove> flatten(List<List<SolutionMove>> moves) {
+		
+		if (moves == null) return null;
+		
+		List<SolutionMove> jumps = new ArrayList<>();
+		
+		for (List<SolutionMove> move : moves)
+			jumps.addAll(move);
+		
+		return jumps;
+	}
+	
+	/**
+	 * Set the database used by the fewest move search to check
+	 * positions can be solved.
+	 * 
+	 * @param database solvable positions or null.
+	 * @param startHole hole left empty at the start of the game solved.
+	 */
+	public void setSolvabilityDatabase(SolvabilityDatabase database, int startHole) {
+		minimumMoveSolver.setSolvabilityDatabase(database, startHole);
+	}
+	
+	/**
+	 * Now place balls into position at the start of the solution.
+	 */
+	public void resetBalls() {
+	
+		board = startBoard;
+			
+		solutionPointer = 0;
+		
+		// Check whether there are any moves to show.
+		if (solutionList.isEmpty())
+			solutionReachedEnd = SOLUTION_ENDED;
+		else
+			solutionReachedEnd = SOLUTION_NOT_ENDED;
+	}
+	
+	/**
+	 * Get a list of ball graphics.
+	 * 
+	 * @return list of ball graphics to display.
+	 */
+	public int[] getBallGraphicList() {
+		
+		return BallGraphic.toGraphicList(board, geometry.getNumberOfHoles());
+	}
+	
+	/**
+	 * Now fill a list of ball graphics for the solution position.
+	 * 
+	 * @param balls list with an entry for each hole.
+	 */
+	public void getBallGraphicList(int[] balls) {
+		BallGraphic.toGraphicList(board, balls);
+	}
+	
+	/**
+	 * Move solution forward by one move.
+	 */
+	public void forward() {
+	
+		// Check whether we reached the end of solution if so quit.
+		if (solutionReachedEnd == SOLUTION_ENDED) return;
+		
+		// Now set whether balls are present or not for this move.
+		SolutionMove move = solutionList.get(solutionPointer);
+		board &= ~(BoardGeometry.holeBit(move.getOldPosition()) | BoardGeometry.holeBit(move.getJumped()));
+		board |= BoardGeometry.holeBit(move.getNewPosition());
+		
+		solutionPointer ++; // Move forward one move in solution.
+		
+		// Check for end of solution list.
+		if (solutionPointer >= solutionList.size()) {
+			solutionPointer = solutionList.size() - 1;
+			solutionReachedEnd = SOLUTION_ENDED;
+		}
+	}
+	
+	/**
+	 * Move solution backward by one move.
+	 */
+	public void backward() {
+			
+		// Check whether there are any moves to go back over.
+		if (solutionList.isEmpty()) return;
+		
+		if (solutionReachedEnd == SOLUTION_ENDED ) {
+			solutionReachedEnd = SOLUTION_NOT_ENDED;
+			
+		} else {
+			solutionPointer --; // Move back one move in solution.
+		}
+		
+		// Check whether we reached the beginning of solution if so quit.
+		if (solutionPointer < 0) {
+			solutionPointer = 0;
+			return;
+		}
+				
+		// Now set whether balls are present or not for this move.
+		SolutionMove move = solutionList.get(solutionPointer);
+		board |= BoardGeometry.holeBit(move.getOldPosition()) | BoardGeometry.holeBit(move.getJumped());
+		board &= ~BoardGeometry.holeBit(move.getNewPosition());
+	
+	}
+	
+	/**
+	 * Move solution forward by one move, making every jump in a row
+	 * by the same ball.
+	 */
+	public void forwardMove() {
+		
+		int hole;
+		
+		do {
+			if (solutionReachedEnd == SOLUTION_ENDED) return;
+			
+			hole = solutionList.get(solutionPointer).getNewPosition();
+			forward();
+			
+		} while (solutionReachedEnd == SOLUTION_NOT_ENDED
+				&& solutionList.get(solutionPointer).getOldPosition() == hole);
+	}
+	
+	/**
+	 * Move solution backward by one move, taking back every jump in a
+	 * row by the same ball.
+	 */
+	public void backwardMove() {
+		
+		backward();
+		
+		// Carry on while the jump before finished where this one started.
+		while (solutionPointer > 0 && !solutionList.isEmpty()
+				&& solutionList.get(solutionPointer - 1).getNewPosition()
+						== solutionList.get(solutionPointer).getOldPosition())
+			backward();
+	}
+	
+	/**
+	 * Now get the current move to make next in the solution.
+	 *  
+	 * @return solution move to make next.
+	 */
+	public SolutionMove getCurrentMove() {
+		return solutionList.get(solutionPointer);
+	}
+	
+	/**
+	 * Get a move from the solution.
+	 * 
+	 * @param moveNumber number of move from start of solution.
+	 * 
+	 * @return solution move.
+	 */
+	public SolutionMove getMove(int moveNumber) {
+		return solutionList.get(moveNumber);
+	}
+	
+	/**
+	 * Get whether solution reached the end.
+	 * 
+	 * @return true is reached the end.
+	 */
+	public boolean isSolutionFinished() {
+		return solutionReachedEnd;
+	}
+	
+	/** Get number of solution moves that been made. */
+	public int getMovesPlayed() {
+		
+		if (solutionReachedEnd == SOLUTION_ENDED)
+			return solutionList.size();
+		
+		return solutionPointer;
+	}
+	
+	/** Get number of balls left on board. */
+	public int getBallCount() {
+		return Long.bitCount(board);
+	}
+	
+	public int getSolutionPointer() {
+		return solutionPointer;
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+/**
+ * Remembers the number of solutions from each position searched by the
+ * solution counter. Counts are held as 128 bit numbers split into a
+ * high and low long. The table is split into segments each with its
+ * own lock so many threads can use it at once.
+ *
+ * @author Adrian Panton
+ */
+class SolutionCountTable {
+
+	private static final int SEGMENT_BITS = 6;
+	private static final int NUMBER_OF_SEGMENTS = 1 << SEGMENT_BITS;
+
+	private static final int INITIAL_CAPACITY = 1 << 12; // Slots in each segment.
+
+	private final Segment[] segments = new Segment[NUMBER_OF_SEGMENTS];
+
+	SolutionCountTable() {
+		clear();
+	}
+
+	/**
+	 * Get the number of solutions from a position.
+	 *
+	 * @param key canonical position.
+	 * @param count set to the high and low longs of the count if found.
+	 *
+	 * @return true if position is in table.
+	 */
+	boolean get(long key, long[] count) {
+
+		long hash = hash(key);
+		return segments[(int) (hash >>> (64 - SEGMENT_BITS))].get(key, (int) hash, count);
+	}
+
+	/**
+	 * Now store the number of solutions from a position.
+	 *
+	 * @param key canonical position.
+	 * @param countHigh high long of count.
+	 * @param countLow low long of count.
+	 */
+	void put(long key, long countHigh, long countLow) {
+
+		long hash = hash(key);
+		segments[(int) (hash >>> (64 - SEGMENT_BITS))].put(key, (int) hash, countHigh, countLow);
+	}
+
+	/** Get number of positions stored. */
+	int size() {
+
+		int size = 0;
+
+		for (Segment segment : segments)
+			size += segment.size();
+
+		return size;
+	}
+
+	/** Now remove all positions from the table. */
+	void clear() {
+
+		for (int n = 0; n < NUMBER_OF_SEGMENTS; n++)
+			segments[n] = new Segment();
+	}
+
+	/** Spread the bits of a position over the table. */
+	private static long hash(long key) {
+
+		long h = key * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 29);
+	}
+
+	/**
+	 * Part of the table with its own lock, using open addressing. Slots
+	 * in use are marked apart from their keys, as every key including
+	 * 0 for no balls can be a position.
+	 */
+	private static class Segment {
+
+		private boolean[] used = new boolean[INITIAL_CAPACITY];
+		private long[] keys = new long[INITIAL_CAPACITY];
+		private long[] highs = new long[INITIAL_CAPACITY];
+		private long[] lows = new long[INITIAL_CAPACITY];
+
+		private int size;
+
+		synchronized boolean get(long key, int hash, long[] count) {
+
+			int mask = keys.length - 1;
+
+			for (int slot = hash & mask; used[slot]; slot = (slot + 1) & mask) {
+				if (keys[slot] == key) {
+					count[0] = highs[slot];
+					count[1] = lows[slot];
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		synchronized void put(long key, int hash, long countHigh, long countLow) {
+
+			// Keep segment no more than half full.
+			if (size * 2 >= keys.length)
+				resize();
+
+			int mask = keys.length - 1;
+			int slot = hash & mask;
+
+			while (used[slot] && keys[slot] != key)
+				slot = (slot + 1) & mask;
+
+			if (!used[slot])
+				size++;
+
+			used[slot] = true;
+			keys[slot] = key;
+			highs[slot] = countHigh;
+			lows[slot] = countLow;
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		/** Now double the size of the segment. */
+		private void resize() {
+
+			boolean[] oldUsed = used;
+			long[] oldKeys = keys;
+			long[] oldHighs = highs;
+			long[] oldLows = lows;
+
+			used = new boolean[oldKeys.length * 2];
+			keys = new long[used.length];
+			highs = new long[keys.length];
+			lows = new long[keys.length];
+
+			int mask = keys.length - 1;
+
+			for (int n = 0; n < oldKeys.length; n++) {
+				if (!oldUsed[n]) continue;
+
+				int slot = (int) hash(oldKeys[n]) & mask;
+				while (used[slot])
+					slot = (slot + 1) & mask;
+
+				used[slot] = true;
+				keys[slot] = oldKeys[n];
+				highs[slot] = oldHighs[n];
+				lows[slot] = oldLows[n];
+			}
+		}
+	}
+}
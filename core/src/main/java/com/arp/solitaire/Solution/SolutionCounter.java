@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BallGraphic;
+import com.arp.solitaire.Board.BoardGeometry;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the number of different lines of jumps which solve a
+ * position, used as a measure of how hard the position is. The count
+ * for every position searched is remembered, so positions reached by
+ * many lines and any symmetric images of them are only counted once.
+ * The counts are kept as 128 bit numbers as the count from the start
+ * is over 10 to the power 16.
+ *
+ * The first few levels of the count are split into fork join tasks
+ * which share the remembered counts, and positions which pagoda
+ * functions show can not be solved count as zero without searching.
+ *
+ * @author Adrian Panton
+ */
+public class SolutionCounter {
+
+	// Number of jumps from the position counted that are split into tasks.
+	public static final int DEFAULT_SPLIT_DEPTH = 3;
+
+	// Layout of holes and jumps on the board.
+	private final BoardGeometry geometry;
+
+	// Symmetries which leave the finish hole in place.
+	private final Symmetry symmetry;
+
+	private final PagodaSet pagodas;
+
+	private final long target; // Position with a single ball in the finish hole.
+
+	// Number of solutions from each position counted.
+	private final SolutionCountTable table = new SolutionCountTable();
+
+	private final ForkJoinPool pool;
+
+	private int splitDepth = DEFAULT_SPLIT_DEPTH;
+
+	/**
+	 * Create a counter for the English board finishing in the middle hole.
+	 *
+	 * @param parallelism number of threads to count with.
+	 */
+	public SolutionCounter(int parallelism) {
+		this(BoardGeometry.ENGLISH, BoardGeometry.ENGLISH.getMiddleHole(), parallelism);
+	}
+
+	/**
+	 * Create a counter for solutions finishing in a hole.
+	 *
+	 * @param geometry layout of board.
+	 * @param finishHole hole the last ball should finish in.
+	 * @param parallelism number of threads to count with.
+	 */
+	public SolutionCounter(BoardGeometry geometry, int finishHole, int parallelism) {
+
+		this.geometry = geometry;
+
+		target = BoardGeometry.holeBit(finishHole);
+		symmetry = new Symmetry(geometry, finishHole);
+		pagodas = new PagodaSet(Pagoda.getLibrary(geometry), target);
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Now count the solutions from a position.
+	 *
+	 * @param board position to count from.
+	 *
+	 * @return number of different lines of jumps which solve position.
+	 */
+	public BigInteger count(long board) {
+
+		long[] count = pool.invoke(new CountTask(board, 0));
+
+		return toBigInteger(count[0], count[1]);
+	}
+
+	/**
+	 * Now count the solutions from a position given as a list of ball
+	 * graphics, as used by the game and saved games.
+	 *
+	 * @param ballGraphicList graphic for each hole.
+	 *
+	 * @return number of different lines of jumps which solve position.
+	 */
+	public BigInteger count(int[] ballGraphicList) {
+		return count(BallGraphic.toBoard(ballGraphicList));
+	}
+
+	/**
+	 * Set how many jumps from the position counted are split into
+	 * separate tasks.
+	 *
+	 * @param splitDepth number of levels to split.
+	 */
+	public void setSplitDepth(int splitDepth) {
+		this.splitDepth = splitDepth;
+	}
+
+	/** Get number of positions whose count is remembered. */
+	public int getMemoSize() {
+		return table.size();
+	}
+
+	/** Now forget all remembered counts. */
+	public void clearMemo() {
+		table.clear();
+	}
+
+	/** Now stop the counting threads. */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Now turn a 128 bit count into a big integer.
+	 *
+	 * @param high top 64 bits of count.
+	 * @param low bottom 64 bits of count, unsigned.
+	 *
+	 * @return count.
+	 */
+	private static BigInteger toBigInteger(long high, long low) {
+
+		BigInteger count = BigInteger.valueOf(high).shiftLeft(64);
+
+		// Add low as an unsigned number.
+		BigInteger lowCount = BigInteger.valueOf(low & Long.MAX_VALUE);
+		if (low < 0)
+			lowCount = lowCount.setBit(63);
+
+		return count.add(lowCount);
+	}
+
+	/**
+	 * Counts the solutions below one position, either by splitting into
+	 * a task per jump or by searching depth first.
+	 */
+	private class CountTask extends RecursiveTask<long[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long board;
+		private final int depth;
+
+		// Counts for each depth of the depth first search, the count for
+		// a position is left in the entry for its depth.
+		private long[] highs;
+		private long[] lows;
+
+		// Used to read counts from the table.
+		private final long[] found = new long[2];
+
+		CountTask(long board, int depth) {
+			this.board = board;
+			this.depth = depth;
+		}
+
+		@Override
+		protected long[] compute() {
+
+			if (depth >= splitDepth) {
+				int levels = Long.bitCount(board) + 1;
+				highs = new long[levels];
+				lows = new long[levels];
+
+				count(board, 0);
+
+				return new long[] { highs[0], lows[0] };
+			}
+
+			if (board == target)
+				return new long[] { 0, 1 };
+
+			if (pagodas.findPruning(board) != PagodaSet.NOT_PRUNED)
+				return new long[] { 0, 0 };
+
+			long key = symmetry.canonical(board);
+
+			if (table.get(key, found))
+				return new long[] { found[0], found[1] };
+
+			// Now create a task for each jump that can be made.
+			List<CountTask> tasks = new ArrayList<>();
+
+			for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++)
+				if (geometry.isLegal(board, jump))
+					tasks.add(new CountTask(geometry.makeJump(board, jump), depth + 1));
+
+			invokeAll(tasks);
+
+			long high = 0;
+			long low = 0;
+
+			for (CountTask task : tasks) {
+				long[] count = task.join();
+
+				long sum = low + count[1];
+				if ((sum ^ Long.MIN_VALUE) < (low ^ Long.MIN_VALUE))
+					high++; // Carry into high long.
+
+				low = sum;
+				high += count[0];
+			}
+
+			table.put(key, high, low);
+
+			return new long[] { high, low };
+		}
+
+		/**
+		 * Count the solutions from a position depth first.
+		 *
+		 * @param board position to count from.
+		 * @param level entry in highs and lows to leave the count in.
+		 */
+		private void count(long board, int level) {
+
+			if (board == target) {
+				highs[level] = 0;
+				lows[level] = 1;
+				return;
+			}
+
+			if (pagodas.findPruning(board) != PagodaSet.NOT_PRUNED) {
+				highs[level] = 0;
+				lows[level] = 0;
+				return;
+			}
+
+			long key = symmetry.canonical(board);
+
+			if (table.get(key, found)) {
+				highs[level] = found[0];
+				lows[level] = found[1];
+				return;
+			}
+
+			long high = 0;
+			long low = 0;
+
+			for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+				if (geometry.isLegal(board, jump)) {
+					count(geometry.makeJump(board, jump), level + 1);
+
+					long sum = low + lows[level + 1];
+					if ((sum ^ Long.MIN_VALUE) < (low ^ Long.MIN_VALUE))
+						high++; // Carry into high long.
+
+					low = sum;
+					high += highs[level + 1];
+				}
+			}
+
+			table.put(key, high, low);
+
+			highs[level] = high;
+			lows[level] = low;
+		}
+	}
+}
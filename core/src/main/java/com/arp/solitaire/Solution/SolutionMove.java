@@ -26,24 +26,24 @@ public class SolutionMove {
 	private int oldPosition;	 // Place where ball was before move.
 	private int jumped;      // The ball that was jumped to move to new position.
 	private int newPosition; // Place to where ball was move to.
-	private int arrowDirection; // Direction to point to make the move.
+	private int direction;   // Direction of jump, one of the BoardGeometry directions.
 	
 	/* Setter routines. */
 	
-	void setOldPosition(int oldPosition) {
+	public void setOldPosition(int oldPosition) {
 		this.oldPosition = oldPosition;
 	}
 	
-	void setJumped(int jumped) {
+	public void setJumped(int jumped) {
 		this.jumped = jumped;
 	}
 	
-	void setNewPosition(int newPosition) {
+	public void setNewPosition(int newPosition) {
 		this.newPosition = newPosition;
 	}
 	
-	void setArrowDirection(int arrowDirection) {
-		this.arrowDirection = arrowDirection;
+	public void setDirection(int direction) {
+		this.direction = direction;
 	}
 	
 	/* Getter routines. */
@@ -56,11 +56,11 @@ public class SolutionMove {
 		return jumped;
 		}
 		
-	int getNewPosition() {
+	public int getNewPosition() {
 		return newPosition;
 	}
 
-	public int getArrowDirection() {
-		return arrowDirection;
+	public int getDirection() {
+		return direction;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Answers whether a position reachable from the start can still finish
+ * with one ball in the finish hole, by looking it up in a file made by
+ * the analysis generator rather than searching.
+ *
+ * The file holds the canonical form of every solvable reachable
+ * position, grouped by number of balls and sorted within each group.
+ * Positions are only reachable from the start hole the file was made
+ * for, so it answers nothing about games starting anywhere else.
+ * It is memory mapped so only the pages a lookup touches are read.
+ *
+ * @author Adrian Panton
+ */
+public class SolvabilityDatabase {
+
+	// Identifies a solvability file, the bytes "PSDB".
+	private static final int MAGIC = 0x50534442;
+	private static final int VERSION = 3;
+
+	// Magic, version, number of holes, columns, rows, start hole and
+	// finish hole, with the column and row of each hole after the rows
+	// and the number of keys for each number of balls at the end.
+	private static final int HEADER_SIZE = 7 * 4;
+	private static final int HOLE_SIZE = 2 * 4;
+	private static final int KEY_SIZE = 8;
+
+	private final ByteBuffer keys;
+
+	private final Symmetry symmetry;
+	private final int startHole;
+	private final int finishHole;
+
+	// Index of first key for each number of balls, with one extra
+	// entry holding the total number of keys.
+	private final int[] layerStart;
+
+	private SolvabilityDatabase(BoardGeometry geometry, int startHole, int finishHole,
+			int[] layerStart, ByteBuffer keys) {
+
+		this.startHole = startHole;
+		this.finishHole = finishHole;
+		this.layerStart = layerStart;
+		this.keys = keys;
+
+		symmetry = new Symmetry(geometry, finishHole);
+	}
+
+	/**
+	 * Now map a solvability file into memory.
+	 *
+	 * @param file made by write().
+	 * @param geometry layout of board the file was made for.
+	 *
+	 * @return database ready for lookups.
+	 *
+	 * @throws IOException if file can not be read or is not for this board.
+	 */
+	public static SolvabilityDatabase open(File file, BoardGeometry geometry) throws IOException {
+
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+		try {
+			FileChannel channel = raf.getChannel();
+
+			// The mapping stays valid once the file is closed.
+			return open(channel, 0, channel.size(), geometry);
+
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Now map a solvability file held within a larger file into memory,
+	 * such as an uncompressed asset in the app package.
+	 *
+	 * @param channel open on the file holding the database.
+	 * @param offset of the database within the file.
+	 * @param length of the database in bytes.
+	 * @param geometry layout of board the file was made for.
+	 *
+	 * @return database ready for lookups.
+	 *
+	 * @throws IOException if file can not be read or is not for this board.
+	 */
+	public static SolvabilityDatabase open(FileChannel channel, long offset, long length,
+			BoardGeometry geometry) throws IOException {
+
+		ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+
+		int holes = geometry.getNumberOfHoles();
+
+		if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC
+				|| buffer.getInt() != VERSION)
+			throw new IOException("Not a solvability file");
+
+		if (buffer.getInt() != holes || !isLayoutOf(buffer, geometry))
+			throw new IOException("Solvability file is for another board");
+
+		if (buffer.remaining() < 2 * 4 + (holes + 1) * 4)
+			throw new IOException("Solvability file is truncated");
+
+		int startHole = buffer.getInt();
+		int finishHole = buffer.getInt();
+
+		if (startHole < 0 || startHole >= holes || finishHole < 0 || finishHole >= holes)
+			throw new IOException("Solvability file has no such hole");
+
+		// Number of keys for each number of balls.
+		int[] layerStart = new int[holes + 2];
+
+		for (int balls = 0; balls <= holes; balls++)
+			layerStart[balls + 1] = layerStart[balls] + buffer.getInt();
+
+		if (buffer.remaining() != (long) layerStart[holes + 1] * KEY_SIZE)
+			throw new IOException("Solvability file is truncated");
+
+		return new SolvabilityDatabase(geometry, startHole, finishHole, layerStart,
+				buffer.slice());
+	}
+
+	/**
+	 * Now write a solvability file.
+	 *
+	 * @param file to write to.
+	 * @param geometry layout of board.
+	 * @param startHole hole left empty at the start of the game.
+	 * @param finishHole hole the last ball should finish in.
+	 * @param layers sorted canonical solvable positions for each number of balls.
+	 *
+	 * @throws IOException if file can not be written.
+	 */
+	public static void write(File file, BoardGeometry geometry, int startHole, int finishHole,
+			long[][] layers) throws IOException {
+
+		DataOutputStream dos = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+
+		try {
+			dos.writeInt(MAGIC);
+			dos.writeInt(VERSION);
+			dos.writeInt(geometry.getNumberOfHoles());
+			dos.writeInt(geometry.getColumns());
+			dos.writeInt(geometry.getRows());
+
+			for (int hole = 0; hole < geometry.getNumberOfHoles(); hole++) {
+				dos.writeInt(geometry.getColumn(hole));
+				dos.writeInt(geometry.getRow(hole));
+			}
+
+			dos.writeInt(startHole);
+			dos.writeInt(finishHole);
+
+			for (long[] layer : layers)
+				dos.writeInt(layer.length);
+
+			for (long[] layer : layers)
+				for (long key : layer)
+					dos.writeLong(key);
+
+		} finally {
+			dos.close();
+		}
+	}
+
+	/**
+	 * Now read the layout of the board a file was made for and check it
+	 * matches, a board with the same number of holes in other places
+	 * numbers its holes differently so the positions would mean nothing.
+	 *
+	 * @param buffer positioned after the number of holes.
+	 * @param geometry layout of board the file should be for.
+	 *
+	 * @return true if every hole is in the same place.
+	 */
+	private static boolean isLayoutOf(ByteBuffer buffer, BoardGeometry geometry) {
+
+		int holes = geometry.getNumberOfHoles();
+
+		if (buffer.remaining() < 2 * 4 + holes * HOLE_SIZE)
+			return false;
+
+		if (buffer.getInt() != geometry.getColumns() || buffer.getInt() != geometry.getRows())
+			return false;
+
+		for (int hole = 0; hole < holes; hole++)
+			if (buffer.getInt() != geometry.getColumn(hole) || buffer.getInt() != geometry.getRow(hole))
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Check whether a position can still reach the finish hole, the
+	 * answer is only meaningful for positions reachable from the start.
+	 *
+	 * @param board position to check.
+	 *
+	 * @return true if position can be solved.
+	 */
+	public boolean isSolvable(long board) {
+
+		long key = symmetry.canonical(board);
+		int balls = Long.bitCount(board);
+
+		// Binary search the keys with this number of balls.
+		int low = layerStart[balls];
+		int high = layerStart[balls + 1] - 1;
+
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long midKey = keys.getLong(mid * KEY_SIZE);
+
+			if (midKey < key)
+				low = mid + 1;
+			else if (midKey > key)
+				high = mid - 1;
+			else
+				return true;
+		}
+
+		return false;
+	}
+
+	/** Get hole left empty at the start of the games the positions are reachable from. */
+	public int getStartHole() {
+		return startHole;
+	}
+
+	/** Get hole the positions are solved to. */
+	public int getFinishHole() {
+		return finishHole;
+	}
+
+	/**
+	 * Check whether the database answers for a puzzle, it only holds
+	 * positions reachable from its own start hole.
+	 *
+	 * @param startHole hole left empty at the start.
+	 * @param finishHole hole the last ball should finish in.
+	 *
+	 * @return true if made for this start and finish hole.
+	 */
+	public boolean isFor(int startHole, int finishHole) {
+		return startHole == this.startHole && finishHole == this.finishHole;
+	}
+
+	/** Get number of solvable positions held. */
+	public int size() {
+		return layerStart[layerStart.length - 1];
+	}
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds a solution from any position on the board using a depth
+ * first search. What is learnt about each position is kept in a
+ * transposition table so no position, or any symmetric image of it,
+ * is searched twice. Positions which pagoda functions show can not
+ * reach the finish hole are not searched at all.
+ *
+ * @author Adrian Panton
+ */
+public class Solver {
+
+	// Layout of holes and jumps on the board.
+	private final BoardGeometry geometry;
+
+	// Positions known to reach or not reach the finish hole, shared
+	// with other routines and never replaced.
+	private final TranspositionTable table;
+
+	// Tables kept by the solver for other finish holes, by hole.
+	private final Map<Integer, TranspositionTable> otherTables = new HashMap<>();
+
+	// Table for the hole being searched for, the shared table or one
+	// of the other tables.
+	private TranspositionTable searchTable;
+
+	// Jumps made along the line currently being searched.
+	private final int[] path;
+
+	private long target; // Position with a single ball in the finish hole.
+
+	// Pagoda functions used to cut off positions.
+	private List<Pagoda> pagodaList;
+	private PagodaSet pagodas;
+
+	private long nodeCount; // Number of positions searched by last solve.
+
+	// Number of positions cut off by each pagoda in last solve.
+	private long[] pruneCounts;
+
+	public Solver() {
+		this(BoardGeometry.ENGLISH);
+	}
+
+	public Solver(BoardGeometry geometry) {
+		this(geometry, new TranspositionTable(geometry));
+	}
+
+	/**
+	 * Create a solver which shares a table with other routines.
+	 *
+	 * @param geometry layout of board.
+	 * @param table positions already solved for the finish hole.
+	 */
+	public Solver(BoardGeometry geometry, TranspositionTable table) {
+
+		this.geometry = geometry;
+		this.table = table;
+
+		searchTable = table;
+		target = BoardGeometry.holeBit(table.getFinishHole());
+		path = new int[geometry.getNumberOfHoles()];
+
+		setPagodas(Pagoda.getLibrary(geometry));
+	}
+
+	/**
+	 * Now find a solution that leaves one ball in the finish hole
+	 * of the table, normally the middle hole.
+	 *
+	 * @param board position to solve from.
+	 *
+	 * @return list of moves to play or null if there is no solution.
+	 */
+	public List<SolutionMove> solve(long board) {
+		return solve(board, table.getFinishHole());
+	}
+
+	/**
+	 * Now find a solution that leaves one ball in a hole. The shared
+	 * table is only used when the hole is its finish hole, any other
+	 * hole is searched with a table of its own kept by the solver.
+	 *
+	 * @param board position to solve from.
+	 * @param finishHole hole the last ball should finish in.
+	 *
+	 * @return list of moves to play or null if there is no solution.
+	 */
+	public List<SolutionMove> solve(long board, int finishHole) {
+
+		setFinishHole(finishHole);
+
+		resetCounts();
+
+		if (!search(board, 0))
+			return null;
+
+		// Number of jumps is the number of balls removed.
+		return buildSolution(geometry, path, Long.bitCount(board) - 1);
+	}
+
+	/**
+	 * Now turn a list of jump numbers into solution moves.
+	 *
+	 * @param geometry layout of board.
+	 * @param path jump numbers in the order they are made.
+	 * @param jumps number of jumps in path.
+	 *
+	 * @return list of moves to play.
+	 */
+	static List<SolutionMove> buildSolution(BoardGeometry geometry, int[] path, int jumps) {
+
+		List<SolutionMove> solution = new ArrayList<>(jumps);
+
+		for (int n = 0; n < jumps; n++) {
+			int jump = path[n];
+
+			SolutionMove move = new SolutionMove();
+			move.setOldPosition(geometry.getFrom(jump));
+			move.setJumped(geometry.getOver(jump));
+			move.setNewPosition(geometry.getTo(jump));
+			move.setDirection(geometry.getDirection(jump));
+
+			solution.add(move);
+		}
+
+		return solution;
+	}
+
+	/**
+	 * Check whether a position can still reach the finish hole of
+	 * the shared table.
+	 *
+	 * @param board position to check.
+	 *
+	 * @return true if position can be solved.
+	 */
+	public boolean isSolvable(long board) {
+
+		setFinishHole(table.getFinishHole());
+
+		int known = table.get(board);
+
+		if (known != TranspositionTable.UNKNOWN)
+			return known == TranspositionTable.SOLVABLE;
+
+		resetCounts();
+
+		return search(board, 0);
+	}
+
+	/**
+	 * Set the pagoda functions used to cut off positions, replacing
+	 * those known for the board.
+	 *
+	 * @param pagodaList pagoda functions to check, cheapest to prune first.
+	 */
+	public void setPagodas(List<Pagoda> pagodaList) {
+
+		this.pagodaList = pagodaList;
+
+		pagodas = new PagodaSet(pagodaList, target);
+		pruneCounts = new long[pagodas.size()];
+	}
+
+	/**
+	 * Get number of positions a pagoda function cut off in the last solve.
+	 *
+	 * @param pagoda number of pagoda in list set.
+	 *
+	 * @return number of positions pruned.
+	 */
+	public long getPruneCount(int pagoda) {
+		return pruneCounts[pagoda];
+	}
+
+	/** Get pagoda functions used to cut off positions. */
+	public PagodaSet getPagodas() {
+		return pagodas;
+	}
+
+	/** Get number of positions searched by the last solve. */
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/** Get shared table of positions solved for its finish hole. */
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	/**
+	 * Set the hole to finish in, searching with the shared table if it
+	 * was built for the hole or else the solver's own table for it.
+	 *
+	 * @param finishHole hole the last ball should finish in.
+	 */
+	private void setFinishHole(int finishHole) {
+
+		if (finishHole == searchTable.getFinishHole())
+			return;
+
+		if (finishHole == table.getFinishHole()) {
+			searchTable = table;
+		} else {
+			searchTable = otherTables.get(finishHole);
+
+			if (searchTable == null) {
+				searchTable = new TranspositionTable(geometry, finishHole);
+				otherTables.put(finishHole, searchTable);
+			}
+		}
+
+		target = BoardGeometry.holeBit(finishHole);
+		pagodas = new PagodaSet(pagodaList, target);
+	}
+
+	/** Now clear the counts kept for the last solve. */
+	private void resetCounts() {
+
+		nodeCount = 0;
+
+		for (int n = 0; n < pruneCounts.length; n++)
+			pruneCounts[n] = 0;
+	}
+
+	/**
+	 * Search for a line of jumps that reaches the target.
+	 *
+	 * @param board position to search from.
+	 * @param depth number of jumps made so far.
+	 *
+	 * @return true if target was reached, the jumps are left in path.
+	 */
+	private boolean search(long board, int depth) {
+
+		nodeCount++;
+
+		if (board == target)
+			return true;
+
+		int pagoda = pagodas.findPruning(board);
+
+		if (pagoda != PagodaSet.NOT_PRUNED) {
+			pruneCounts[pagoda]++;
+			return false;
+		}
+
+		long key = searchTable.getSymmetry().canonical(board);
+
+		if (searchTable.getCanonical(key) == TranspositionTable.UNSOLVABLE)
+			return false;
+
+		for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+			if (geometry.isLegal(board, jump)) {
+				path[depth] = jump;
+
+				if (search(geometry.makeJump(board, jump), depth + 1)) {
+					searchTable.putCanonical(key, TranspositionTable.SOLVABLE);
+					return true;
+				}
+			}
+		}
+
+		searchTable.putCanonical(key, TranspositionTable.UNSOLVABLE);
+
+		return false;
+	}
+}
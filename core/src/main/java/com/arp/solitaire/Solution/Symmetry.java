@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+/**
+ * Maps a board position to the smallest of its rotated and reflected
+ * images so positions that are the same apart from symmetry share one
+ * key. Each image is built a byte of holes at a time from tables made
+ * when the board is first used.
+ *
+ * @author Adrian Panton
+ */
+public class Symmetry {
+
+	// Number of rotations and reflections of a square.
+	public static final int NUMBER_OF_TRANSFORMS = 8;
+
+	private static final int NO_HOLE = -1;
+
+	private static final int BITS_PER_CHUNK = 8;
+	private static final int CHUNK_SIZE = 1 << BITS_PER_CHUNK;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private final BoardGeometry geometry;
+
+	private final int chunks; // Number of bytes a position is split into.
+
+	// Number of transforms that map the board onto itself.
+	private final int numberOfTransforms;
+
+	// Hole each hole moves to for each transform.
+	private final int[][] holeMap;
+
+	// Image of every byte value for each transform and byte position,
+	// index is (transform * chunks + chunk) * CHUNK_SIZE + byte.
+	private final long[] chunkImages;
+
+	/**
+	 * Now build tables for every symmetry of the board.
+	 *
+	 * @param geometry layout of board.
+	 */
+	public Symmetry(BoardGeometry geometry) {
+		this(geometry, NO_HOLE);
+	}
+
+	/**
+	 * Now build tables for the symmetries of the board which leave a
+	 * hole in place, used when the finish hole is not in the middle.
+	 *
+	 * @param geometry layout of board.
+	 * @param fixedHole hole that must not move or NO_HOLE.
+	 *
+	 * @throws IllegalArgumentException if board positions do not fit in a long.
+	 */
+	public Symmetry(BoardGeometry geometry, int fixedHole) {
+
+		if (geometry.isWide())
+			throw new IllegalArgumentException("Board with " + geometry.getNumberOfHoles()
+					+ " holes is too large to solve");
+
+		this.geometry = geometry;
+
+		int holes = geometry.getNumberOfHoles();
+
+		int columns = geometry.getColumns();
+		int rows = geometry.getRows();
+
+		int[] gridHoles = new int[columns * rows];
+		for (int n = 0; n < gridHoles.length; n++)
+			gridHoles[n] = NO_HOLE;
+		for (int n = 0; n < holes; n++)
+			gridHoles[geometry.getRow(n) * columns + geometry.getColumn(n)] = n;
+
+		// Keep only transforms which move every hole onto another hole.
+		int[][] maps = new int[NUMBER_OF_TRANSFORMS][];
+		int found = 0;
+
+		for (int transform = 0; transform < NUMBER_OF_TRANSFORMS; transform++) {
+			int[] map = new int[holes];
+
+			for (int n = 0; n < holes && map != null; n++) {
+				int to = transformHole(gridHoles, columns, rows, geometry.getColumn(n),
+						geometry.getRow(n), transform);
+
+				if (to == NO_HOLE || (n == fixedHole && to != n))
+					map = null;
+				else
+					map[n] = to;
+			}
+
+			if (map != null)
+				maps[found++] = map;
+		}
+
+		numberOfTransforms = found;
+		holeMap = new int[found][];
+		System.arraycopy(maps, 0, holeMap, 0, found);
+
+		// Now work out the image of every byte of a position.
+		chunks = (holes + BITS_PER_CHUNK - 1) / BITS_PER_CHUNK;
+		chunkImages = new long[found * chunks * CHUNK_SIZE];
+
+		for (int transform = 0; transform < found; transform++) {
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				int base = (transform * chunks + chunk) * CHUNK_SIZE;
+
+				for (int value = 0; value < CHUNK_SIZE; value++) {
+					long image = 0;
+
+					for (int bit = 0; bit < BITS_PER_CHUNK; bit++) {
+						int hole = chunk * BITS_PER_CHUNK + bit;
+
+						if ((value & (1 << bit)) != 0 && hole < holes)
+							image |= BoardGeometry.holeBit(holeMap[transform][hole]);
+					}
+
+					chunkImages[base + value] = image;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the image of a position under one of the board symmetries.
+	 *
+	 * @param board position to transform.
+	 * @param transform number of symmetry, 0 is always no change.
+	 *
+	 * @return transformed position.
+	 */
+	public long transform(long board, int transform) {
+
+		long image = 0;
+		int base = transform * chunks * CHUNK_SIZE;
+
+		for (int chunk = 0; chunk < chunks; chunk++, base += CHUNK_SIZE)
+			image |= chunkImages[base + (int) ((board >>> (chunk * BITS_PER_CHUNK)) & CHUNK_MASK)];
+
+		return image;
+	}
+
+	/**
+	 * Get the smallest image of a position under the board symmetries,
+	 * positions which are symmetric to each other share this value.
+	 *
+	 * @param board position to canonicalize.
+	 *
+	 * @return canonical position.
+	 */
+	public long canonical(long board) {
+
+		long smallest = board;
+
+		for (int transform = 1; transform < numberOfTransforms; transform++) {
+			long image = transform(board, transform);
+
+			if (image < smallest)
+				smallest = image;
+		}
+
+		return smallest;
+	}
+
+	/**
+	 * Get the hole a hole moves to under a symmetry.
+	 *
+	 * @param hole number of hole.
+	 * @param transform number of symmetry.
+	 *
+	 * @return number of hole moved to.
+	 */
+	public int transformHole(int hole, int transform) {
+		return holeMap[transform][hole];
+	}
+
+	/** Get layout of board. */
+	public BoardGeometry getGeometry() {
+		return geometry;
+	}
+
+	/** Get number of symmetries of the board. */
+	public int getNumberOfTransforms() {
+		return numberOfTransforms;
+	}
+
+	/**
+	 * Find the hole a grid position moves to under a rotation or
+	 * reflection of the grid. Transforms which swap columns and rows
+	 * only fit a square grid.
+	 *
+	 * @return hole number or NO_HOLE if there is no hole there.
+	 */
+	private static int transformHole(int[] gridHoles, int columns, int rows, int column,
+			int row, int transform) {
+
+		int lastColumn = columns - 1;
+		int lastRow = rows - 1;
+		int newColumn;
+		int newRow;
+
+		boolean swapsAxes = transform == 1 || transform == 3 || transform >= 6;
+
+		if (swapsAxes && columns != rows)
+			return NO_HOLE;
+
+		switch (transform) {
+		case 0: newColumn = column; newRow = row; break;                         // No change.
+		case 1: newColumn = lastRow - row; newRow = column; break;               // Rotate 90.
+		case 2: newColumn = lastColumn - column; newRow = lastRow - row; break;  // Rotate 180.
+		case 3: newColumn = row; newRow = lastColumn - column; break;            // Rotate 270.
+		case 4: newColumn = lastColumn - column; newRow = row; break;            // Mirror left to right.
+		case 5: newColumn = column; newRow = lastRow - row; break;               // Mirror top to bottom.
+		case 6: newColumn = row; newRow = column; break;                         // Mirror on diagonal.
+		default: newColumn = lastRow - row; newRow = lastColumn - column; break; // Mirror on other diagonal.
+		}
+
+		return gridHoles[newRow * columns + newColumn];
+	}
+}
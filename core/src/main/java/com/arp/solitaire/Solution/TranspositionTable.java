@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+/**
+ * Remembers whether positions can reach a finish hole. Positions are
+ * stored under their canonical form so symmetric positions share one
+ * entry, the table can be shared by the solver and the hint routines.
+ *
+ * @author Adrian Panton
+ */
+public class TranspositionTable {
+
+	// What is known about a position.
+	public static final int UNKNOWN = 0;
+	public static final int SOLVABLE = 1;
+	public static final int UNSOLVABLE = 2;
+
+	private static final int INITIAL_CAPACITY = 1 << 16;
+
+	// Result is stored in the top two bits of each entry with the
+	// position in the bits below, so an empty slot is always zero.
+	private static final int RESULT_SHIFT = 62;
+	private static final long POSITION_MASK = (1L << RESULT_SHIFT) - 1;
+	private static final long EMPTY = 0;
+
+	private final Symmetry symmetry;
+	private final int finishHole;
+
+	private long[] entries = new long[INITIAL_CAPACITY];
+	private int size; // Number of positions in table.
+
+	/**
+	 * Create a table for positions finishing in the middle hole.
+	 *
+	 * @param geometry layout of board.
+	 */
+	public TranspositionTable(BoardGeometry geometry) {
+		this(geometry, geometry.getMiddleHole());
+	}
+
+	/**
+	 * Create a table for positions finishing in a hole.
+	 *
+	 * @param geometry layout of board, no more than 62 holes.
+	 * @param finishHole hole the last ball should finish in.
+	 */
+	public TranspositionTable(BoardGeometry geometry, int finishHole) {
+
+		if (geometry.getNumberOfHoles() > RESULT_SHIFT)
+			throw new IllegalArgumentException("Board has too many holes for table");
+
+		this.finishHole = finishHole;
+
+		symmetry = new Symmetry(geometry, finishHole);
+	}
+
+	/**
+	 * Get what is known about a position.
+	 *
+	 * @param board position to look up.
+	 *
+	 * @return UNKNOWN, SOLVABLE or UNSOLVABLE.
+	 */
+	public int get(long board) {
+		return getCanonical(symmetry.canonical(board));
+	}
+
+	/**
+	 * Now store what is known about a position and all its symmetric
+	 * images.
+	 *
+	 * @param board position to store.
+	 * @param result SOLVABLE or UNSOLVABLE.
+	 */
+	public void put(long board, int result) {
+		putCanonical(symmetry.canonical(board), result);
+	}
+
+	/**
+	 * Get what is known about a position already in canonical form.
+	 *
+	 * @param key canonical position from getSymmetry().
+	 *
+	 * @return UNKNOWN, SOLVABLE or UNSOLVABLE.
+	 */
+	public int getCanonical(long key) {
+
+		int mask = entries.length - 1;
+
+		for (int slot = hash(key) & mask; entries[slot] != EMPTY; slot = (slot + 1) & mask)
+			if ((entries[slot] & POSITION_MASK) == key)
+				return (int) (entries[slot] >>> RESULT_SHIFT);
+
+		return UNKNOWN;
+	}
+
+	/**
+	 * Now store what is known about a position already in canonical form.
+	 *
+	 * @param key canonical position from getSymmetry().
+	 * @param result SOLVABLE or UNSOLVABLE.
+	 */
+	public void putCanonical(long key, int result) {
+
+		// Keep table no more than half full.
+		if (size * 2 >= entries.length)
+			resize();
+
+		long entry = key | ((long) result << RESULT_SHIFT);
+		int mask = entries.length - 1;
+		int slot = hash(key) & mask;
+
+		for (; entries[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if ((entries[slot] & POSITION_MASK) == key) {
+				entries[slot] = entry;
+				return;
+			}
+		}
+
+		entries[slot] = entry;
+		size++;
+	}
+
+	/** Now remove all positions from the table. */
+	public void clear() {
+
+		entries = new long[INITIAL_CAPACITY];
+		size = 0;
+	}
+
+	/** Get number of positions stored. */
+	public int size() {
+		return size;
+	}
+
+	/** Get hole the positions are solved to. */
+	public int getFinishHole() {
+		return finishHole;
+	}
+
+	/** Get layout of board the positions are on. */
+	public BoardGeometry getGeometry() {
+		return symmetry.getGeometry();
+	}
+
+	/** Get symmetries used to store positions. */
+	public Symmetry getSymmetry() {
+		return symmetry;
+	}
+
+	/** Now double the size of the table. */
+	private void resize() {
+
+		long[] oldEntries = entries;
+		entries = new long[oldEntries.length * 2];
+
+		int mask = entries.length - 1;
+
+		for (long entry : oldEntries) {
+			if (entry == EMPTY) continue;
+
+			int slot = hash(entry & POSITION_MASK) & mask;
+			while (entries[slot] != EMPTY)
+				slot = (slot + 1) & mask;
+
+			entries[slot] = entry;
+		}
+	}
+
+	/** Spread the bits of a position over the table. */
+	private static int hash(long key) {
+
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
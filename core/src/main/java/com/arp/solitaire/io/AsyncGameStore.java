@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.io;
+
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Saves and loads games on an executor, so a store is never read or
+ * written on the thread asking. The results are passed to the listener
+ * on the callback executor, such as one posting to the UI thread.
+ *
+ * Saves to a slot made before an earlier save to it has started are
+ * joined to it, only the newest game is written and the listener told
+ * once. The executor should run one task at a time so saves and loads
+ * happen in the order asked for.
+ *
+ * @author Adrian Panton
+ */
+public class AsyncGameStore {
+
+	// Runs tasks straight away on the thread asking.
+	public static final Executor DIRECT = new Executor() {
+		@Override
+		public void execute(Runnable task) {
+			task.run();
+		}
+	};
+
+	private final GameStore gameStore;
+	private final Executor ioExecutor;
+	private final Executor callbackExecutor;
+
+	// Saves waiting to start, by slot.
+	private final HashMap<Integer, PendingSave> pendingSaves = new HashMap<>();
+
+	// Use this instance of the interface to deliver action events.
+	private onGameStoreListener mListener = null;
+
+	public interface onGameStoreListener {
+		void gameSaved(int slot, boolean saved);
+		void gameLoaded(int slot, GameSaveData gameSaveData);
+	}
+
+	/**
+	 * Create a store that saves and loads on the thread asking.
+	 *
+	 * @param gameStore where games are kept.
+	 */
+	public AsyncGameStore(GameStore gameStore) {
+		this(gameStore, DIRECT, DIRECT);
+	}
+
+	/**
+	 * Create a store.
+	 *
+	 * @param gameStore where games are kept.
+	 * @param ioExecutor runs saves and loads.
+	 * @param callbackExecutor runs calls to the listener.
+	 */
+	public AsyncGameStore(GameStore gameStore, Executor ioExecutor, Executor callbackExecutor) {
+
+		this.gameStore = gameStore;
+		this.ioExecutor = ioExecutor;
+		this.callbackExecutor = callbackExecutor;
+	}
+
+	/** Set the listener told when games have been saved and loaded. */
+	public void setGameStoreListener(onGameStoreListener listener) {
+		mListener = listener;
+	}
+
+	/** Get where games are kept. */
+	public GameStore getGameStore() {
+		return gameStore;
+	}
+
+	/**
+	 * Now save a game, the listener is told when it has been saved. The
+	 * game data must not be changed afterwards.
+	 *
+	 * @param slot number of slot, starting from 0.
+	 * @param gameSaveData the data object to save for game save.
+	 */
+	public void saveGame(int slot, GameSaveData gameSaveData) {
+
+		PendingSave pendingSave;
+
+		synchronized (pendingSaves) {
+			pendingSave = pendingSaves.get(slot);
+
+			// Join a save still waiting, it will write this game instead.
+			if (pendingSave != null) {
+				pendingSave.gameSaveData = gameSaveData;
+				return;
+			}
+
+			pendingSave = new PendingSave(slot, gameSaveData);
+			pendingSaves.put(slot, pendingSave);
+		}
+
+		ioExecutor.execute(pendingSave);
+	}
+
+	/**
+	 * Now load a game, the listener is given it when it has been loaded.
+	 *
+	 * @param slot number of slot, starting from 0.
+	 */
+	public void loadGame(final int slot) {
+
+		ioExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				GameSaveData gameSaveData;
+
+				try {
+					gameSaveData = gameStore.loadGame(slot);
+				} catch (RuntimeException e) {
+					gameSaveData = null;
+				}
+
+				postLoaded(slot, gameSaveData);
+			}
+		});
+	}
+
+	private void postSaved(final int slot, final boolean saved) {
+
+		callbackExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (mListener != null) mListener.gameSaved(slot, saved);
+			}
+		});
+	}
+
+	private void postLoaded(final int slot, final GameSaveData gameSaveData) {
+
+		callbackExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (mListener != null) mListener.gameLoaded(slot, gameSaveData);
+			}
+		});
+	}
+
+	/** A save asked for, the game written is the newest joined to it. */
+	private class PendingSave implements Runnable {
+
+		private final int slot;
+		private GameSaveData gameSaveData; // Guarded by pendingSaves.
+
+		PendingSave(int slot, GameSaveData gameSaveData) {
+			this.slot = slot;
+			this.gameSaveData = gameSaveData;
+		}
+
+		@Override
+		public void run() {
+
+			GameSaveData newest;
+
+			// Now stop joining saves to this one.
+			synchronized (pendingSaves) {
+				pendingSaves.remove(slot);
+				newest = gameSaveData;
+			}
+
+			boolean saved;
+
+			try {
+				saved = gameStore.saveGame(slot, newest);
+			} catch (RuntimeException e) {
+				saved = false;
+			}
+
+			postSaved(slot, saved);
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Saves each slot to its own file in a directory, named game01.sol,
+ * game02.sol and so on as games have always been saved. Each game is
+ * written to a temporary file, synced and renamed over the slot's file.
+ *
+ * @author Adrian Panton
+ */
+public class FileGameStore implements GameStore {
+
+	public static final int DEFAULT_SLOTS = 10;
+
+	// Added to a slot's file name while its game is written.
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	// Directory where to save games to.
+	private final File directory;
+
+	private final int slots;
+
+	/**
+	 * Create a store with the usual number of slots.
+	 *
+	 * @param directory where to save games, created when first needed.
+	 */
+	public FileGameStore(File directory) {
+		this(directory, DEFAULT_SLOTS);
+	}
+
+	/**
+	 * Create a store.
+	 *
+	 * @param directory where to save games, created when first needed.
+	 * @param slots number of slots.
+	 */
+	public FileGameStore(File directory, int slots) {
+		this.directory = directory;
+		this.slots = slots;
+	}
+
+	@Override
+	public int getNumberOfSlots() {
+		return slots;
+	}
+
+	@Override
+	public boolean isSlotUsed(int slot) {
+		return getFile(slot).exists();
+	}
+
+	@Override
+	public boolean[] getUsedSlots() {
+
+		boolean[] used = new boolean[slots];
+
+		for (int n = 0; n < slots; n++)
+			used[n] = isSlotUsed(n);
+
+		return used;
+	}
+
+	@Override
+	public boolean saveGame(int slot, GameSaveData gameSaveData) {
+
+		// Check directories exists if not create them.
+		if (!directory.exists())
+			if (!directory.mkdirs()) return false;
+
+		File file = getFile(slot);
+		File tempFile = new File(directory, file.getName() + TEMP_SUFFIX);
+
+		// Now write save game data out to a file of its own and make sure
+		// it has reached the disk.
+		try (FileOutputStream fos = new FileOutputStream(tempFile)) {
+			GameSaveFormat.write(fos, gameSaveData);
+			fos.getFD().sync();
+
+		} catch (IOException e) {
+			tempFile.delete();
+			return false;
+		}
+
+		// Now replace the slot's file in one step, so a slot holds either
+		// the old game or the new one whenever the app stops.
+		if (!tempFile.renameTo(file)) {
+			tempFile.delete();
+			return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public GameSaveData loadGame(int slot) {
+
+		try (FileInputStream fis = new FileInputStream(getFile(slot))) {
+			return GameSaveFormat.read(fis);
+
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/** Get file a slot is saved to. */
+	File getFile(int slot) {
+
+		if (slot < 0 || slot >= slots)
+			throw new IllegalArgumentException("No slot " + slot);
+
+		return new File(directory, String.format(Locale.UK, "game%02d.sol", slot + 1));
+	}
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.io;
+
+import com.arp.solitaire.Board.BallGraphic;
+import com.arp.solitaire.Game.UndoMove;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Writes and reads game save data to and from streams. Kept apart from
+ * the stores, which decide where games are kept, so every store saves
+ * games the same way.
+ *
+ * Games are saved in a small binary format, most significant byte
+ * first:
+ *
+ * <pre>
+ *   int     MAGIC
+ *   byte    VERSION
+ *   byte    length of file ID, then the file ID in UTF-8
+ *   short   number of holes
+ *   short   ball count
+ *   bytes   a bit for each hole with a ball, hole 0 in the lowest bit
+ *           of the first byte
+ *   short   undo buffer pointer
+ *   bytes   old position, jumped and new position of each move up to
+ *           the pointer, a byte each or a short each on boards of more
+ *           than 256 holes
+ *   int     CRC32 of everything before it
+ * </pre>
+ *
+ * An English board game with every move made saves in 120 bytes.
+ * Games saved with Java serialization before this format are still
+ * read, they are written in this format the next time they are saved.
+ *
+ * @author Adrian Panton
+ */
+public class GameSaveFormat {
+
+	// "SOLG" at the start of every game saved.
+	public static final int MAGIC = 0x534F4C47;
+	public static final int VERSION = 1;
+
+	// First two bytes of a Java serialization stream.
+	private static final int SERIALIZED_MAGIC = 0xACED;
+
+	// Largest board a hole number fits a byte on.
+	private static final int BYTE_HOLES = 256;
+
+	private static final int CRC_SIZE = 4;
+
+	private static final int READ_CHUNK = 256;
+
+	/**
+	 * Now write game data to a stream, the stream is left open.
+	 *
+	 * @param out stream to write to.
+	 * @param gameSaveData the data object to save for game save.
+	 */
+	public static void write(OutputStream out, GameSaveData gameSaveData) throws IOException {
+
+		byte[] fileID = gameSaveData.getFileID().getBytes(StandardCharsets.UTF_8);
+		int[] graphicList = gameSaveData.getGraphicList();
+		ArrayList<UndoMove> undoMoves = gameSaveData.getUndoMoves();
+
+		int holes = graphicList.length;
+		int moves = gameSaveData.getUndoBufferPointer();
+		int holeSize = holes > BYTE_HOLES ? 2 : 1;
+
+		if (fileID.length > Byte.MAX_VALUE || holes > 0xFFFF
+				|| moves < 0 || moves > undoMoves.size() || moves > 0xFFFF)
+			throw new IOException("Game can not be saved in this format");
+
+		ByteBuffer buffer = ByteBuffer.allocate(4 + 1 + 1 + fileID.length + 2 + 2
+				+ (holes + 7) / 8 + 2 + moves * 3 * holeSize + CRC_SIZE);
+
+		buffer.putInt(MAGIC);
+		buffer.put((byte) VERSION);
+		buffer.put((byte) fileID.length);
+		buffer.put(fileID);
+		buffer.putShort((short) holes);
+		buffer.putShort((short) gameSaveData.getBallCount());
+
+		// Now pack which holes have balls.
+		for (int n = 0; n < holes; n += 8) {
+			int bits = 0;
+
+			for (int bit = 0; bit < 8 && n + bit < holes; bit++)
+				if (graphicList[n + bit] != BallGraphic.NO_BALL)
+					bits |= 1 << bit;
+
+			buffer.put((byte) bits);
+		}
+
+		buffer.putShort((short) moves);
+
+		for (int n = 0; n < moves; n++) {
+			UndoMove undoMove = undoMoves.get(n);
+
+			putHole(buffer, undoMove.getOldPosition(), holeSize);
+			putHole(buffer, undoMove.getJumped(), holeSize);
+			putHole(buffer, undoMove.getNewPosition(), holeSize);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.position());
+		buffer.putInt((int) crc.getValue());
+
+		out.write(buffer.array(), 0, buffer.position());
+		out.flush();
+	}
+
+	/**
+	 * Now read game data from a stream, the stream is left open. Games
+	 * saved with Java serialization are read too.
+	 *
+	 * @param in stream to read from.
+	 *
+	 * @return the saved game data.
+	 *
+	 * @throws IOException if the stream can not be read or does not hold game data.
+	 */
+	public static GameSaveData read(InputStream in) throws IOException {
+		return read(readFully(in));
+	}
+
+	/**
+	 * Now read game data from the bytes saved. Games saved with Java
+	 * serialization are read too.
+	 *
+	 * @param saved bytes saved.
+	 *
+	 * @return the saved game data.
+	 *
+	 * @throws IOException if the bytes do not hold game data.
+	 */
+	public static GameSaveData read(byte[] saved) throws IOException {
+
+		if (isSerialized(saved))
+			return readSerialized(saved);
+
+		if (saved.length < 4 + CRC_SIZE)
+			throw new StreamCorruptedException("Game save too short");
+
+		ByteBuffer buffer = ByteBuffer.wrap(saved);
+
+		if (buffer.getInt() != MAGIC)
+			throw new StreamCorruptedException("Not a game save");
+
+		// Now check nothing has changed since it was saved.
+		CRC32 crc = new CRC32();
+		crc.update(saved, 0, saved.length - CRC_SIZE);
+
+		if (buffer.getInt(saved.length - CRC_SIZE) != (int) crc.getValue())
+			throw new StreamCorruptedException("Game save is damaged");
+
+		try {
+			int version = buffer.get();
+
+			if (version != VERSION)
+				throw new StreamCorruptedException("Game save version " + version + " not known");
+
+			byte[] fileID = new byte[buffer.get()];
+			buffer.get(fileID);
+
+			int holes = buffer.getShort() & 0xFFFF;
+			int ballCount = buffer.getShort() & 0xFFFF;
+			int holeSize = holes > BYTE_HOLES ? 2 : 1;
+
+			// Now unpack which holes have balls.
+			int[] graphicList = new int[holes];
+
+			for (int n = 0; n < holes; n += 8) {
+				int bits = buffer.get();
+
+				for (int bit = 0; bit < 8 && n + bit < holes; bit++)
+					if ((bits & 1 << bit) != 0)
+						graphicList[n + bit] = BallGraphic.BALL;
+			}
+
+			int moves = buffer.getShort() & 0xFFFF;
+
+			if (moves > holes)
+				throw new StreamCorruptedException("Game save has too many moves");
+
+			// Undo buffer is restored as Game keeps it, an entry for every hole.
+			ArrayList<UndoMove> undoMoves = new ArrayList<>(holes);
+
+			for (int n = 0; n < holes; n++) {
+				UndoMove undoMove = new UndoMove();
+
+				if (n < moves) {
+					undoMove.setOldPosition(getHole(buffer, holes, holeSize));
+					undoMove.setJumped(getHole(buffer, holes, holeSize));
+					undoMove.setNewPosition(getHole(buffer, holes, holeSize));
+				}
+
+				undoMoves.add(undoMove);
+			}
+
+			if (buffer.position() != saved.length - CRC_SIZE)
+				throw new StreamCorruptedException("Game save has bytes left over");
+
+			GameSaveData gameSaveData = new GameSaveData();
+			gameSaveData.setFileID(new String(fileID, StandardCharsets.UTF_8));
+			gameSaveData.setBallCount(ballCount);
+			gameSaveData.setGraphicList(graphicList);
+			gameSaveData.setUndoBufferPointer(moves);
+			gameSaveData.setUndoMoves(undoMoves);
+
+			return gameSaveData;
+
+		} catch (BufferUnderflowException | NegativeArraySizeException e) {
+			throw new StreamCorruptedException("Game save too short");
+		}
+	}
+
+	/**
+	 * Check whether bytes saved were written with Java serialization.
+	 *
+	 * @param saved bytes saved.
+	 *
+	 * @return true if saved before this format.
+	 */
+	public static boolean isSerialized(byte[] saved) {
+		return saved.length >= 2
+				&& ((saved[0] & 0xFF) << 8 | (saved[1] & 0xFF)) == SERIALIZED_MAGIC;
+	}
+
+	/** Now read game data saved with Java serialization. */
+	private static GameSaveData readSerialized(byte[] saved) throws IOException {
+
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(saved));
+
+		try {
+			return (GameSaveData) ois.readObject();
+
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new InvalidClassException("Not game save data: " + e.getMessage());
+		}
+	}
+
+	/** Now read every byte left in a stream. */
+	private static byte[] readFully(InputStream in) throws IOException {
+
+		byte[] bytes = new byte[READ_CHUNK];
+		int length = 0;
+		int read;
+
+		while ((read = in.read(bytes, length, bytes.length - length)) != -1) {
+			length += read;
+
+			if (length == bytes.length)
+				bytes = Arrays.copyOf(bytes, bytes.length * 2);
+		}
+
+		return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+	}
+
+	private static void putHole(ByteBuffer buffer, int hole, int holeSize) {
+
+		if (holeSize == 1)
+			buffer.put((byte) hole);
+		else
+			buffer.putShort((short) hole);
+	}
+
+	private static int getHole(ByteBuffer buffer, int holes, int holeSize) throws IOException {
+
+		int hole = holeSize == 1 ? buffer.get() & 0xFF : buffer.getShort() & 0xFFFF;
+
+		if (hole >= holes)
+			throw new StreamCorruptedException("Game save has a hole not on the board");
+
+		return hole;
+	}
+}
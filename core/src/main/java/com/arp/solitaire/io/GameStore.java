@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.io;
+
+/**
+ * Somewhere games are saved to, with a fixed number of numbered slots
+ * each holding one game. Game only talks to a store, so it does not
+ * need to know where the games are kept.
+ *
+ * @author Adrian Panton
+ */
+public interface GameStore {
+
+	/** Get number of slots games can be saved to. */
+	int getNumberOfSlots();
+
+	/**
+	 * Check whether a game has been saved to a slot.
+	 *
+	 * @param slot number of slot, starting from 0.
+	 *
+	 * @return true if slot holds a game.
+	 */
+	boolean isSlotUsed(int slot);
+
+	/**
+	 * Get whether each slot holds a game, all found at once.
+	 *
+	 * @return true for each slot that holds a game.
+	 */
+	boolean[] getUsedSlots();
+
+	/**
+	 * Now save game data to a slot, replacing any game already there.
+	 *
+	 * @param slot number of slot, starting from 0.
+	 * @param gameSaveData the data object to save for game save.
+	 *
+	 * @return true if game was saved.
+	 */
+	boolean saveGame(int slot, GameSaveData gameSaveData);
+
+	/**
+	 * Now load the game saved in a slot.
+	 *
+	 * @param slot number of slot, starting from 0.
+	 *
+	 * @return saved game data or null if failed.
+	 */
+	GameSaveData loadGame(int slot);
+}
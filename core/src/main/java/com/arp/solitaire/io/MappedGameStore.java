@@ -0,0 +1,483 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Saves every slot in one file made at its full size, read and written
+ * through a memory map so finding the used slots or loading a game is
+ * a read of memory rather than a file opened for each slot.
+ *
+ * The file starts with a header, then two records of the same size for
+ * each slot:
+ *
+ * <pre>
+ *   int     MAGIC
+ *   int     VERSION
+ *   int     number of slots
+ *   int     size of a record
+ *   bytes   a bit for each slot holding a game, slot 0 in the lowest
+ *           bit of the first byte
+ *   bytes   a bit for each slot, set if its second record is current,
+ *           padded to a multiple of 8 bytes
+ *   records an int length followed by the game as GameSaveFormat
+ *           writes it
+ * </pre>
+ *
+ * A game is written to the slot's record that is not current and
+ * forced to the disk before its bit is changed to make it current, so
+ * a slot holds either the old game or the new one whenever the app
+ * stops.
+ *
+ * Opening a file made for a different number of slots or size of
+ * record, or an earlier version with one record a slot, lays it out
+ * again, keeping the games in the slots still there, so the number of
+ * slots can be changed freely. The new layout is written to a temporary
+ * file which is forced and renamed over the old one, so the old games
+ * are kept if the app stops part way. A file too short for the slots
+ * and records its header gives is damaged and is made again empty.
+ *
+ * @author Adrian Panton
+ */
+public class MappedGameStore implements GameStore, Closeable {
+
+	// "SOLS" at the start of the slot file.
+	public static final int MAGIC = 0x534F4C53;
+	public static final int VERSION = 2;
+
+	// Version with a single record for each slot.
+	private static final int SINGLE_RECORD_VERSION = 1;
+
+	public static final int DEFAULT_SLOTS = 10;
+
+	// Room for a game on boards of up to a few hundred holes.
+	public static final int DEFAULT_RECORD_SIZE = 256;
+
+	private static final int HEADER_SIZE = 16;
+	private static final int LENGTH_SIZE = 4;
+
+	// Added to the file name while a new layout is written.
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private final File file;
+	private final int slots;
+	private final int recordSize;
+
+	// Offset of the bits of current records, after the used slot bits.
+	private final int currentStart;
+
+	// Offset of the first record, after the header and slot bits.
+	private final int recordsStart;
+
+	private RandomAccessFile randomAccessFile;
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+
+	// True if the file did not exist or was damaged and has been made.
+	private boolean created = false;
+
+	// Used to write a game before it is copied to its record.
+	private final ByteArrayOutputStream gameBytes = new ByteArrayOutputStream();
+
+	// Held for the whole of a save, the store itself is only locked
+	// while records and bits are changed, not while they are forced.
+	private final Object saveLock = new Object();
+
+	/**
+	 * Open a store with the usual number of slots.
+	 *
+	 * @param file slot file, made if it does not exist.
+	 *
+	 * @throws IOException if the file can not be made or is not a slot file.
+	 */
+	public MappedGameStore(File file) throws IOException {
+		this(file, DEFAULT_SLOTS, DEFAULT_RECORD_SIZE);
+	}
+
+	/**
+	 * Open a store.
+	 *
+	 * @param file slot file, made if it does not exist.
+	 * @param slots number of slots.
+	 * @param recordSize bytes kept for each slot, a game that does not
+	 *                   fit can not be saved.
+	 *
+	 * @throws IOException if the file can not be made or is not a slot file.
+	 */
+	public MappedGameStore(File file, int slots, int recordSize) throws IOException {
+
+		if (slots < 1 || recordSize <= LENGTH_SIZE)
+			throw new IllegalArgumentException("Slots " + slots + " record size " + recordSize);
+
+		this.file = file;
+		this.slots = slots;
+		this.recordSize = recordSize;
+
+		currentStart = HEADER_SIZE + (slots + 7) / 8;
+		recordsStart = getRecordsStart(VERSION, slots);
+
+		long fileSize = recordsStart + 2L * slots * recordSize;
+
+		if (fileSize > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Slot file too large");
+
+		randomAccessFile = new RandomAccessFile(file, "rw");
+
+		try {
+			channel = randomAccessFile.getChannel();
+			open((int) fileSize);
+
+		} catch (IOException | RuntimeException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	/** Now map the file, making it or laying it out again if needed. */
+	private void open(int fileSize) throws IOException {
+
+		if (channel.size() == 0) {
+			created = true;
+			layOut(fileSize, new byte[slots][]);
+			return;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+		while (header.hasRemaining())
+			if (channel.read(header, header.position()) == -1)
+				break;
+
+		header.flip();
+
+		if (header.remaining() >= 4 && header.getInt() != MAGIC)
+			throw new IOException("Not a slot file: " + file);
+
+		// A file cut short in its header keeps no games.
+		if (header.remaining() < HEADER_SIZE - 4) {
+			created = true;
+			layOut(fileSize, new byte[slots][]);
+			return;
+		}
+
+		int version = header.getInt();
+
+		if (version != VERSION && version != SINGLE_RECORD_VERSION)
+			throw new IOException("Not a slot file: " + file);
+
+		int fileSlots = header.getInt();
+		int fileRecordSize = header.getInt();
+
+		if (version == VERSION && fileSlots == slots && fileRecordSize == recordSize
+				&& channel.size() == fileSize) {
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+			return;
+		}
+
+		layOut(fileSize, readRecords(version, fileSlots, fileRecordSize));
+	}
+
+	/**
+	 * Get offset of the first record in a file.
+	 *
+	 * @param version version the file was made as.
+	 * @param slots number of slots in the file.
+	 */
+	private static int getRecordsStart(int version, int slots) {
+
+		int bitBytes = (slots + 7) / 8;
+
+		if (version == SINGLE_RECORD_VERSION)
+			return (HEADER_SIZE + bitBytes + 7) & ~7;
+
+		return (HEADER_SIZE + 2 * bitBytes + 7) & ~7;
+	}
+
+	/**
+	 * Now read the games from a file laid out for other settings. The
+	 * slots and record size in its header are checked against the
+	 * length of the file before it is mapped, a file too short for them
+	 * is damaged and none of its games are kept.
+	 *
+	 * @return the record of each slot that still exists, or null if empty.
+	 */
+	private byte[][] readRecords(int version, int fileSlots, int fileRecordSize) throws IOException {
+
+		byte[][] records = new byte[slots][];
+
+		long fileLength = channel.size();
+		int recordsPerSlot = version == SINGLE_RECORD_VERSION ? 1 : 2;
+
+		// Checked a step at a time so a damaged header can not overflow.
+		if (fileLength > Integer.MAX_VALUE || fileSlots < 1 || fileRecordSize <= LENGTH_SIZE
+				|| fileSlots > fileLength || fileRecordSize > fileLength
+				|| getRecordsStart(version, fileSlots)
+						+ (long) recordsPerSlot * fileSlots * fileRecordSize > fileLength) {
+			created = true;
+			return records;
+		}
+
+		int fileCurrentStart = HEADER_SIZE + (fileSlots + 7) / 8;
+		int fileRecordsStart = getRecordsStart(version, fileSlots);
+
+		MappedByteBuffer old = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileLength);
+
+		for (int slot = 0; slot < Math.min(slots, fileSlots); slot++) {
+			if (!isBitSet(old, HEADER_SIZE, slot)) continue;
+
+			int record = slot * recordsPerSlot;
+
+			if (recordsPerSlot == 2 && isBitSet(old, fileCurrentStart, slot))
+				record++;
+
+			int offset = fileRecordsStart + record * fileRecordSize;
+			int length = old.getInt(offset);
+
+			// Games too big for the new records are lost.
+			if (length <= 0 || length > fileRecordSize - LENGTH_SIZE
+					|| length > recordSize - LENGTH_SIZE)
+				continue;
+
+			records[slot] = new byte[length];
+			old.position(offset + LENGTH_SIZE);
+			old.get(records[slot]);
+		}
+
+		return records;
+	}
+
+	/**
+	 * Now write a file of the new size with the header and the records
+	 * given, then rename it over the old file and map it.
+	 */
+	private void layOut(int fileSize, byte[][] records) throws IOException {
+
+		File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+
+		try (RandomAccessFile temp = new RandomAccessFile(tempFile, "rw")) {
+			temp.setLength(0);
+			temp.setLength(fileSize);
+
+			buffer = temp.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putInt(8, slots);
+			buffer.putInt(12, recordSize);
+
+			for (int slot = 0; slot < slots; slot++) {
+				if (records[slot] == null) continue;
+
+				putRecord(slot, 0, records[slot], records[slot].length);
+				setBit(HEADER_SIZE, slot, true);
+			}
+
+			buffer.force();
+
+		} catch (IOException e) {
+			tempFile.delete();
+			throw e;
+		}
+
+		// Now replace the old file in one step.
+		randomAccessFile.close();
+
+		if (!tempFile.renameTo(file)) {
+			tempFile.delete();
+			throw new IOException("Could not replace slot file: " + file);
+		}
+
+		randomAccessFile = new RandomAccessFile(file, "rw");
+		channel = randomAccessFile.getChannel();
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+	}
+
+	/** Check whether the file did not exist and was made when opened. */
+	public boolean wasCreated() {
+		return created;
+	}
+
+	/**
+	 * Now copy the games from another store in to slots that are empty,
+	 * such as when moving from a FileGameStore.
+	 *
+	 * @param from store to copy games from.
+	 *
+	 * @return number of games copied.
+	 */
+	public int importGames(GameStore from) {
+
+		int copied = 0;
+		boolean[] used = from.getUsedSlots();
+
+		for (int slot = 0; slot < Math.min(slots, used.length); slot++) {
+			if (!used[slot] || isSlotUsed(slot)) continue;
+
+			GameSaveData gameSaveData = from.loadGame(slot);
+
+			if (gameSaveData != null && saveGame(slot, gameSaveData))
+				copied++;
+		}
+
+		return copied;
+	}
+
+	@Override
+	public int getNumberOfSlots() {
+		return slots;
+	}
+
+	@Override
+	public synchronized boolean isSlotUsed(int slot) {
+
+		checkSlot(slot);
+
+		return isBitSet(buffer, HEADER_SIZE, slot);
+	}
+
+	@Override
+	public synchronized boolean[] getUsedSlots() {
+
+		boolean[] used = new boolean[slots];
+
+		for (int slot = 0; slot < slots; slot++)
+			used[slot] = isBitSet(buffer, HEADER_SIZE, slot);
+
+		return used;
+	}
+
+	@Override
+	public boolean saveGame(int slot, GameSaveData gameSaveData) {
+
+		checkSlot(slot);
+
+		synchronized (saveLock) {
+			gameBytes.reset();
+
+			try {
+				GameSaveFormat.write(gameBytes, gameSaveData);
+			} catch (IOException e) {
+				return false;
+			}
+
+			// Check game fits in its record.
+			if (gameBytes.size() > recordSize - LENGTH_SIZE)
+				return false;
+
+			int record;
+
+			// Now write the record not current, loads still read the other.
+			synchronized (this) {
+				record = isBitSet(buffer, currentStart, slot) ? 0 : 1;
+				putRecord(slot, record, gameBytes.toByteArray(), gameBytes.size());
+			}
+
+			buffer.force();
+
+			// Now make the new record current.
+			synchronized (this) {
+				setBit(currentStart, slot, record == 1);
+				setBit(HEADER_SIZE, slot, true);
+			}
+
+			buffer.force();
+		}
+
+		return true;
+	}
+
+	@Override
+	public synchronized GameSaveData loadGame(int slot) {
+
+		if (!isSlotUsed(slot)) return null;
+
+		int record = isBitSet(buffer, currentStart, slot) ? 1 : 0;
+		int offset = recordsStart + (slot * 2 + record) * recordSize;
+		int length = buffer.getInt(offset);
+
+		if (length <= 0 || length > recordSize - LENGTH_SIZE)
+			return null;
+
+		byte[] saved = new byte[length];
+		buffer.position(offset + LENGTH_SIZE);
+		buffer.get(saved);
+
+		try {
+			return GameSaveFormat.read(saved);
+
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Now write one of the records of a slot.
+	 *
+	 * @param slot number of slot.
+	 * @param record 0 for the first record, 1 for the second.
+	 * @param saved game as saved.
+	 * @param length number of bytes saved.
+	 */
+	private void putRecord(int slot, int record, byte[] saved, int length) {
+
+		int offset = recordsStart + (slot * 2 + record) * recordSize;
+
+		buffer.putInt(offset, length);
+		buffer.position(offset + LENGTH_SIZE);
+		buffer.put(saved, 0, length);
+	}
+
+	private static boolean isBitSet(ByteBuffer bits, int start, int slot) {
+		return (bits.get(start + slot / 8) & 1 << (slot % 8)) != 0;
+	}
+
+	private void setBit(int start, int slot, boolean set) {
+
+		int index = start + slot / 8;
+		int bits = buffer.get(index);
+
+		if (set)
+			bits |= 1 << (slot % 8);
+		else
+			bits &= ~(1 << (slot % 8));
+
+		buffer.put(index, (byte) bits);
+	}
+
+	private void checkSlot(int slot) {
+
+		if (slot < 0 || slot >= slots)
+			throw new IllegalArgumentException("No slot " + slot);
+	}
+
+	/** Now write any changes out and close the file. */
+	@Override
+	public synchronized void close() throws IOException {
+
+		if (buffer != null) buffer.force();
+
+		randomAccessFile.close();
+	}
+}
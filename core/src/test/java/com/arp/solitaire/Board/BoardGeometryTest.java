@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the bitboard jumps against the hole tables the game used
+ * before positions were held in a long.
+ *
+ * @author Adrian Panton
+ */
+public class BoardGeometryTest {
+
+	// List of hole numbers ball jumps when moving up.
+	private static final int upJump[] = { -1, -1, -1, 0, 1, 2, -1, -1, 3, 4, 5,
+			-1, -1, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 22, 23,
+			24, 27, 28, 29 };
+
+	// List of hole numbers ball to move to when moving up.
+	private static final int upMoveTo[] = { -1, -1, -1, -1, -1, -1, -1, -1, 0,
+			1, 2, -1, -1, -1, -1, 3, 4, 5, -1, -1, 6, 7, 8, 9, 10, 11, 12, 15,
+			16, 17, 22, 23, 24 };
+
+	// List of hole numbers ball jumps when moving right.
+	private static final int rightJump[] = { 1, 2, -1, 4, 5, -1, 7, 8, 9, 10,
+			11, 12, -1, 14, 15, 16, 17, 18, 19, -1, 21, 22, 23, 24, 25, 26, -1,
+			28, 29, -1, 31, 32, -1 };
+
+	// List of hole numbers ball to move to when moving right.
+	private static final int rightMoveTo[] = { 2, -1, -1, 5, -1, -1, 8, 9, 10,
+			11, 12, -1, -1, 15, 16, 17, 18, 19, -1, -1, 22, 23, 24, 25, 26, -1,
+			-1, 29, -1, -1, 32, -1, -1 };
+
+	// List of hole numbers ball jumps when moving down.
+	private static final int jumpDown[] = { 3, 4, 5, 8, 9, 10, 13, 14, 15, 16,
+			17, 18, 19, 20, 21, 22, 23, 24, 25, 26, -1, -1, 27, 28, 29, -1, -1,
+			30, 31, 32, -1, -1, -1 };
+
+	// List of hole numbers ball to move to when moving down.
+	private static final int moveToDown[] = { 8, 9, 10, 15, 16, 17, 20, 21, 22,
+			23, 24, 25, 26, -1, -1, 27, 28, 29, -1, -1, -1, -1, 30, 31, 32, -1,
+			-1, -1, -1, -1, -1, -1, -1 };
+
+	// List of hole numbers ball jumps when moving left.
+	private static final int leftJump[] = { -1, 0, 1, -1, 3, 4, -1, 6, 7, 8, 9,
+			10, 11, -1, 13, 14, 15, 16, 17, 18, -1, 20, 21, 22, 23, 24, 25, -1,
+			27, 28, -1, 30, 31 };
+
+	// List of hole numbers ball to move to when moving left.
+	private static final int leftMoveTo[] = { -1, -1, 0, -1, -1, 3, -1, -1, 6,
+			7, 8, 9, 10, -1, -1, 13, 14, 15, 16, 17, -1, -1, 20, 21, 22, 23,
+			24, -1, -1, 27, -1, -1, 30 };
+
+	// Old tables in the order of the directions.
+	private static final int[][] jumped = { upJump, rightJump, jumpDown, leftJump };
+	private static final int[][] movedTo = { upMoveTo, rightMoveTo, moveToDown, leftMoveTo };
+
+	private static final BoardGeometry geometry = BoardGeometry.ENGLISH;
+
+	/** Now check a jump the way the old tables did, a ball at a hole. */
+	private static boolean isOldLegal(boolean[] balls, int hole, int direction) {
+
+		int jump = jumped[direction][hole];
+		int moveTo = movedTo[direction][hole];
+
+		return moveTo != -1 && balls[hole] && balls[jump] && !balls[moveTo];
+	}
+
+	@Test
+	public void jumpsMatchOldTables() {
+
+		assertEquals(upJump.length, geometry.getNumberOfHoles());
+
+		for (int hole = 0; hole < geometry.getNumberOfHoles(); hole++) {
+			for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++) {
+				int jump = geometry.getJump(hole, direction);
+
+				if (movedTo[direction][hole] == -1) {
+					assertEquals(BoardGeometry.NO_JUMP, jump);
+				} else {
+					assertEquals(hole, geometry.getFrom(jump));
+					assertEquals(jumped[direction][hole], geometry.getOver(jump));
+					assertEquals(movedTo[direction][hole], geometry.getTo(jump));
+					assertEquals(direction, geometry.getDirection(jump));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void sameLayoutIsEqual() {
+
+		BoardGeometry rebuilt = BoardGeometry.fromLayout(BoardGeometry.ENGLISH_LAYOUT);
+
+		assertTrue(rebuilt != geometry);
+		assertEquals(geometry, rebuilt);
+		assertEquals(geometry.hashCode(), rebuilt.hashCode());
+
+		assertFalse(geometry.equals(BoardGeometry.EUROPEAN));
+
+		// Same holes but another hole left empty at the start.
+		assertFalse(geometry.equals(BoardGeometry.fromLayout(
+				BoardGeometry.ENGLISH_LAYOUT.replace("*", "o").replaceFirst("o", "*"))));
+	}
+
+	@Test
+	public void legalJumpsMatchOldTables() {
+
+		Random random = new Random(1);
+		int holes = geometry.getNumberOfHoles();
+		boolean[] balls = new boolean[holes];
+		long[] words = new long[geometry.getNumberOfWords()];
+
+		for (int n = 0; n < 10000; n++) {
+			long board = random.nextLong() & geometry.getFullBoard();
+
+			for (int hole = 0; hole < holes; hole++)
+				balls[hole] = (board & BoardGeometry.holeBit(hole)) != 0;
+
+			words[0] = board;
+
+			for (int hole = 0; hole < holes; hole++) {
+				for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++) {
+					int jump = geometry.getJump(hole, direction);
+					boolean legal = isOldLegal(balls, hole, direction);
+
+					if (jump == BoardGeometry.NO_JUMP) {
+						assertEquals(false, legal);
+					} else {
+						assertEquals(legal, geometry.isLegal(board, jump));
+						assertEquals(legal, geometry.isLegal(words, jump));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void jumpMovesBallsLikeOldTables() {
+
+		Random random = new Random(2);
+
+		for (int n = 0; n < 10000; n++) {
+			long board = random.nextLong() & geometry.getFullBoard();
+
+			for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+				if (!geometry.isLegal(board, jump))
+					continue;
+
+				long after = board & ~BoardGeometry.holeBit(geometry.getFrom(jump))
+						& ~BoardGeometry.holeBit(geometry.getOver(jump))
+						| BoardGeometry.holeBit(geometry.getTo(jump));
+
+				assertEquals(after, geometry.makeJump(board, jump));
+				assertEquals(board, geometry.makeJump(after, jump));
+			}
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Board;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests positions held in arrays of longs play the same as positions
+ * held in a single long, and as a plain list of balls on boards too
+ * large for a long.
+ *
+ * @author Adrian Panton
+ */
+public class WideBoardTest {
+
+	/** Now build a square board of 121 holes, so jumps cross words. */
+	private static BoardGeometry squareBoard() {
+
+		StringBuilder layout = new StringBuilder();
+
+		for (int y = 0; y < 11; y++) {
+			if (y > 0)
+				layout.append('\n');
+
+			layout.append("ooooooooooo");
+		}
+
+		return BoardGeometry.fromLayout(layout.toString());
+	}
+
+	@Test
+	public void englishBoardMatchesLong() {
+
+		BoardGeometry geometry = BoardGeometry.ENGLISH;
+		Random random = new Random(1);
+
+		for (int game = 0; game < 200; game++) {
+			long board = geometry.getStartBoard();
+			WideBoard wideBoard = new WideBoard(geometry);
+			wideBoard.setStartBoard();
+
+			for (int jump = randomLegalJump(wideBoard, random); jump != BoardGeometry.NO_JUMP;
+					jump = randomLegalJump(wideBoard, random)) {
+				for (int n = 0; n < geometry.getNumberOfJumps(); n++)
+					assertEquals(geometry.isLegal(board, n), wideBoard.isLegal(n));
+
+				board = geometry.makeJump(board, jump);
+				wideBoard.makeJump(jump);
+
+				assertEquals(Long.bitCount(board), wideBoard.getBallCount());
+
+				for (int hole = 0; hole < geometry.getNumberOfHoles(); hole++)
+					assertEquals((board & BoardGeometry.holeBit(hole)) != 0, wideBoard.isBallPresent(hole));
+			}
+		}
+	}
+
+	@Test
+	public void largeBoardMatchesBallList() {
+
+		BoardGeometry geometry = squareBoard();
+		int holes = geometry.getNumberOfHoles();
+		Random random = new Random(2);
+
+		assertTrue(geometry.isWide());
+		assertEquals(2, geometry.getNumberOfWords());
+
+		for (int game = 0; game < 20; game++) {
+			boolean[] balls = new boolean[holes];
+			for (int hole = 0; hole < holes; hole++)
+				balls[hole] = hole != geometry.getMiddleHole();
+
+			WideBoard wideBoard = new WideBoard(geometry);
+			wideBoard.setStartBoard();
+
+			for (int jump = randomLegalJump(wideBoard, random); jump != BoardGeometry.NO_JUMP;
+					jump = randomLegalJump(wideBoard, random)) {
+				for (int n = 0; n < geometry.getNumberOfJumps(); n++)
+					assertEquals(balls[geometry.getFrom(n)] && balls[geometry.getOver(n)]
+							&& !balls[geometry.getTo(n)], wideBoard.isLegal(n));
+
+				balls[geometry.getFrom(jump)] = false;
+				balls[geometry.getOver(jump)] = false;
+				balls[geometry.getTo(jump)] = true;
+				wideBoard.makeJump(jump);
+
+				for (int hole = 0; hole < holes; hole++)
+					assertEquals(balls[hole], wideBoard.isBallPresent(hole));
+			}
+		}
+	}
+
+	@Test
+	public void jumpAgainUndoesJump() {
+
+		BoardGeometry geometry = squareBoard();
+		WideBoard wideBoard = new WideBoard(geometry);
+		wideBoard.setStartBoard();
+
+		int[] before = wideBoard.getBallGraphicList();
+
+		for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+			if (wideBoard.isLegal(jump)) {
+				wideBoard.makeJump(jump);
+				assertEquals(geometry.getNumberOfHoles() - 2, wideBoard.getBallCount());
+
+				wideBoard.makeJump(jump);
+				assertArrayEquals(before, wideBoard.getBallGraphicList());
+			}
+		}
+	}
+
+	/** Get a legal jump picked at random or NO_JUMP if there is none. */
+	private static int randomLegalJump(WideBoard wideBoard, Random random) {
+
+		int jumps = wideBoard.getGeometry().getNumberOfJumps();
+		int start = random.nextInt(jumps);
+
+		for (int n = 0; n < jumps; n++) {
+			int jump = (start + n) % jumps;
+
+			if (wideBoard.isLegal(jump))
+				return jump;
+		}
+
+		return BoardGeometry.NO_JUMP;
+	}
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Game;
+
+import com.arp.solitaire.Board.BallGraphic;
+import com.arp.solitaire.Board.BoardChanges;
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Solution.SolutionMove;
+import com.arp.solitaire.Solution.Solver;
+import com.arp.solitaire.io.AsyncGameStore;
+import com.arp.solitaire.io.GameSaveData;
+import com.arp.solitaire.io.GameStore;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests saving and loading games through Game.
+ *
+ * @author Adrian Panton
+ */
+public class GameTest {
+
+	private static final int[] ARROWS = { BallGraphic.BALL_UP, BallGraphic.BALL_RIGHT,
+			BallGraphic.BALL_DOWN, BallGraphic.BALL_LEFT };
+
+	private static final int[] LOSING_ARROWS = { BallGraphic.BALL_UP_LOSING,
+			BallGraphic.BALL_RIGHT_LOSING, BallGraphic.BALL_DOWN_LOSING, BallGraphic.BALL_LEFT_LOSING };
+
+	/** Keeps tasks until they are run. */
+	private static class QueuedExecutor implements Executor {
+
+		private final List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable task) {
+			tasks.add(task);
+		}
+
+		/** Now run the tasks queued so far, returning how many ran. */
+		int runAll() {
+
+			List<Runnable> queued = new ArrayList<>(tasks);
+			tasks.clear();
+
+			for (Runnable task : queued)
+				task.run();
+
+			return queued.size();
+		}
+	}
+
+	/** Keeps games in memory. */
+	private static class MemoryGameStore implements GameStore {
+
+		private final GameSaveData[] games = new GameSaveData[10];
+
+		@Override
+		public int getNumberOfSlots() {
+			return games.length;
+		}
+
+		@Override
+		public boolean isSlotUsed(int slot) {
+			return games[slot] != null;
+		}
+
+		@Override
+		public boolean[] getUsedSlots() {
+
+			boolean[] used = new boolean[games.length];
+
+			for (int slot = 0; slot < games.length; slot++)
+				used[slot] = games[slot] != null;
+
+			return used;
+		}
+
+		@Override
+		public boolean saveGame(int slot, GameSaveData gameSaveData) {
+			games[slot] = gameSaveData;
+			return true;
+		}
+
+		@Override
+		public GameSaveData loadGame(int slot) {
+			return games[slot];
+		}
+	}
+
+	/** Remembers what the game told it. */
+	private static class Listener implements Game.onGameListener {
+
+		private int loadsFailed;
+		private int jumps;
+		private int fewestMovesNotFound;
+		private int[] graphics = new int[BoardGeometry.ENGLISH.getNumberOfHoles()];
+
+		@Override
+		public void updateBoard(BoardChanges changes) {
+			for (int n = 0; n < changes.getChangedCount(); n++) {
+				int hole = changes.getChangedHole(n);
+				graphics[hole] = changes.getGraphic(hole);
+			}
+		}
+
+		@Override
+		public void ballJumped(int from, int jumped, int to, boolean back) {
+			jumps++;
+		}
+
+		@Override
+		public void gameEnded(int how) {
+		}
+
+		@Override
+		public void gameSaveFailed() {
+		}
+
+		@Override
+		public void gameLoadFailed() {
+			loadsFailed++;
+		}
+
+		@Override
+		public void fewestMovesNotFound() {
+			fewestMovesNotFound++;
+		}
+	}
+
+	/**
+	 * Now play the first legal jump from the start a number of times by
+	 * touching the holes, as a player would.
+	 */
+	private static void play(Game game, int jumps) {
+
+		BoardGeometry geometry = game.getGeometry();
+		long board = geometry.getStartBoard();
+
+		for (int n = 0; n < jumps; n++) {
+			int jump = 0;
+
+			while (!geometry.isLegal(board, jump))
+				jump++;
+
+			game.updateGame(geometry.getFrom(jump));
+			game.updateGame(geometry.getTo(jump));
+
+			board = geometry.makeJump(board, jump);
+		}
+	}
+
+	/** Now play the first jumps of a solution by touching the holes. */
+	private static void playSolution(Game game, int jumps) {
+
+		BoardGeometry geometry = game.getGeometry();
+		List<SolutionMove> solution = new Solver(geometry).solve(geometry.getStartBoard());
+
+		for (int n = 0; n < jumps; n++) {
+			game.updateGame(solution.get(n).getOldPosition());
+			game.updateGame(solution.get(n).getNewPosition());
+		}
+	}
+
+	/** Get the number of balls left, as the game saves it. */
+	private static int getBallCount(Game game) {
+
+		MemoryGameStore store = new MemoryGameStore();
+
+		game.setGameStore(store);
+		game.saveGame(0);
+
+		return store.loadGame(0).getBallCount();
+	}
+
+	@Test
+	public void savedGameLoads() {
+
+		MemoryGameStore store = new MemoryGameStore();
+
+		Game game = new Game();
+		game.setGameStore(store);
+		game.startGame();
+		play(game, 5);
+		game.saveGame(3);
+
+		Game loaded = new Game();
+		Listener listener = new Listener();
+		loaded.setGameListener(listener);
+		loaded.setGameStore(store);
+		loaded.startGame();
+		loaded.loadGame(3);
+
+		assertEquals(0, listener.loadsFailed);
+		assertEquals(32 - 5, getBallCount(loaded));
+	}
+
+	@Test
+	public void gameFromAnotherBoardIsRejected() {
+
+		// A game saved part way on the 37 hole European board.
+		int holes = BoardGeometry.EUROPEAN.getNumberOfHoles();
+		ArrayList<UndoMove> undoMoves = new ArrayList<>();
+
+		for (int n = 0; n < holes; n++)
+			undoMoves.add(new UndoMove());
+
+		GameSaveData gameSaveData = new GameSaveData();
+		gameSaveData.setFileID("SOL");
+		gameSaveData.setBallCount(holes - 1);
+		gameSaveData.setGraphicList(new int[holes]);
+		gameSaveData.setUndoBufferPointer(0);
+		gameSaveData.setUndoMoves(undoMoves);
+
+		MemoryGameStore store = new MemoryGameStore();
+		store.saveGame(0, gameSaveData);
+
+		Game game = new Game();
+		Listener listener = new Listener();
+		game.setGameListener(listener);
+		game.setGameStore(store);
+		game.startGame();
+		game.loadGame(0);
+
+		assertEquals(1, listener.loadsFailed);
+		assertEquals(32, getBallCount(game));
+	}
+
+	@Test
+	public void solutionIsFoundOffThePlayingThread() {
+
+		QueuedExecutor solveExecutor = new QueuedExecutor();
+		QueuedExecutor callbackExecutor = new QueuedExecutor();
+
+		Game game = new Game();
+		Listener listener = new Listener();
+		game.setGameListener(listener);
+		game.setSolveExecutor(solveExecutor, callbackExecutor);
+		game.startGame();
+		play(game, 3);
+		game.startSolution();
+
+		// Nothing to step through until the solution is found.
+		int jumps = listener.jumps;
+		game.solutionForward();
+		assertEquals(jumps, listener.jumps);
+
+		assertEquals(1, solveExecutor.runAll());
+		assertEquals(1, callbackExecutor.runAll());
+
+		game.solutionForward();
+		assertEquals(jumps + 1, listener.jumps);
+	}
+
+	@Test
+	public void endedSolutionIsNotSearched() {
+
+		QueuedExecutor solveExecutor = new QueuedExecutor();
+		QueuedExecutor callbackExecutor = new QueuedExecutor();
+
+		Game game = new Game();
+		game.setSolveExecutor(solveExecutor, callbackExecutor);
+		game.startGame();
+		game.startSolution();
+		game.restartGame();
+
+		assertEquals(1, solveExecutor.runAll());
+		assertEquals(0, callbackExecutor.runAll());
+	}
+
+	@Test
+	public void continueKeepsMovesWhileSolutionIsSearchedFor() {
+
+		QueuedExecutor solveExecutor = new QueuedExecutor();
+
+		Game game = new Game();
+		game.setSolveExecutor(solveExecutor, AsyncGameStore.DIRECT);
+		game.startGame();
+		play(game, 3);
+		game.setFewestMoves(true);
+		game.startSolution();
+		game.continueGame();
+
+		// All three moves can still be undone.
+		for (int n = 0; n < 3; n++)
+			game.undoMove();
+
+		assertEquals(32, getBallCount(game));
+	}
+
+	@Test
+	public void fewestMovesFoundNearTheEnd() {
+
+		Game game = new Game();
+		Listener listener = new Listener();
+		game.setGameListener(listener);
+		game.startGame();
+		playSolution(game, 20);
+		game.setFewestMoves(true);
+		game.startSolution();
+
+		game.solutionForwardMove();
+		assertTrue(listener.jumps > 20);
+		assertEquals(0, listener.fewestMovesNotFound);
+	}
+
+	@Test
+	public void fewestMovesGivingUpIsReported() {
+
+		Game game = new Game();
+		Listener listener = new Listener();
+		game.setGameListener(listener);
+		game.startGame();
+		game.setFewestMoves(true);
+		game.startSolution();
+
+		assertEquals(1, listener.fewestMovesNotFound);
+
+		game.solutionForward();
+		assertEquals(1, listener.jumps);
+	}
+
+	@Test
+	public void losingJumpsAreCheckedOffThePlayingThread() {
+
+		QueuedExecutor solveExecutor = new QueuedExecutor();
+		QueuedExecutor callbackExecutor = new QueuedExecutor();
+
+		Game game = new Game();
+		Listener listener = new Listener();
+		game.setGameListener(listener);
+		game.setSolveExecutor(solveExecutor, callbackExecutor);
+		game.startGame();
+		playSolution(game, 12);
+		game.toggleHelpMode();
+		game.setShowWinningMoves(true);
+
+		// Find a ball with a jump that loses the game.
+		BoardGeometry geometry = game.getGeometry();
+		Solver solver = new Solver(geometry);
+		long board = geometry.getStartBoard();
+		List<SolutionMove> solution = solver.solve(board);
+
+		for (int n = 0; n < 12; n++) {
+			SolutionMove move = solution.get(n);
+			board = geometry.makeJump(board, geometry.getJump(move.getOldPosition(), move.getDirection()));
+		}
+
+		int losingJump = 0;
+
+		while (!geometry.isLegal(board, losingJump)
+				|| solver.isSolvable(geometry.makeJump(board, losingJump)))
+			losingJump++;
+
+		int over = geometry.getOver(losingJump);
+		int direction = geometry.getDirection(losingJump);
+
+		game.updateGame(geometry.getFrom(losingJump));
+
+		// Drawn as a plain arrow until the solver has checked it.
+		assertEquals(ARROWS[direction], listener.graphics[over]);
+
+		assertEquals(1, solveExecutor.runAll());
+		assertEquals(1, callbackExecutor.runAll());
+
+		assertEquals(LOSING_ARROWS[direction], listener.graphics[over]);
+	}
+}
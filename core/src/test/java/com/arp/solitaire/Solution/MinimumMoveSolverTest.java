@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the minimum move solver finds as few moves as a breadth first
+ * search over whole moves, and that its solutions win the game.
+ *
+ * @author Adrian Panton
+ */
+public class MinimumMoveSolverTest {
+
+	private static final BoardGeometry geometry = BoardGeometry.ENGLISH;
+
+	/** Now make a jump as a solution move. */
+	private static SolutionMove jump(int jump) {
+
+		SolutionMove move = new SolutionMove();
+		move.setOldPosition(geometry.getFrom(jump));
+		move.setJumped(geometry.getOver(jump));
+		move.setNewPosition(geometry.getTo(jump));
+		move.setDirection(geometry.getDirection(jump));
+
+		return move;
+	}
+
+	/**
+	 * Now add every position one ball can reach by carrying on jumping
+	 * from a hole.
+	 */
+	private static void addChains(long board, int hole, Set<Long> positions) {
+
+		for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++) {
+			int jump = geometry.getJump(hole, direction);
+
+			if (jump != BoardGeometry.NO_JUMP && geometry.isLegal(board, jump)) {
+				long next = geometry.makeJump(board, jump);
+
+				if (positions.add(next))
+					addChains(next, geometry.getTo(jump), positions);
+			}
+		}
+	}
+
+	/**
+	 * Now count the fewest moves to a single ball in the middle by a
+	 * breadth first search, each step making any number of jumps in a
+	 * row with one ball.
+	 *
+	 * @return fewest moves or -1 if there is no solution.
+	 */
+	private static int countFewestMoves(long board) {
+
+		long target = BoardGeometry.holeBit(geometry.getMiddleHole());
+		Set<Long> seen = new HashSet<>();
+		List<Long> layer = new ArrayList<>();
+		layer.add(board);
+		seen.add(board);
+
+		for (int moves = 0; !layer.isEmpty(); moves++) {
+			List<Long> next = new ArrayList<>();
+
+			for (long position : layer) {
+				if (position == target)
+					return moves;
+
+				for (int hole = 0; hole < geometry.getNumberOfHoles(); hole++) {
+					if ((position & BoardGeometry.holeBit(hole)) == 0)
+						continue;
+
+					Set<Long> reached = new HashSet<>();
+					addChains(position, hole, reached);
+
+					for (long after : reached)
+						if (seen.add(after))
+							next.add(after);
+				}
+			}
+
+			layer = next;
+		}
+
+		return -1;
+	}
+
+	/** Now play a solution, checking each jump is legal, and return the position left. */
+	private static long play(long board, List<List<SolutionMove>> moves) {
+
+		for (List<SolutionMove> move : moves) {
+			for (SolutionMove jump : move) {
+				int number = geometry.getJump(jump.getOldPosition(), jump.getDirection());
+
+				assertEquals(jump.getNewPosition(), geometry.getTo(number));
+				assertTrue(geometry.isLegal(board, number));
+
+				board = geometry.makeJump(board, number);
+			}
+		}
+
+		return board;
+	}
+
+	/**
+	 * Now make random jumps from part way through a solution until a
+	 * number of balls are left, keeping to positions which can still be
+	 * solved until the last jump, which may lose.
+	 */
+	private static long randomPosition(Random random, Solver solver, long board, int balls) {
+
+		while (Long.bitCount(board) > balls) {
+			List<Integer> jumps = new ArrayList<>();
+
+			for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++)
+				if (geometry.isLegal(board, jump) && (Long.bitCount(board) == balls + 1
+						|| solver.isSolvable(geometry.makeJump(board, jump))))
+					jumps.add(jump);
+
+			board = geometry.makeJump(board, jumps.get(random.nextInt(jumps.size())));
+		}
+
+		return board;
+	}
+
+	@Test
+	public void fewestMovesMatchBreadthFirstSearch() {
+
+		Random random = new Random(1);
+		Solver solver = new Solver(geometry);
+		MinimumMoveSolver minimumMoveSolver = new MinimumMoveSolver();
+
+		// Checking jumps can be solved is quick once half the balls are gone.
+		long half = geometry.getStartBoard();
+
+		for (SolutionMove move : solver.solve(half).subList(0, 16))
+			half = geometry.makeJump(half, geometry.getJump(move.getOldPosition(), move.getDirection()));
+
+		int solved = 0;
+		int unsolvable = 0;
+
+		for (int n = 0; n < 80; n++) {
+			long board = randomPosition(random, solver, half, 6 + n % 8);
+			int fewestMoves = countFewestMoves(board);
+
+			List<List<SolutionMove>> moves = minimumMoveSolver.solve(board);
+
+			if (fewestMoves < 0) {
+				assertNull(moves);
+				assertFalse(solver.isSolvable(board));
+				unsolvable++;
+				continue;
+			}
+
+			assertEquals(fewestMoves, moves.size());
+			assertEquals(BoardGeometry.holeBit(geometry.getMiddleHole()), play(board, moves));
+
+			// Each move is a single ball jumping in a row.
+			for (List<SolutionMove> move : moves)
+				for (int jump = 1; jump < move.size(); jump++)
+					assertEquals(move.get(jump - 1).getNewPosition(), move.get(jump).getOldPosition());
+
+			solved++;
+		}
+
+		assertTrue(solved > 0 && unsolvable > 0);
+	}
+
+	@Test
+	public void jumpsInARowByOneBallAreOneMove() {
+
+		// Across the middle row and on again, then down the top arm.
+		SolutionMove first = jump(geometry.getJump(14, BoardGeometry.RIGHT));
+		SolutionMove carryOn = jump(geometry.getJump(16, BoardGeometry.RIGHT));
+		SolutionMove other = jump(geometry.getJump(1, BoardGeometry.DOWN));
+		SolutionMove back = jump(geometry.getJump(18, BoardGeometry.LEFT));
+
+		List<SolutionMove> jumps = new ArrayList<>();
+		jumps.add(first);
+		jumps.add(carryOn);
+		jumps.add(other);
+		jumps.add(back);
+
+		List<List<SolutionMove>> moves = MinimumMoveSolver.groupMoves(jumps);
+
+		// The last jump starts where the first move ended, but another
+		// ball moved in between.
+		assertEquals(3, moves.size());
+		assertEquals(2, moves.get(0).size());
+		assertEquals(carryOn, moves.get(0).get(1));
+		assertEquals(other, moves.get(1).get(0));
+		assertEquals(back, moves.get(2).get(0));
+
+		assertTrue(MinimumMoveSolver.groupMoves(new ArrayList<SolutionMove>()).isEmpty());
+	}
+
+	@Test
+	public void searchGivesUpAtTimeLimit() {
+
+		MinimumMoveSolver minimumMoveSolver = new MinimumMoveSolver();
+		minimumMoveSolver.setTimeLimit(10);
+
+		assertNull(minimumMoveSolver.solve(geometry.getStartBoard()));
+		assertTrue(minimumMoveSolver.isStopped());
+
+		// A position with no solution is not a time out.
+		minimumMoveSolver.setTimeLimit(MinimumMoveSolver.NO_TIME_LIMIT);
+		long lost = BoardGeometry.holeBit(0) | BoardGeometry.holeBit(32);
+
+		assertNull(minimumMoveSolver.solve(lost));
+		assertFalse(minimumMoveSolver.isStopped());
+	}
+}
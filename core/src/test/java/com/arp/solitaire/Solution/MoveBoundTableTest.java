@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+
+package com.arp.solitaire.Solution;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the move bound table keeps the bounds stored, growing as
+ * needed and clearing once full.
+ *
+ * @author Adrian Panton
+ */
+public class MoveBoundTableTest {
+
+	@Test
+	public void boundsAreKeptWhileGrowing() {
+
+		MoveBoundTable table = new MoveBoundTable(1 << 20);
+
+		// Enough positions to double the table twice.
+		for (long key = 1; key <= 100000; key++)
+			table.put(key * 7919, (int) (key % 128));
+
+		assertEquals(100000, table.size());
+
+		for (long key = 1; key <= 100000; key++)
+			assertEquals(key % 128, table.get(key * 7919));
+
+		assertEquals(0, table.get(3));
+	}
+
+	@Test
+	public void storingAgainReplacesBound() {
+
+		MoveBoundTable table = new MoveBoundTable(16);
+
+		table.put(42, 3);
+		table.put(42, 5);
+
+		assertEquals(1, table.size());
+		assertEquals(5, table.get(42));
+	}
+
+	@Test
+	public void fullTableIsCleared() {
+
+		MoveBoundTable table = new MoveBoundTable(100);
+
+		for (long key = 1; key <= 100; key++)
+			table.put(key, 1);
+
+		assertEquals(100, table.size());
+
+		table.put(101, 2);
+
+		assertEquals(1, table.size());
+		assertEquals(0, table.get(1));
+		assertEquals(2, table.get(101));
+	}
+}
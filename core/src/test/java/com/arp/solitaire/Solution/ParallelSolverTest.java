@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the parallel solver agrees with the single thread solver and
+ * that its solutions can be played.
+ *
+ * @author Adrian Panton
+ */
+public class ParallelSolverTest {
+
+	private static final BoardGeometry geometry = BoardGeometry.ENGLISH;
+
+	private final ParallelSolver parallelSolver = new ParallelSolver(geometry, 2);
+
+	@After
+	public void shutdown() {
+		parallelSolver.shutdown();
+	}
+
+	/**
+	 * Now play a solution from a position, checking each jump is legal,
+	 * and return the position left.
+	 */
+	private static long play(long board, List<SolutionMove> solution) {
+
+		for (SolutionMove move : solution) {
+			int jump = geometry.getJump(move.getOldPosition(), move.getDirection());
+
+			assertTrue(geometry.isLegal(board, jump));
+			board = geometry.makeJump(board, jump);
+		}
+
+		return board;
+	}
+
+	/** Now make random legal jumps from the start position. */
+	private static long randomPosition(Random random, int jumps) {
+
+		long board = geometry.getStartBoard();
+
+		for (int n = 0; n < jumps; n++) {
+			int start = random.nextInt(geometry.getNumberOfJumps());
+
+			for (int k = 0; k < geometry.getNumberOfJumps(); k++) {
+				int jump = (start + k) % geometry.getNumberOfJumps();
+
+				if (geometry.isLegal(board, jump)) {
+					board = geometry.makeJump(board, jump);
+					break;
+				}
+			}
+		}
+
+		return board;
+	}
+
+	@Test
+	public void startIsSolved() {
+
+		List<SolutionMove> solution = parallelSolver.solve(geometry.getStartBoard());
+
+		assertNotNull(solution);
+		assertEquals(BoardGeometry.holeBit(geometry.getMiddleHole()),
+				play(geometry.getStartBoard(), solution));
+	}
+
+	@Test
+	public void agreesWithSolver() {
+
+		Solver solver = new Solver(geometry);
+		Random random = new Random(1);
+		int solvable = 0;
+
+		for (int n = 0; n < 40; n++) {
+			long board = randomPosition(random, 8 + random.nextInt(16));
+			List<SolutionMove> solution = parallelSolver.solve(board);
+
+			assertEquals(solver.isSolvable(board), solution != null);
+
+			if (solution != null) {
+				assertEquals(BoardGeometry.holeBit(geometry.getMiddleHole()), play(board, solution));
+				solvable++;
+			}
+		}
+
+		// Both kinds of position were checked.
+		assertTrue(solvable > 0 && solvable < 40);
+	}
+
+	@Test
+	public void noSolutionIsNull() {
+
+		long board = BoardGeometry.holeBit(0) | BoardGeometry.holeBit(32);
+
+		assertNull(parallelSolver.solve(board));
+	}
+}
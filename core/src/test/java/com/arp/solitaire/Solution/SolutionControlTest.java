@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BallGraphic;
+import com.arp.solitaire.Board.BoardGeometry;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests stepping through a solution a whole move at a time makes and
+ * takes back every jump in a row by the same ball.
+ *
+ * @author Adrian Panton
+ */
+public class SolutionControlTest {
+
+	private static final BoardGeometry geometry = BoardGeometry.ENGLISH;
+
+	/** Now play the start of a solution from the start of the game. */
+	private static long playJumps(List<SolutionMove> solution, int jumps) {
+
+		long board = geometry.getStartBoard();
+
+		for (SolutionMove move : solution.subList(0, jumps))
+			board = geometry.makeJump(board, geometry.getJump(move.getOldPosition(), move.getDirection()));
+
+		return board;
+	}
+
+	@Test
+	public void movesStepWholeChains() {
+
+		// A position late enough for the fewest move search to be quick.
+		List<SolutionMove> start = new Solver(geometry).solve(geometry.getStartBoard());
+		long board = playJumps(start, 20);
+
+		List<List<SolutionMove>> moves = new MinimumMoveSolver().solve(board);
+
+		List<SolutionMove> jumps = new ArrayList<>();
+		for (List<SolutionMove> move : moves)
+			jumps.addAll(move);
+
+		// At least one move makes more than one jump.
+		assertTrue(moves.size() < jumps.size());
+
+		SolutionControl solutionControl = new SolutionControl();
+		solutionControl.setSolution(board, jumps);
+
+		int played = 0;
+
+		for (List<SolutionMove> move : moves) {
+			assertFalse(solutionControl.isSolutionFinished());
+
+			solutionControl.forwardMove();
+			played += move.size();
+
+			assertEquals(played, solutionControl.getMovesPlayed());
+			assertEquals(Long.bitCount(board) - played, solutionControl.getBallCount());
+		}
+
+		assertTrue(solutionControl.isSolutionFinished());
+
+		// Nothing more to make at the end.
+		solutionControl.forwardMove();
+		assertEquals(jumps.size(), solutionControl.getMovesPlayed());
+
+		for (int n = moves.size() - 1; n >= 0; n--) {
+			solutionControl.backwardMove();
+			played -= moves.get(n).size();
+
+			assertEquals(played, solutionControl.getMovesPlayed());
+			assertEquals(Long.bitCount(board) - played, solutionControl.getBallCount());
+		}
+
+		assertArrayEquals(BallGraphic.toGraphicList(board, geometry.getNumberOfHoles()),
+				solutionControl.getBallGraphicList());
+	}
+}
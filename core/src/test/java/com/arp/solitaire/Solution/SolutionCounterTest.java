@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests solution counts against counts known by hand and counts
+ * found by trying every line of jumps.
+ *
+ * @author Adrian Panton
+ */
+public class SolutionCounterTest {
+
+	private static final BoardGeometry geometry = BoardGeometry.ENGLISH;
+	private static final int middle = geometry.getMiddleHole();
+
+	private final SolutionCounter counter = new SolutionCounter(2);
+	private final Solver solver = new Solver(geometry);
+
+	@After
+	public void shutdown() {
+		counter.shutdown();
+	}
+
+	/** Now count solutions by trying every line of jumps, no memo. */
+	private static long countEveryLine(long board) {
+
+		if (board == BoardGeometry.holeBit(middle))
+			return 1;
+
+		long count = 0;
+
+		for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++)
+			if (geometry.isLegal(board, jump))
+				count += countEveryLine(geometry.makeJump(board, jump));
+
+		return count;
+	}
+
+	private static long balls(int... holes) {
+
+		long board = 0;
+
+		for (int hole : holes)
+			board |= BoardGeometry.holeBit(hole);
+
+		return board;
+	}
+
+	@Test
+	public void handCountedPositions() {
+
+		// Ball already in the middle hole.
+		assertEquals(BigInteger.ONE, counter.count(balls(middle)));
+
+		// Ball left in another hole.
+		assertEquals(BigInteger.ZERO, counter.count(balls(middle - 1)));
+
+		// Jump in from the left, or the right.
+		assertEquals(BigInteger.ONE, counter.count(balls(14, 15)));
+		assertEquals(BigInteger.ONE, counter.count(balls(17, 18)));
+
+		// Either ball can jump the other but neither lands in the middle.
+		assertEquals(BigInteger.ZERO, counter.count(balls(middle, middle + 1)));
+	}
+
+	@Test
+	public void agreesWithEveryLine() {
+
+		Random random = new Random(1);
+		int solvable = 0;
+
+		for (int n = 0; n < 40; n++) {
+			// Few enough balls to try every line, half kept solvable.
+			long board = randomPosition(random, 12, n % 2 == 0);
+			long count = countEveryLine(board);
+
+			assertEquals(BigInteger.valueOf(count), counter.count(board));
+
+			if (count > 0)
+				solvable++;
+		}
+
+		assertTrue(solvable >= 20);
+	}
+
+	@Test
+	public void imagesHaveSameCount() {
+
+		Symmetry symmetry = new Symmetry(geometry);
+		long board = randomPosition(new Random(2), 16, true);
+
+		BigInteger count = counter.count(board);
+
+		for (int transform = 1; transform < symmetry.getNumberOfTransforms(); transform++) {
+			counter.clearMemo();
+			assertEquals(count, counter.count(symmetry.transform(board, transform)));
+		}
+	}
+
+	/**
+	 * Now make random legal jumps from the start until few balls are
+	 * left, if asked only jumps which leave the game winnable.
+	 */
+	private long randomPosition(Random random, int ballsLeft, boolean solvable) {
+
+		long board = geometry.getStartBoard();
+		int jumps = geometry.getNumberOfJumps();
+
+		while (Long.bitCount(board) > ballsLeft) {
+			int start = random.nextInt(jumps);
+			int jump = BoardGeometry.NO_JUMP;
+
+			for (int k = 0; k < jumps && jump == BoardGeometry.NO_JUMP; k++) {
+				int next = (start + k) % jumps;
+
+				if (geometry.isLegal(board, next)
+						&& (!solvable || solver.isSolvable(geometry.makeJump(board, next))))
+					jump = next;
+			}
+
+			if (jump == BoardGeometry.NO_JUMP)
+				break;
+
+			board = geometry.makeJump(board, jump);
+		}
+
+		return board;
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BallControl;
+import com.arp.solitaire.Board.BoardGeometry;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests solutions found by Solver win the game when played.
+ *
+ * @author Adrian Panton
+ */
+public class SolverTest {
+
+	private static final BoardGeometry geometry = BoardGeometry.ENGLISH;
+
+	/**
+	 * Now play a solution on the board, checking each jump is legal,
+	 * and return how the game ended.
+	 */
+	private static int play(int startHole, int finishHole, List<SolutionMove> solution) {
+
+		BallControl ballControl = new BallControl(geometry);
+		ballControl.setProblem(startHole, finishHole);
+
+		for (SolutionMove move : solution) {
+			int jump = geometry.getJump(move.getOldPosition(), move.getDirection());
+
+			assertEquals(move.getJumped(), geometry.getOver(jump));
+			assertEquals(move.getNewPosition(), geometry.getTo(jump));
+			assertTrue(ballControl.isJumpLegal(jump));
+
+			ballControl.moveBall(move.getOldPosition(), move.getJumped(), move.getNewPosition());
+		}
+
+		return ballControl.checkForGameEnd();
+	}
+
+	@Test
+	public void solutionWinsGame() {
+
+		int middle = geometry.getMiddleHole();
+		List<SolutionMove> solution = new Solver(geometry).solve(geometry.getStartBoard());
+
+		assertNotNull(solution);
+		assertEquals(geometry.getNumberOfHoles() - 2, solution.size());
+		assertEquals(BallControl.GAME_WON, play(middle, middle, solution));
+	}
+
+	@Test
+	public void otherFinishHoleKeepsSharedTable() {
+
+		int middle = geometry.getMiddleHole();
+		int finish = 1; // Middle of the top row.
+
+		TranspositionTable table = new TranspositionTable(geometry);
+		Solver solver = new Solver(geometry, table);
+
+		assertNotNull(solver.solve(geometry.getStartBoard()));
+		int size = table.size();
+
+		List<SolutionMove> solution = solver.solve(geometry.getStartBoard(), finish);
+
+		assertNotNull(solution);
+		assertEquals(BallControl.GAME_WON, play(middle, finish, solution));
+
+		// Shared table is still the one for the middle hole.
+		assertTrue(solver.getTable() == table);
+		assertEquals(middle, table.getFinishHole());
+		assertEquals(size, table.size());
+
+		solution = solver.solve(geometry.getStartBoard());
+		assertEquals(BallControl.GAME_WON, play(middle, middle, solution));
+	}
+
+	@Test
+	public void noSolutionIsNull() {
+
+		// Two balls in opposite corners of the cross can never meet.
+		long board = BoardGeometry.holeBit(0) | BoardGeometry.holeBit(32);
+
+		assertNull(new Solver(geometry).solve(board));
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.Solution;
+
+import com.arp.solitaire.Board.BoardGeometry;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests every symmetric image of a position has the same canonical
+ * key, so the transposition table finds them all.
+ *
+ * @author Adrian Panton
+ */
+public class SymmetryTest {
+
+	private static final BoardGeometry geometry = BoardGeometry.ENGLISH;
+
+	@Test
+	public void englishBoardHasEightSymmetries() {
+
+		assertEquals(Symmetry.NUMBER_OF_TRANSFORMS, new Symmetry(geometry).getNumberOfTransforms());
+
+		// Only the reflection in the middle column keeps the top middle hole.
+		assertEquals(2, new Symmetry(geometry, 1).getNumberOfTransforms());
+	}
+
+	@Test
+	public void imagesShareCanonicalKey() {
+
+		Symmetry symmetry = new Symmetry(geometry);
+		Random random = new Random(1);
+
+		for (int n = 0; n < 10000; n++) {
+			long board = random.nextLong() & geometry.getFullBoard();
+			long key = symmetry.canonical(board);
+
+			assertTrue(key <= board);
+
+			for (int transform = 0; transform < symmetry.getNumberOfTransforms(); transform++) {
+				long image = symmetry.transform(board, transform);
+
+				assertEquals(Long.bitCount(board), Long.bitCount(image));
+				assertEquals(key, symmetry.canonical(image));
+			}
+		}
+	}
+
+	@Test
+	public void transformMovesEachHole() {
+
+		Symmetry symmetry = new Symmetry(geometry);
+
+		for (int transform = 0; transform < symmetry.getNumberOfTransforms(); transform++) {
+			for (int hole = 0; hole < geometry.getNumberOfHoles(); hole++) {
+				int to = symmetry.transformHole(hole, transform);
+
+				assertEquals(BoardGeometry.holeBit(to),
+						symmetry.transform(BoardGeometry.holeBit(hole), transform));
+
+				if (transform == 0)
+					assertEquals(hole, to);
+			}
+		}
+	}
+
+	@Test
+	public void imagesOfLegalJumpsAreLegal() {
+
+		Symmetry symmetry = new Symmetry(geometry);
+		Random random = new Random(2);
+
+		for (int n = 0; n < 1000; n++) {
+			long board = random.nextLong() & geometry.getFullBoard();
+
+			for (int transform = 0; transform < symmetry.getNumberOfTransforms(); transform++) {
+				long image = symmetry.transform(board, transform);
+
+				for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++) {
+					if (!geometry.isLegal(board, jump))
+						continue;
+
+					long after = symmetry.transform(geometry.makeJump(board, jump), transform);
+
+					assertEquals(1, Long.bitCount(image) - Long.bitCount(after));
+					assertEquals(2, Long.bitCount(image & ~after));
+					assertTrue(isReachedByJump(image, after));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void tableFindsImages() {
+
+		TranspositionTable table = new TranspositionTable(geometry);
+		Symmetry symmetry = table.getSymmetry();
+		Random random = new Random(3);
+
+		for (int n = 0; n < 1000; n++) {
+			long board = random.nextLong() & geometry.getFullBoard() | 1;
+			int result = n % 2 == 0 ? TranspositionTable.SOLVABLE : TranspositionTable.UNSOLVABLE;
+
+			table.put(board, result);
+
+			for (int transform = 0; transform < symmetry.getNumberOfTransforms(); transform++)
+				assertEquals(result, table.get(symmetry.transform(board, transform)));
+		}
+	}
+
+	/** Check a legal jump turns one position into the other. */
+	private static boolean isReachedByJump(long board, long after) {
+
+		for (int jump = 0; jump < geometry.getNumberOfJumps(); jump++)
+			if (geometry.isLegal(board, jump) && geometry.makeJump(board, jump) == after)
+				return true;
+
+		return false;
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+
+package com.arp.solitaire.io;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests saves waiting to start are joined, and that games are saved
+ * and loaded in the order asked with failures passed to the listener.
+ *
+ * @author Adrian Panton
+ */
+public class AsyncGameStoreTest {
+
+	/** Keeps tasks until they are run. */
+	private static class QueuedExecutor implements Executor {
+
+		private final List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable task) {
+			tasks.add(task);
+		}
+
+		/** Now run the tasks queued so far, returning how many ran. */
+		int runAll() {
+
+			List<Runnable> queued = new ArrayList<>(tasks);
+			tasks.clear();
+
+			for (Runnable task : queued)
+				task.run();
+
+			return queued.size();
+		}
+	}
+
+	/** Keeps games in memory, counting writes, or fails every call. */
+	private static class MemoryGameStore implements GameStore {
+
+		private final GameSaveData[] games = new GameSaveData[4];
+		private final boolean failing;
+		private int writes;
+
+		MemoryGameStore(boolean failing) {
+			this.failing = failing;
+		}
+
+		@Override
+		public int getNumberOfSlots() {
+			return games.length;
+		}
+
+		@Override
+		public boolean isSlotUsed(int slot) {
+			return games[slot] != null;
+		}
+
+		@Override
+		public boolean[] getUsedSlots() {
+
+			boolean[] used = new boolean[games.length];
+
+			for (int slot = 0; slot < games.length; slot++)
+				used[slot] = games[slot] != null;
+
+			return used;
+		}
+
+		@Override
+		public boolean saveGame(int slot, GameSaveData gameSaveData) {
+
+			if (failing)
+				throw new IllegalStateException("Store closed");
+
+			writes++;
+			games[slot] = gameSaveData;
+			return true;
+		}
+
+		@Override
+		public GameSaveData loadGame(int slot) {
+
+			if (failing)
+				throw new IllegalStateException("Store closed");
+
+			return games[slot];
+		}
+	}
+
+	/** Remembers what the store told it, as slot and result. */
+	private static class Listener implements AsyncGameStore.onGameStoreListener {
+
+		private final List<String> saves = new ArrayList<>();
+		private final List<GameSaveData> loads = new ArrayList<>();
+
+		@Override
+		public void gameSaved(int slot, boolean saved) {
+			saves.add(slot + " " + saved);
+		}
+
+		@Override
+		public void gameLoaded(int slot, GameSaveData gameSaveData) {
+			loads.add(gameSaveData);
+		}
+	}
+
+	@Test
+	public void onlyNewestWaitingSaveIsWritten() {
+
+		MemoryGameStore store = new MemoryGameStore(false);
+		QueuedExecutor ioExecutor = new QueuedExecutor();
+		Listener listener = new Listener();
+
+		AsyncGameStore asyncGameStore = new AsyncGameStore(store, ioExecutor, AsyncGameStore.DIRECT);
+		asyncGameStore.setGameStoreListener(listener);
+
+		GameSaveData newest = new GameSaveData();
+		asyncGameStore.saveGame(2, new GameSaveData());
+		asyncGameStore.saveGame(2, new GameSaveData());
+		asyncGameStore.saveGame(2, newest);
+		asyncGameStore.saveGame(3, new GameSaveData());
+
+		assertEquals(2, ioExecutor.runAll());
+
+		assertEquals(2, store.writes);
+		assertSame(newest, store.loadGame(2));
+		assertEquals("[2 true, 3 true]", listener.saves.toString());
+
+		// A save made once the last has started is written as well.
+		asyncGameStore.saveGame(2, new GameSaveData());
+
+		assertEquals(1, ioExecutor.runAll());
+		assertEquals(3, store.writes);
+	}
+
+	@Test
+	public void loadFollowsSaveAskedBefore() {
+
+		MemoryGameStore store = new MemoryGameStore(false);
+		QueuedExecutor ioExecutor = new QueuedExecutor();
+		QueuedExecutor callbackExecutor = new QueuedExecutor();
+		Listener listener = new Listener();
+
+		AsyncGameStore asyncGameStore = new AsyncGameStore(store, ioExecutor, callbackExecutor);
+		asyncGameStore.setGameStoreListener(listener);
+
+		GameSaveData gameSaveData = new GameSaveData();
+		asyncGameStore.saveGame(1, gameSaveData);
+		asyncGameStore.loadGame(1);
+
+		assertEquals(2, ioExecutor.runAll());
+
+		// The listener is only told on the callback executor.
+		assertEquals(0, listener.saves.size() + listener.loads.size());
+		assertEquals(2, callbackExecutor.runAll());
+
+		assertEquals("[1 true]", listener.saves.toString());
+		assertSame(gameSaveData, listener.loads.get(0));
+	}
+
+	@Test
+	public void storeFailuresAreReported() {
+
+		Listener listener = new Listener();
+
+		AsyncGameStore asyncGameStore = new AsyncGameStore(new MemoryGameStore(true));
+		asyncGameStore.setGameStoreListener(listener);
+
+		asyncGameStore.saveGame(0, new GameSaveData());
+		asyncGameStore.loadGame(0);
+
+		assertEquals("[0 false]", listener.saves.toString());
+		assertEquals(1, listener.loads.size());
+		assertNull(listener.loads.get(0));
+	}
+}
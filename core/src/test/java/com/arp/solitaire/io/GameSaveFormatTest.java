@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.io;
+
+import com.arp.solitaire.Board.BallControl;
+import com.arp.solitaire.Board.BoardGeometry;
+import com.arp.solitaire.Game.UndoMove;
+import com.arp.solitaire.Solution.SolutionMove;
+import com.arp.solitaire.Solution.Solver;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests games are written and read back the same, that damaged saves
+ * are found and that games saved by Java serialization still load.
+ *
+ * @author Adrian Panton
+ */
+public class GameSaveFormatTest {
+
+	/**
+	 * Now play the first jumps of a solution of the English board and
+	 * make the data Game would save.
+	 */
+	static GameSaveData playGame(int jumps) {
+
+		BoardGeometry geometry = BoardGeometry.ENGLISH;
+		BallControl ballControl = new BallControl(geometry);
+		List<SolutionMove> solution = new Solver(geometry).solve(geometry.getStartBoard());
+
+		ArrayList<UndoMove> undoMoves = new ArrayList<>();
+
+		for (int n = 0; n < geometry.getNumberOfHoles(); n++)
+			undoMoves.add(new UndoMove());
+
+		for (int n = 0; n < jumps; n++) {
+			SolutionMove move = solution.get(n);
+
+			UndoMove undoMove = undoMoves.get(n);
+			undoMove.setOldPosition(move.getOldPosition());
+			undoMove.setJumped(move.getJumped());
+			undoMove.setNewPosition(move.getNewPosition());
+
+			ballControl.moveBall(move.getOldPosition(), move.getJumped(), move.getNewPosition());
+		}
+
+		GameSaveData gameSaveData = new GameSaveData();
+		gameSaveData.setFileID("SOL");
+		gameSaveData.setBallCount(ballControl.getBallCounter());
+		gameSaveData.setGraphicList(ballControl.getBallGraphicList());
+		gameSaveData.setUndoBufferPointer(jumps);
+		gameSaveData.setUndoMoves(undoMoves);
+
+		return gameSaveData;
+	}
+
+	static byte[] write(GameSaveData gameSaveData) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GameSaveFormat.write(bytes, gameSaveData);
+
+		return bytes.toByteArray();
+	}
+
+	/** Check two saves hold the same game, moves past the pointer are not saved. */
+	static void assertSameGame(GameSaveData expected, GameSaveData actual) {
+
+		assertEquals(expected.getFileID(), actual.getFileID());
+		assertEquals(expected.getBallCount(), actual.getBallCount());
+		assertArrayEquals(expected.getGraphicList(), actual.getGraphicList());
+		assertEquals(expected.getUndoBufferPointer(), actual.getUndoBufferPointer());
+		assertEquals(expected.getUndoMoves().size(), actual.getUndoMoves().size());
+
+		for (int n = 0; n < expected.getUndoBufferPointer(); n++) {
+			UndoMove move = expected.getUndoMoves().get(n);
+			UndoMove read = actual.getUndoMoves().get(n);
+
+			assertEquals(move.getOldPosition(), read.getOldPosition());
+			assertEquals(move.getJumped(), read.getJumped());
+			assertEquals(move.getNewPosition(), read.getNewPosition());
+		}
+	}
+
+	@Test
+	public void roundTrip() throws IOException {
+
+		for (int jumps : new int[] { 0, 1, 15, 31 }) {
+			GameSaveData saved = playGame(jumps);
+			byte[] bytes = write(saved);
+
+			assertFalse(GameSaveFormat.isSerialized(bytes));
+			assertSameGame(saved, GameSaveFormat.read(bytes));
+		}
+	}
+
+	@Test
+	public void savedGameIsSmall() throws IOException {
+		assertTrue(write(playGame(31)).length <= 120);
+	}
+
+	@Test
+	public void everyChangedByteIsFound() throws IOException {
+
+		byte[] bytes = write(playGame(10));
+
+		for (int n = 0; n < bytes.length; n++) {
+			byte[] damaged = bytes.clone();
+			damaged[n] ^= 0x10;
+
+			try {
+				GameSaveFormat.read(damaged);
+				fail("Byte " + n + " changed but read");
+			} catch (StreamCorruptedException e) {
+				// Expected.
+			}
+		}
+	}
+
+	@Test
+	public void shortSaveIsFound() throws IOException {
+
+		byte[] bytes = write(playGame(10));
+
+		for (int length = 0; length < bytes.length; length++) {
+			try {
+				GameSaveFormat.read(Arrays.copyOf(bytes, length));
+				fail("Read " + length + " of " + bytes.length + " bytes");
+			} catch (StreamCorruptedException e) {
+				// Expected.
+			}
+		}
+	}
+
+	@Test
+	public void serializedGameIsRead() throws IOException {
+
+		GameSaveData saved = playGame(12);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(bytes);
+		oos.writeObject(saved);
+		oos.close();
+
+		assertTrue(GameSaveFormat.isSerialized(bytes.toByteArray()));
+		assertSameGame(saved, GameSaveFormat.read(bytes.toByteArray()));
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2017.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ *
+ */
+
+package com.arp.solitaire.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static com.arp.solitaire.io.GameSaveFormatTest.assertSameGame;
+import static com.arp.solitaire.io.GameSaveFormatTest.playGame;
+import static com.arp.solitaire.io.GameSaveFormatTest.write;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests games saved in the slot file load again after it is reopened,
+ * laid out again or damaged, and that files of the first version are
+ * moved to the current one.
+ *
+ * @author Adrian Panton
+ */
+public class MappedGameStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File slotFile() {
+		return new File(folder.getRoot(), "games.slots");
+	}
+
+	@Test
+	public void gamesLoadAfterReopen() throws IOException {
+
+		File file = slotFile();
+
+		try (MappedGameStore store = new MappedGameStore(file)) {
+			assertTrue(store.wasCreated());
+			assertNull(store.loadGame(0));
+
+			// Each save goes to the other record of the slot.
+			for (int jumps = 0; jumps < 5; jumps++) {
+				assertTrue(store.saveGame(3, playGame(jumps)));
+				assertSameGame(playGame(jumps), store.loadGame(3));
+			}
+
+			assertTrue(store.saveGame(7, playGame(20)));
+		}
+
+		try (MappedGameStore store = new MappedGameStore(file)) {
+			assertFalse(store.wasCreated());
+
+			boolean[] used = new boolean[MappedGameStore.DEFAULT_SLOTS];
+			used[3] = true;
+			used[7] = true;
+			assertArrayEquals(used, store.getUsedSlots());
+
+			assertSameGame(playGame(4), store.loadGame(3));
+			assertSameGame(playGame(20), store.loadGame(7));
+		}
+	}
+
+	@Test
+	public void newSlotCountKeepsGames() throws IOException {
+
+		File file = slotFile();
+
+		try (MappedGameStore store = new MappedGameStore(file)) {
+			store.saveGame(2, playGame(10));
+			store.saveGame(8, playGame(11));
+		}
+
+		try (MappedGameStore store = new MappedGameStore(file, 5, 128)) {
+			assertEquals(5, store.getNumberOfSlots());
+			assertSameGame(playGame(10), store.loadGame(2));
+		}
+
+		// Slot 8 went when the file had five slots.
+		try (MappedGameStore store = new MappedGameStore(file)) {
+			assertSameGame(playGame(10), store.loadGame(2));
+			assertFalse(store.isSlotUsed(8));
+		}
+
+		assertArrayEquals(new String[] { file.getName() }, folder.getRoot().list());
+	}
+
+	@Test
+	public void firstVersionIsMoved() throws IOException {
+
+		File file = slotFile();
+		int slots = 10;
+		int recordSize = 256;
+		int recordsStart = (16 + 2 + 7) & ~7;
+		byte[] saved = write(playGame(9));
+
+		// Header, a bit for each used slot, then one record a slot.
+		ByteBuffer buffer = ByteBuffer.allocate(recordsStart + slots * recordSize);
+		buffer.putInt(MappedGameStore.MAGIC).putInt(1).putInt(slots).putInt(recordSize);
+		buffer.put(16, (byte) (1 << 2));
+		buffer.putInt(recordsStart + 2 * recordSize, saved.length);
+		buffer.position(recordsStart + 2 * recordSize + 4);
+		buffer.put(saved);
+		Files.write(file.toPath(), buffer.array());
+
+		try (MappedGameStore store = new MappedGameStore(file)) {
+			assertFalse(store.wasCreated());
+			assertTrue(store.isSlotUsed(2));
+			assertSameGame(playGame(9), store.loadGame(2));
+		}
+
+		try (RandomAccessFile reopened = new RandomAccessFile(file, "r")) {
+			reopened.seek(4);
+			assertEquals(MappedGameStore.VERSION, reopened.readInt());
+		}
+	}
+
+	@Test
+	public void shortFileIsMadeAgain() throws IOException {
+
+		for (int length : new int[] { 10, 16, 100 }) {
+			File file = slotFile();
+
+			try (MappedGameStore store = new MappedGameStore(file)) {
+				store.saveGame(1, playGame(3));
+			}
+
+			try (RandomAccessFile cut = new RandomAccessFile(file, "rw")) {
+				cut.setLength(length);
+			}
+
+			try (MappedGameStore store = new MappedGameStore(file)) {
+				assertTrue(store.wasCreated());
+				assertFalse(store.isSlotUsed(1));
+
+				assertTrue(store.saveGame(1, playGame(3)));
+				assertSameGame(playGame(3), store.loadGame(1));
+			}
+
+			assertTrue(file.delete());
+		}
+	}
+
+	@Test
+	public void otherFileIsNotTouched() throws IOException {
+
+		File file = slotFile();
+		byte[] text = "Not a slot file at all".getBytes("UTF-8");
+		Files.write(file.toPath(), text);
+
+		try (MappedGameStore store = new MappedGameStore(file)) {
+			fail("Opened " + store);
+		} catch (IOException e) {
+			assertArrayEquals(text, Files.readAllBytes(file.toPath()));
+		}
+	}
+
+	@Test
+	public void oldSavesAreImported() throws IOException {
+
+		FileGameStore oldStore = new FileGameStore(folder.newFolder());
+		oldStore.saveGame(4, playGame(6));
+
+		try (MappedGameStore store = new MappedGameStore(slotFile())) {
+			store.saveGame(5, playGame(7));
+
+			assertEquals(1, store.importGames(oldStore));
+			assertSameGame(playGame(6), store.loadGame(4));
+			assertSameGame(playGame(7), store.loadGame(5));
+		}
+	}
+}